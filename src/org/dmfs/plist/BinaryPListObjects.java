@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.nio.charset.Charset;
+import java.util.Date;
+
+
+/**
+ * Access to the object table of a binary plist (<code>bplist00</code>). Objects are addressed by their index in the offset table; nothing is decoded
+ * until it's requested.
+ * <p>
+ * The format is documented in <a href="http://www.opensource.apple.com/source/CF/CF-550/CFBinaryPList.c">CFBinaryPList.c</a>.
+ * </p>
+ */
+final class BinaryPListObjects
+{
+	final static byte[] MAGIC = { 'b', 'p', 'l', 'i', 's', 't', '0', '0' };
+	final static int TRAILER_SIZE = 32;
+
+	final static int TYPE_SIMPLE = 0x00;
+	final static int TYPE_INT = 0x10;
+	final static int TYPE_REAL = 0x20;
+	final static int TYPE_DATE = 0x30;
+	final static int TYPE_DATA = 0x40;
+	final static int TYPE_ASCII = 0x50;
+	final static int TYPE_UNICODE = 0x60;
+	final static int TYPE_UID = 0x80;
+	final static int TYPE_ARRAY = 0xa0;
+	final static int TYPE_SET = 0xc0;
+	final static int TYPE_DICT = 0xd0;
+
+	final static int FALSE = 0x08;
+	final static int TRUE = 0x09;
+
+	private final static Charset ASCII = Charset.forName("US-ASCII");
+	private final static Charset UTF_16BE = Charset.forName("UTF-16BE");
+
+	final ByteSource source;
+	final int offsetSize;
+	final int refSize;
+	final long count;
+	final long top;
+	final long offsetTable;
+
+
+	BinaryPListObjects(ByteSource source) throws PListFormatException
+	{
+		this.source = source;
+		long length = source.length();
+		if (length < MAGIC.length + TRAILER_SIZE)
+		{
+			throw new PListFormatException("binary plist too short");
+		}
+		for (int i = 0; i < MAGIC.length; ++i)
+		{
+			if (source.get(i) != MAGIC[i])
+			{
+				throw new PListFormatException("not a binary plist");
+			}
+		}
+
+		long trailer = length - TRAILER_SIZE;
+		offsetSize = source.get(trailer + 6);
+		refSize = source.get(trailer + 7);
+		count = source.getSized(trailer + 8, 8);
+		top = source.getSized(trailer + 16, 8);
+		offsetTable = source.getSized(trailer + 24, 8);
+
+		if (offsetSize < 1 || offsetSize > 8 || refSize < 1 || refSize > 8 || count < 1 || top < 0 || top >= count || offsetTable < MAGIC.length
+			|| offsetTable + count * offsetSize > trailer || count > trailer)
+		{
+			throw new PListFormatException("invalid binary plist trailer");
+		}
+	}
+
+
+	/**
+	 * Returns the file offset of the object with the given index.
+	 */
+	long offset(long index) throws PListFormatException
+	{
+		if (index < 0 || index >= count)
+		{
+			throw new PListFormatException("invalid object reference " + index);
+		}
+		long result = source.getSized(offsetTable + index * offsetSize, offsetSize);
+		if (result < MAGIC.length || result >= offsetTable)
+		{
+			throw new PListFormatException("invalid object offset " + result);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Returns the marker byte of the object at the given file offset.
+	 */
+	int marker(long offset)
+	{
+		return source.get(offset);
+	}
+
+
+	/**
+	 * Returns the number of elements (characters, bytes, refs or entries) of the variable length object at the given file offset.
+	 */
+	long length(long offset) throws PListFormatException
+	{
+		int len = source.get(offset) & 0x0f;
+		if (len != 0x0f)
+		{
+			return len;
+		}
+		int intMarker = source.get(offset + 1);
+		if ((intMarker & 0xf0) != TYPE_INT)
+		{
+			throw new PListFormatException("invalid length at offset " + offset);
+		}
+		if ((intMarker & 0x0f) > 3)
+		{
+			throw new PListFormatException("invalid length size at offset " + offset);
+		}
+		long result = source.getSized(offset + 2, 1 << (intMarker & 0x0f));
+		if (result < 0)
+		{
+			throw new PListFormatException("invalid length at offset " + offset);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Returns the file offset of the payload of the variable length object at the given file offset.
+	 */
+	long payload(long offset)
+	{
+		if ((source.get(offset) & 0x0f) != 0x0f)
+		{
+			return offset + 1;
+		}
+		return offset + 2 + (1 << (source.get(offset + 1) & 0x0f));
+	}
+
+
+	/**
+	 * Returns the file offset of the object references of the container at the given file offset, making sure that <code>count</code> references fit
+	 * into the object table.
+	 */
+	long refs(long offset, long count) throws PListFormatException
+	{
+		long result = payload(offset);
+		if (count < 0 || count > (offsetTable - result) / refSize)
+		{
+			throw new PListFormatException("invalid container length at offset " + offset);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Returns the <code>i</code>-th object reference of the container whose payload starts at <code>refs</code>.
+	 */
+	long ref(long refs, long i)
+	{
+		return source.getSized(refs + i * refSize, refSize);
+	}
+
+
+	long integer(long offset) throws PListFormatException
+	{
+		int nibble = source.get(offset) & 0x0f;
+		if (nibble > 4)
+		{
+			throw new PListFormatException("invalid integer size at offset " + offset);
+		}
+		int size = 1 << nibble;
+		if (size == 16)
+		{
+			// 128 bit integers are only used for unsigned 64 bit values, take the lower half
+			return source.getSized(offset + 9, 8);
+		}
+		return source.getSized(offset + 1, size);
+	}
+
+
+	double real(long offset) throws PListFormatException
+	{
+		int nibble = source.get(offset) & 0x0f;
+		if (nibble != 2 && nibble != 3)
+		{
+			throw new PListFormatException("invalid real size at offset " + offset);
+		}
+		int size = 1 << nibble;
+		if (size == 4)
+		{
+			return Float.intBitsToFloat((int) source.getSized(offset + 1, 4));
+		}
+		return Double.longBitsToDouble(source.getSized(offset + 1, 8));
+	}
+
+
+	Date date(long offset)
+	{
+		double seconds = Double.longBitsToDouble(source.getSized(offset + 1, 8));
+		return new Date(PListDates.CF_EPOCH_OFFSET + Math.round(seconds * 1000));
+	}
+
+
+	byte[] data(long offset) throws PListFormatException
+	{
+		return bytes(offset, length(offset));
+	}
+
+
+	String string(long offset) throws PListFormatException
+	{
+		long length = length(offset);
+		if ((source.get(offset) & 0xf0) == TYPE_ASCII)
+		{
+			return new String(bytes(offset, length), ASCII);
+		}
+		return new String(bytes(offset, length * 2), UTF_16BE);
+	}
+
+
+	/**
+	 * Returns whether the object at the given file offset is a string equal to the given value. The string is compared in place, without decoding it.
+	 */
+	boolean stringEquals(long offset, String value) throws PListFormatException
+	{
+		int type = source.get(offset) & 0xf0;
+		if (type != TYPE_ASCII && type != TYPE_UNICODE || length(offset) != value.length())
+		{
+			return false;
+		}
+
+		long start = payload(offset);
+		int length = value.length();
+		if (type == TYPE_ASCII)
+		{
+			if (start + length > offsetTable)
+			{
+				throw new PListFormatException("invalid object length at offset " + offset);
+			}
+			for (int i = 0; i < length; ++i)
+			{
+				if (source.get(start + i) != value.charAt(i))
+				{
+					return false;
+				}
+			}
+		}
+		else
+		{
+			if (start + length * 2L > offsetTable)
+			{
+				throw new PListFormatException("invalid object length at offset " + offset);
+			}
+			for (int i = 0; i < length; ++i)
+			{
+				if (source.getSized(start + i * 2L, 2) != value.charAt(i))
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Returns the {@link String#hashCode()} of the string at the given file offset, computed in place, without decoding it. Returns <code>0</code> for all
+	 * other types.
+	 */
+	int stringHash(long offset) throws PListFormatException
+	{
+		int type = source.get(offset) & 0xf0;
+		if (type != TYPE_ASCII && type != TYPE_UNICODE)
+		{
+			return 0;
+		}
+
+		long start = payload(offset);
+		long length = length(offset);
+		int size = type == TYPE_ASCII ? 1 : 2;
+		if (start + length * size > offsetTable)
+		{
+			throw new PListFormatException("invalid object length at offset " + offset);
+		}
+		int hash = 0;
+		for (long i = 0; i < length; ++i)
+		{
+			hash = 31 * hash + (int) (size == 1 ? source.get(start + i) : source.getSized(start + i * 2, 2));
+		}
+		return hash;
+	}
+
+
+	private byte[] bytes(long offset, long length) throws PListFormatException
+	{
+		long start = payload(offset);
+		if (length > Integer.MAX_VALUE || start + length > offsetTable)
+		{
+			throw new PListFormatException("invalid object length at offset " + offset);
+		}
+		byte[] result = new byte[(int) length];
+		source.get(start, result, 0, (int) length);
+		return result;
+	}
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * Reads a binary plist (<code>bplist00</code>) and passes its contents to a {@link PListHandler}.
+ * <p>
+ * The binary format requires random access, so the entire document must be available in memory (or mapped into memory). However, no intermediate tree is
+ * built, objects are decoded one at a time while the handler is called.
+ * </p>
+ * <p>
+ * When reading with a {@link PListSchema}, values of undeclared dict keys are skipped without decoding them.
+ * </p>
+ * <p>
+ * Keyed archiver UIDs are reported as dicts with a single <code>CF$UID</code> integer entry, just like <code>plutil</code> does. Sets are reported as arrays.
+ * </p>
+ */
+public final class BinaryPListReader
+{
+	private final static String UID_KEY = "CF$UID";
+
+	/**
+	 * The largest array most VMs can allocate.
+	 */
+	private final static int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+	private final BinaryPListObjects mObjects;
+	private final PListBudget mBudget;
+	private PListValueFilter mFilter;
+
+	/**
+	 * The indices of the containers on the path to the current object, used to detect cycles.
+	 */
+	private final BitSet mPath = new BitSet();
+
+	/**
+	 * The indices beyond the range of {@link #mPath} on the path to the current object, usually <code>null</code>.
+	 */
+	private Set<Long> mLargePath;
+
+
+	public BinaryPListReader(byte[] data) throws PListFormatException
+	{
+		this(ByteBuffer.wrap(data), PListLimits.UNLIMITED);
+	}
+
+
+	/**
+	 * Create a reader for the binary plist in the given {@link ByteBuffer}. The plist is expected to start at the current position and end at the limit of
+	 * the buffer. The buffer can be a {@link java.nio.MappedByteBuffer}.
+	 * 
+	 * @param buffer
+	 *            The {@link ByteBuffer} containing the binary plist.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @throws PListFormatException
+	 *             if the buffer doesn't contain a binary plist.
+	 */
+	public BinaryPListReader(ByteBuffer buffer, PListLimits limits) throws PListFormatException
+	{
+		this(new ByteSource.ByteBufferSource(buffer), limits);
+	}
+
+
+	BinaryPListReader(ByteSource source, PListLimits limits) throws PListFormatException
+	{
+		this(new BinaryPListObjects(source), limits);
+	}
+
+
+	BinaryPListReader(BinaryPListObjects objects, PListLimits limits)
+	{
+		mObjects = objects;
+		mBudget = new PListBudget(limits);
+	}
+
+
+	/**
+	 * Read the binary plist from the given {@link InputStream}. Since the binary format requires random access the entire stream is read into memory.
+	 * <p>
+	 * <strong>Note:</strong> the stream is not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param in
+	 *            The {@link InputStream} to read from.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @return A {@link BinaryPListReader}.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the stream doesn't contain a binary plist.
+	 * @throws PListLimitExceededException
+	 *             if the stream is longer than {@link PListLimits#getMaxDocumentSize()}.
+	 */
+	public static BinaryPListReader fromStream(InputStream in, PListLimits limits) throws IOException, PListLimitExceededException
+	{
+		return new BinaryPListReader(readFully(in, new byte[16 * 1024], limits), limits);
+	}
+
+
+	/**
+	 * Read the given {@link InputStream} to its end. The stream is read into the given buffer, if it's too small it's replaced by a larger copy.
+	 * 
+	 * @param in
+	 *            The {@link InputStream} to read from.
+	 * @param buffer
+	 *            The buffer to start with.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @return A {@link ByteBuffer} that wraps the contents of the stream.
+	 * @throws IOException
+	 * @throws PListLimitExceededException
+	 *             if the stream is longer than {@link PListLimits#getMaxDocumentSize()}.
+	 */
+	static ByteBuffer readFully(InputStream in, byte[] buffer, PListLimits limits) throws IOException, PListLimitExceededException
+	{
+		// read at most one byte more than allowed, so we can tell whether the limit has been exceeded
+		long maxSize = Math.min(limits.getMaxDocumentSize(), MAX_BUFFER_SIZE - 1) + 1;
+		int length = 0;
+		int read;
+		while (true)
+		{
+			if (length == buffer.length)
+			{
+				if (length >= maxSize)
+				{
+					break;
+				}
+				buffer = Arrays.copyOf(buffer, (int) Math.min(length * 2L, maxSize));
+			}
+			if ((read = in.read(buffer, length, buffer.length - length)) < 0)
+			{
+				break;
+			}
+			length += read;
+		}
+
+		if (length > limits.getMaxDocumentSize())
+		{
+			throw new PListLimitExceededException("plist document size exceeds limit of " + limits.getMaxDocumentSize());
+		}
+		if (length >= MAX_BUFFER_SIZE)
+		{
+			throw new PListFormatException("binary plist too large");
+		}
+		return ByteBuffer.wrap(buffer, 0, length);
+	}
+
+
+	/**
+	 * Pass the contents of the binary plist to the given {@link PListHandler}.
+	 * 
+	 * @param handler
+	 *            The {@link PListHandler} to receive the events.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the binary plist is corrupt.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the {@link PListLimits}.
+	 */
+	public void read(PListHandler handler) throws IOException, PListLimitExceededException
+	{
+		read(mObjects.top, handler);
+	}
+
+
+	/**
+	 * Pass the object with the given index and all its descendants as a document to the given {@link PListHandler}.
+	 */
+	void read(long index, PListHandler handler) throws IOException, PListLimitExceededException
+	{
+		mBudget.reset(null);
+		mPath.clear();
+		mLargePath = null;
+		mFilter = handler instanceof PListValueFilter ? (PListValueFilter) handler : null;
+		handler.startDocument();
+		readObject(index, handler);
+		handler.endDocument();
+	}
+
+
+	/**
+	 * Read the binary plist into a {@link PList} tree.
+	 * 
+	 * @return The {@link PList}.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the binary plist is corrupt or contains values that can't be represented by {@link PList}.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the {@link PListLimits}.
+	 */
+	public PList readPList() throws IOException, PListLimitExceededException
+	{
+		PListTreeBuilder builder = new PListTreeBuilder();
+		read(builder);
+		return builder.getPList();
+	}
+
+
+	private void readObject(long index, PListHandler handler) throws IOException, PListLimitExceededException
+	{
+		BinaryPListObjects objects = mObjects;
+		PListBudget budget = mBudget;
+		long offset = objects.offset(index);
+		int marker = objects.marker(offset);
+
+		budget.addNode();
+		switch (marker & 0xf0)
+		{
+			case BinaryPListObjects.TYPE_SIMPLE:
+				if (marker == BinaryPListObjects.TRUE || marker == BinaryPListObjects.FALSE)
+				{
+					handler.bool(marker == BinaryPListObjects.TRUE);
+					return;
+				}
+				break;
+			case BinaryPListObjects.TYPE_INT:
+				handler.integer(objects.integer(offset));
+				return;
+			case BinaryPListObjects.TYPE_REAL:
+				handler.real(objects.real(offset));
+				return;
+			case BinaryPListObjects.TYPE_DATE:
+				handler.date(objects.date(offset));
+				return;
+			case BinaryPListObjects.TYPE_DATA:
+			{
+				long length = objects.length(offset);
+				budget.addString(0, (int) Math.min(Integer.MAX_VALUE, length));
+				handler.data(objects.data(offset));
+				return;
+			}
+			case BinaryPListObjects.TYPE_ASCII:
+			case BinaryPListObjects.TYPE_UNICODE:
+			{
+				long length = objects.length(offset);
+				budget.addString(0, (int) Math.min(Integer.MAX_VALUE, length));
+				handler.string(objects.string(offset));
+				return;
+			}
+			case BinaryPListObjects.TYPE_UID:
+				budget.enterContainer();
+				handler.startDict();
+				handler.key(UID_KEY);
+				handler.integer(objects.source.getSized(offset + 1, (marker & 0x0f) + 1));
+				handler.endDict();
+				budget.leaveContainer();
+				return;
+			case BinaryPListObjects.TYPE_ARRAY:
+			case BinaryPListObjects.TYPE_SET:
+			{
+				long length = objects.length(offset);
+				long refs = objects.refs(offset, length);
+				enterContainer(index, length);
+				handler.startArray();
+				for (long i = 0; i < length; ++i)
+				{
+					if (accept())
+					{
+						readObject(objects.ref(refs, i), handler);
+					}
+				}
+				handler.endArray();
+				leaveContainer(index);
+				return;
+			}
+			case BinaryPListObjects.TYPE_DICT:
+			{
+				long length = objects.length(offset);
+				long refs = objects.refs(offset, length * 2);
+				enterContainer(index, length);
+				handler.startDict();
+				for (long i = 0; i < length; ++i)
+				{
+					long keyOffset = objects.offset(objects.ref(refs, i));
+					int keyType = objects.marker(keyOffset) & 0xf0;
+					if (keyType != BinaryPListObjects.TYPE_ASCII && keyType != BinaryPListObjects.TYPE_UNICODE)
+					{
+						throw new PListFormatException("dict key at offset " + keyOffset + " is not a string");
+					}
+					String key = objects.string(keyOffset);
+					budget.addString(0, key.length());
+					handler.key(key);
+					if (accept())
+					{
+						readObject(objects.ref(refs, i + length), handler);
+					}
+				}
+				handler.endDict();
+				leaveContainer(index);
+				return;
+			}
+		}
+		throw new PListFormatException("unsupported object type 0x" + Integer.toHexString(marker) + " at offset " + offset);
+	}
+
+
+	/**
+	 * Returns whether the filter, if any, accepts the next value.
+	 */
+	private boolean accept()
+	{
+		return mFilter == null || mFilter.acceptValue();
+	}
+
+
+	private void enterContainer(long index, long length) throws PListLimitExceededException, PListFormatException
+	{
+		PListBudget budget = mBudget;
+		budget.enterContainer();
+		boolean entered;
+		if (index <= Integer.MAX_VALUE)
+		{
+			entered = mPath.get((int) index);
+			mPath.set((int) index);
+		}
+		else
+		{
+			if (mLargePath == null)
+			{
+				mLargePath = new HashSet<Long>();
+			}
+			entered = !mLargePath.add(index);
+		}
+		if (entered)
+		{
+			// the container contains itself
+			throw new PListFormatException("cyclic object reference to object " + index + " in binary plist");
+		}
+		if (length > 0)
+		{
+			budget.checkContainerSize((int) Math.min(Integer.MAX_VALUE, length - 1));
+		}
+	}
+
+
+	private void leaveContainer(long index)
+	{
+		mBudget.leaveContainer();
+		if (index <= Integer.MAX_VALUE)
+		{
+			mPath.clear((int) index);
+		}
+		else
+		{
+			mLargePath.remove(index);
+		}
+	}
+}
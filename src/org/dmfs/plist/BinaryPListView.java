@@ -0,0 +1,624 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * A read-only random-access view of a binary plist (<code>bplist00</code>).
+ * <p>
+ * Files are mapped into memory, opening a view only reads the trailer, so it takes constant time and heap no matter how large the file is. Values are
+ * looked up by following the object references on demand, nothing is decoded until it's accessed. Dict keys are compared in place, without decoding them.
+ * </p>
+ * <p>
+ * Values are returned as {@link Node}s. A {@link Node} is just a reference into the mapped file, so it's cheap to create and holds no decoded data.
+ * </p>
+ * <p>
+ * Looking up a key in a small dict compares the keys one by one. For dicts with {@value #MIN_INDEXED_SIZE} to {@value #MAX_INDEXED_SIZE} entries a
+ * hash table of the key hashes is built on the first lookup and kept by the view, so further lookups in the same dict take constant time. Larger dicts
+ * are always scanned. The tables of all dicts of a view take at most {@value #MAX_KEY_INDEX_BYTES} bytes of heap.
+ * </p>
+ * 
+ * <pre>
+ * BinaryPListView view = BinaryPListView.open(new File(&quot;Library.plist&quot;));
+ * try
+ * {
+ * 	BinaryPListView.Node name = view.get(&quot;Tracks/1234/Name&quot;);
+ * 	...
+ * }
+ * finally
+ * {
+ * 	view.close();
+ * }
+ * </pre>
+ * <p>
+ * Views and nodes are thread-safe.
+ * </p>
+ */
+public final class BinaryPListView implements Closeable
+{
+	/**
+	 * The types of the values in a binary plist.
+	 */
+	public enum Type
+	{
+		DICT, ARRAY, STRING, INTEGER, REAL, BOOLEAN, DATA, DATE,
+
+		/**
+		 * A keyed archiver UID.
+		 */
+		UID;
+	}
+
+	/**
+	 * The minimum number of entries of a dict to build a {@link KeyIndex} for.
+	 */
+	final static int MIN_INDEXED_SIZE = 16;
+
+	/**
+	 * The maximum number of entries of a dict to build a {@link KeyIndex} for. The {@link KeyIndex} of a dict of this size takes 1 MiB.
+	 */
+	final static int MAX_INDEXED_SIZE = 64 * 1024;
+
+	/**
+	 * The maximum number of bytes all {@link KeyIndex}es of a view may take.
+	 */
+	final static long MAX_KEY_INDEX_BYTES = 4 * 1024 * 1024;
+
+	private final RandomAccessFile mFile;
+	private final BinaryPListObjects mObjects;
+
+	/**
+	 * The {@link KeyIndex}es of the dicts that have been accessed, by object index.
+	 */
+	private final ConcurrentMap<Long, KeyIndex> mKeyIndexes = new ConcurrentHashMap<Long, KeyIndex>();
+
+	/**
+	 * The number of bytes taken by the {@link KeyIndex}es in {@link #mKeyIndexes}. Guarded by {@link #mKeyIndexes}.
+	 */
+	private long mKeyIndexBytes;
+
+
+	/**
+	 * Open a view of the given binary plist file. The file is mapped into memory.
+	 * <p>
+	 * <strong>Note:</strong> the view must be closed when it's no longer needed. The file must not be modified while the view is open.
+	 * </p>
+	 * 
+	 * @param file
+	 *            The binary plist file.
+	 * @return A {@link BinaryPListView}.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the file is not a binary plist.
+	 */
+	public static BinaryPListView open(File file) throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try
+		{
+			return new BinaryPListView(raf, new ByteSource.MappedFileSource(raf.getChannel()));
+		}
+		catch (IOException e)
+		{
+			raf.close();
+			throw e;
+		}
+	}
+
+
+	/**
+	 * Create a view of the binary plist in the given {@link ByteBuffer}. The plist is expected to start at the current position and end at the limit of the
+	 * buffer.
+	 * 
+	 * @param buffer
+	 *            The {@link ByteBuffer} containing the binary plist.
+	 * @throws PListFormatException
+	 *             if the buffer doesn't contain a binary plist.
+	 */
+	public BinaryPListView(ByteBuffer buffer) throws PListFormatException
+	{
+		this(null, new ByteSource.ByteBufferSource(buffer));
+	}
+
+
+	private BinaryPListView(RandomAccessFile file, ByteSource source) throws PListFormatException
+	{
+		mFile = file;
+		mObjects = new BinaryPListObjects(source);
+	}
+
+
+	/**
+	 * Returns the top level object.
+	 * 
+	 * @throws PListFormatException
+	 *             if the plist is corrupt.
+	 */
+	public Node getRoot() throws PListFormatException
+	{
+		return new Node(this, mObjects.top);
+	}
+
+
+	/**
+	 * Returns the object at the given key path, relative to the top level object.
+	 * 
+	 * @param keyPath
+	 *            A key path like <code>Tracks/1234/Name</code>.
+	 * @return The {@link Node} or <code>null</code> if there is no such object.
+	 * @throws PListFormatException
+	 *             if the plist is corrupt.
+	 * @see Node#get(String)
+	 */
+	public Node get(String keyPath) throws PListFormatException
+	{
+		return getRoot().get(keyPath);
+	}
+
+
+	/**
+	 * Closes the underlying file. Note that the memory mapping is released by the garbage collector, not by this method.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (mFile != null)
+		{
+			mFile.close();
+		}
+	}
+
+
+	/**
+	 * Returns the {@link KeyIndex} of the dict with the given object index, building it if necessary.
+	 */
+	private KeyIndex keyIndex(long index, long offset, long length) throws PListFormatException
+	{
+		Long key = index;
+		KeyIndex result = mKeyIndexes.get(key);
+		if (result == null)
+		{
+			result = new KeyIndex(mObjects, offset, (int) length);
+			synchronized (mKeyIndexes)
+			{
+				if (mKeyIndexBytes + result.bytes() > MAX_KEY_INDEX_BYTES)
+				{
+					// not worth an LRU, the tables of dicts that are still in use are rebuilt on their next lookup
+					mKeyIndexes.clear();
+					mKeyIndexBytes = 0;
+				}
+				if (mKeyIndexes.put(key, result) == null)
+				{
+					mKeyIndexBytes += result.bytes();
+				}
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * An object in a binary plist. The getters return <code>null</code> if the object is not of the respective type.
+	 */
+	public final static class Node
+	{
+		private final BinaryPListView mView;
+		private final BinaryPListObjects mObjects;
+		private final long mIndex;
+		private final long mOffset;
+		private final int mMarker;
+
+
+		Node(BinaryPListView view, long index) throws PListFormatException
+		{
+			BinaryPListObjects objects = view.mObjects;
+			mView = view;
+			mObjects = objects;
+			mIndex = index;
+			mOffset = objects.offset(index);
+			mMarker = objects.marker(mOffset);
+		}
+
+
+		/**
+		 * Returns the {@link Type} of this object.
+		 * 
+		 * @throws PListFormatException
+		 *             if the object type is not supported.
+		 */
+		public Type getType() throws PListFormatException
+		{
+			switch (mMarker & 0xf0)
+			{
+				case BinaryPListObjects.TYPE_SIMPLE:
+					if (mMarker == BinaryPListObjects.TRUE || mMarker == BinaryPListObjects.FALSE)
+					{
+						return Type.BOOLEAN;
+					}
+					break;
+				case BinaryPListObjects.TYPE_INT:
+					return Type.INTEGER;
+				case BinaryPListObjects.TYPE_REAL:
+					return Type.REAL;
+				case BinaryPListObjects.TYPE_DATE:
+					return Type.DATE;
+				case BinaryPListObjects.TYPE_DATA:
+					return Type.DATA;
+				case BinaryPListObjects.TYPE_ASCII:
+				case BinaryPListObjects.TYPE_UNICODE:
+					return Type.STRING;
+				case BinaryPListObjects.TYPE_UID:
+					return Type.UID;
+				case BinaryPListObjects.TYPE_ARRAY:
+				case BinaryPListObjects.TYPE_SET:
+					return Type.ARRAY;
+				case BinaryPListObjects.TYPE_DICT:
+					return Type.DICT;
+			}
+			throw new PListFormatException("unsupported object type 0x" + Integer.toHexString(mMarker) + " at offset " + mOffset);
+		}
+
+
+		/**
+		 * Returns the number of entries of a dict or elements of an array, <code>0</code> for all other types.
+		 * 
+		 * @throws PListFormatException
+		 *             if the plist is corrupt.
+		 */
+		public long size() throws PListFormatException
+		{
+			return isDict() || isArray() ? mObjects.length(mOffset) : 0;
+		}
+
+
+		/**
+		 * Returns the object at the given key path, relative to this object. Dict entries are addressed by their key, array elements by their index, e.g.
+		 * <code>Playlists/0/Name</code>. A <code>/</code> or <code>\</code> in a key must be escaped with a <code>\</code>. The empty path returns this
+		 * object.
+		 * 
+		 * @param keyPath
+		 *            The key path.
+		 * @return The {@link Node} or <code>null</code> if there is no such object.
+		 * @throws PListFormatException
+		 *             if the plist is corrupt.
+		 */
+		public Node get(String keyPath) throws PListFormatException
+		{
+			Node result = this;
+			for (String segment : PListKeyPath.split(keyPath))
+			{
+				if (result.isDict())
+				{
+					result = result.getValue(segment);
+				}
+				else if (result.isArray())
+				{
+					int index = PListKeyPath.index(segment);
+					result = index < 0 ? null : result.get(index);
+				}
+				else
+				{
+					return null;
+				}
+				if (result == null)
+				{
+					return null;
+				}
+			}
+			return result;
+		}
+
+
+		/**
+		 * Returns the value with the given key of a dict. Unlike {@link #get(String)} the key is taken literally.
+		 * <p>
+		 * Small dicts are scanned, large dicts are looked up in a hash table that's built by the first lookup, see {@link BinaryPListView}.
+		 * </p>
+		 * 
+		 * @param key
+		 *            The key.
+		 * @return The {@link Node} or <code>null</code> if this is not a dict or there is no such key.
+		 * @throws PListFormatException
+		 *             if the plist is corrupt.
+		 */
+		public Node getValue(String key) throws PListFormatException
+		{
+			if (!isDict())
+			{
+				return null;
+			}
+			BinaryPListObjects objects = mObjects;
+			long length = objects.length(mOffset);
+			long refs = objects.refs(mOffset, length * 2);
+			if (length >= MIN_INDEXED_SIZE && length <= MAX_INDEXED_SIZE)
+			{
+				long entry = mView.keyIndex(mIndex, mOffset, length).find(key);
+				return entry < 0 ? null : new Node(mView, objects.ref(refs, entry + length));
+			}
+			for (long i = 0; i < length; ++i)
+			{
+				if (objects.stringEquals(objects.offset(objects.ref(refs, i)), key))
+				{
+					return new Node(mView, objects.ref(refs, i + length));
+				}
+			}
+			return null;
+		}
+
+
+		/**
+		 * Returns the element of an array at the given position.
+		 * 
+		 * @param index
+		 *            The position of the element.
+		 * @return The {@link Node} or <code>null</code> if this is not an array or the index is out of bounds.
+		 * @throws PListFormatException
+		 *             if the plist is corrupt.
+		 */
+		public Node get(long index) throws PListFormatException
+		{
+			if (!isArray())
+			{
+				return null;
+			}
+			long length = mObjects.length(mOffset);
+			if (index < 0 || index >= length)
+			{
+				return null;
+			}
+			return new Node(mView, mObjects.ref(mObjects.refs(mOffset, length), index));
+		}
+
+
+		/**
+		 * Returns the key of the dict entry at the given position.
+		 * 
+		 * @param index
+		 *            The position of the entry.
+		 * @return The key or <code>null</code> if this is not a dict or the index is out of bounds.
+		 * @throws PListFormatException
+		 *             if the plist is corrupt.
+		 */
+		public String getKey(long index) throws PListFormatException
+		{
+			Node key = entry(index, 0);
+			return key == null ? null : key.getString();
+		}
+
+
+		/**
+		 * Returns the value of the dict entry at the given position.
+		 * 
+		 * @param index
+		 *            The position of the entry.
+		 * @return The {@link Node} or <code>null</code> if this is not a dict or the index is out of bounds.
+		 * @throws PListFormatException
+		 *             if the plist is corrupt.
+		 */
+		public Node getValue(long index) throws PListFormatException
+		{
+			return entry(index, 1);
+		}
+
+
+		public String getString() throws PListFormatException
+		{
+			int type = mMarker & 0xf0;
+			return type == BinaryPListObjects.TYPE_ASCII || type == BinaryPListObjects.TYPE_UNICODE ? mObjects.string(mOffset) : null;
+		}
+
+
+		public Long getInteger() throws PListFormatException
+		{
+			return (mMarker & 0xf0) == BinaryPListObjects.TYPE_INT ? mObjects.integer(mOffset) : null;
+		}
+
+
+		public Double getReal() throws PListFormatException
+		{
+			return (mMarker & 0xf0) == BinaryPListObjects.TYPE_REAL ? mObjects.real(mOffset) : null;
+		}
+
+
+		public Boolean getBoolean()
+		{
+			return mMarker == BinaryPListObjects.TRUE ? Boolean.TRUE : mMarker == BinaryPListObjects.FALSE ? Boolean.FALSE : null;
+		}
+
+
+		public byte[] getData() throws PListFormatException
+		{
+			return (mMarker & 0xf0) == BinaryPListObjects.TYPE_DATA ? mObjects.data(mOffset) : null;
+		}
+
+
+		public Date getDate()
+		{
+			return (mMarker & 0xf0) == BinaryPListObjects.TYPE_DATE ? mObjects.date(mOffset) : null;
+		}
+
+
+		/**
+		 * Returns the value of a keyed archiver UID.
+		 */
+		public Long getUid()
+		{
+			return (mMarker & 0xf0) == BinaryPListObjects.TYPE_UID ? mObjects.source.getSized(mOffset + 1, (mMarker & 0x0f) + 1) : null;
+		}
+
+
+		/**
+		 * Pass this object and all its descendants as a document to the given {@link PListHandler}.
+		 * 
+		 * @param handler
+		 *            The {@link PListHandler} to receive the events.
+		 * @param limits
+		 *            The {@link PListLimits} to enforce.
+		 * @throws IOException
+		 * @throws PListFormatException
+		 *             if the plist is corrupt.
+		 * @throws PListLimitExceededException
+		 *             if the object exceeds any of the given limits.
+		 */
+		public void read(PListHandler handler, PListLimits limits) throws IOException, PListLimitExceededException
+		{
+			new BinaryPListReader(mObjects, limits).read(mIndex, handler);
+		}
+
+
+		/**
+		 * Decode this object and all its descendants into a {@link PList} tree.
+		 * 
+		 * @param limits
+		 *            The {@link PListLimits} to enforce.
+		 * @return The {@link PList}.
+		 * @throws IOException
+		 * @throws PListFormatException
+		 *             if the plist is corrupt or contains values that can't be represented by {@link PList}.
+		 * @throws PListLimitExceededException
+		 *             if the object exceeds any of the given limits.
+		 */
+		public PList toPList(PListLimits limits) throws IOException, PListLimitExceededException
+		{
+			PListTreeBuilder builder = new PListTreeBuilder();
+			read(builder, limits);
+			return builder.getPList();
+		}
+
+
+		private boolean isDict()
+		{
+			return (mMarker & 0xf0) == BinaryPListObjects.TYPE_DICT;
+		}
+
+
+		private boolean isArray()
+		{
+			int type = mMarker & 0xf0;
+			return type == BinaryPListObjects.TYPE_ARRAY || type == BinaryPListObjects.TYPE_SET;
+		}
+
+
+		/**
+		 * Returns the key (<code>half == 0</code>) or the value (<code>half == 1</code>) of a dict entry.
+		 */
+		private Node entry(long index, int half) throws PListFormatException
+		{
+			if (!isDict())
+			{
+				return null;
+			}
+			long length = mObjects.length(mOffset);
+			if (index < 0 || index >= length)
+			{
+				return null;
+			}
+			return new Node(mView, mObjects.ref(mObjects.refs(mOffset, length * 2), index + half * length));
+		}
+	}
+
+
+	/**
+	 * An open addressing hash table of the keys of a dict. It only stores the key hashes and entry positions, candidates are verified by comparing the key
+	 * in place, so hash collisions and non-string keys are handled correctly. Instances are immutable.
+	 */
+	private final static class KeyIndex
+	{
+		private final BinaryPListObjects mObjects;
+		private final long mRefs;
+
+		/**
+		 * The entry positions plus one by slot, <code>0</code> marks an empty slot.
+		 */
+		private final int[] mSlots;
+
+		/**
+		 * The key hashes by slot.
+		 */
+		private final int[] mHashes;
+
+
+		KeyIndex(BinaryPListObjects objects, long offset, int length) throws PListFormatException
+		{
+			mObjects = objects;
+			mRefs = objects.refs(offset, length * 2L);
+			// the smallest power of two that keeps the load factor at or below 0.5
+			int[] slots = new int[Integer.highestOneBit(length - 1) << 2];
+			int[] hashes = new int[slots.length];
+			int mask = slots.length - 1;
+			// entries are inserted in order, so the first of duplicate keys is found first, just like a scan would
+			for (int i = 0; i < length; ++i)
+			{
+				int hash = objects.stringHash(objects.offset(objects.ref(mRefs, i)));
+				int slot = spread(hash) & mask;
+				while (slots[slot] != 0)
+				{
+					slot = (slot + 1) & mask;
+				}
+				slots[slot] = i + 1;
+				hashes[slot] = hash;
+			}
+			mSlots = slots;
+			mHashes = hashes;
+		}
+
+
+		/**
+		 * Returns the approximate number of bytes this takes.
+		 */
+		long bytes()
+		{
+			return mSlots.length * 8L;
+		}
+
+
+		/**
+		 * Returns the position of the entry with the given key or <code>-1</code> if there is no such key.
+		 */
+		long find(String key) throws PListFormatException
+		{
+			int[] slots = mSlots;
+			int hash = key.hashCode();
+			int mask = slots.length - 1;
+			for (int slot = spread(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask)
+			{
+				int entry = slots[slot] - 1;
+				if (mHashes[slot] == hash && mObjects.stringEquals(mObjects.offset(mObjects.ref(mRefs, entry)), key))
+				{
+					return entry;
+				}
+			}
+			return -1;
+		}
+
+
+		private static int spread(int hash)
+		{
+			return hash ^ (hash >>> 16);
+		}
+	}
+}
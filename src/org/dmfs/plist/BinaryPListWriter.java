@@ -0,0 +1,666 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * A {@link PListHandler} that writes a binary plist (<code>bplist00</code>).
+ * <p>
+ * The binary format stores the offsets of all objects and the number of objects (which determines the size of object references) after the objects, so
+ * the object table has to be buffered until the document ends. It's buffered in its encoded form, so the memory needed is roughly the size of the
+ * resulting file. Objects are written in the order they are completed, i.e. children before their containers. Strings, booleans and integers are written
+ * only once, no matter how often they occur in the document.
+ * </p>
+ */
+public final class BinaryPListWriter implements PListHandler
+{
+	/**
+	 * The size of the object references in the buffered object table. They are narrowed to the actual size when the document is written.
+	 */
+	private final static int BUFFERED_REF_SIZE = 4;
+
+	private final OutputStream mOut;
+
+	/**
+	 * Whether this writer encodes a fragment, see {@link #BinaryPListWriter()}.
+	 */
+	private final boolean mFragment;
+
+	/**
+	 * The encoded object table.
+	 */
+	private byte[] mObjects = new byte[16 * 1024];
+	private int mSize;
+
+	/**
+	 * The start of each object in {@link #mObjects} and the start of its references or <code>-1</code> if the object is not a container.
+	 */
+	private int[] mStarts = new int[1024];
+	private int[] mRefStarts = new int[1024];
+	private int mCount;
+
+	/**
+	 * The references of all open containers.
+	 */
+	private int[] mRefStack = new int[256];
+	private int mRefTop;
+
+	/**
+	 * The position of the first reference of each open container in {@link #mRefStack}.
+	 */
+	private int[] mFrames = new int[16];
+	private int mDepth;
+
+	private int mTop;
+
+	private final Map<String, Integer> mStrings = new HashMap<String, Integer>(256);
+	private final Map<Long, Integer> mIntegers = new HashMap<Long, Integer>(64);
+	private int mTrue;
+	private int mFalse;
+
+
+	/**
+	 * Create a writer that writes to the given {@link OutputStream}.
+	 * <p>
+	 * <strong>Note:</strong> the output stream is flushed, but not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param out
+	 *            The {@link OutputStream} to write to.
+	 */
+	public BinaryPListWriter(OutputStream out)
+	{
+		mOut = out;
+		mFragment = false;
+	}
+
+
+	/**
+	 * Create a writer that encodes a fragment, i.e. a sequence of array elements or dict entries without an enclosing container. Fragments are not
+	 * written anywhere, they are merged into another writer using {@link #append(BinaryPListWriter)}. Don't call {@link #startDocument()} or
+	 * {@link #endDocument()} on a fragment.
+	 */
+	BinaryPListWriter()
+	{
+		mOut = null;
+		mFragment = true;
+		reset();
+	}
+
+
+	@Override
+	public void startDocument() throws IOException
+	{
+		reset();
+	}
+
+
+	private void reset()
+	{
+		mSize = 0;
+		mCount = 0;
+		mRefTop = 0;
+		mDepth = 0;
+		mTop = -1;
+		mTrue = -1;
+		mFalse = -1;
+		mStrings.clear();
+		mIntegers.clear();
+	}
+
+
+	@Override
+	public void endDocument() throws IOException
+	{
+		if (mDepth != 0 || mTop < 0)
+		{
+			throw new IllegalStateException("incomplete document");
+		}
+		writeTo(mOut);
+	}
+
+
+	@Override
+	public void startDict() throws IOException
+	{
+		pushFrame();
+	}
+
+
+	@Override
+	public void key(String key) throws IOException
+	{
+		pushRef(stringObject(key));
+	}
+
+
+	@Override
+	public void endDict() throws IOException
+	{
+		int start = mFrames[--mDepth];
+		int count = (mRefTop - start) / 2;
+		int index = beginObject(BinaryPListObjects.TYPE_DICT, count);
+		mRefStarts[index] = mSize;
+		ensureCapacity(count * 2 * BUFFERED_REF_SIZE);
+		// keys are interleaved with the values on the stack, but the format wants all keys first
+		for (int i = start; i < mRefTop; i += 2)
+		{
+			putInt(mRefStack[i]);
+		}
+		for (int i = start + 1; i < mRefTop; i += 2)
+		{
+			putInt(mRefStack[i]);
+		}
+		mRefTop = start;
+		value(index);
+	}
+
+
+	@Override
+	public void startArray() throws IOException
+	{
+		pushFrame();
+	}
+
+
+	@Override
+	public void endArray() throws IOException
+	{
+		int start = mFrames[--mDepth];
+		int count = mRefTop - start;
+		int index = beginObject(BinaryPListObjects.TYPE_ARRAY, count);
+		mRefStarts[index] = mSize;
+		ensureCapacity(count * BUFFERED_REF_SIZE);
+		for (int i = start; i < mRefTop; ++i)
+		{
+			putInt(mRefStack[i]);
+		}
+		mRefTop = start;
+		value(index);
+	}
+
+
+	@Override
+	public void string(String value) throws IOException
+	{
+		value(stringObject(value));
+	}
+
+
+	@Override
+	public void integer(long value) throws IOException
+	{
+		Long key = value;
+		Integer index = mIntegers.get(key);
+		if (index == null)
+		{
+			index = intObject(value);
+			mIntegers.put(key, index);
+		}
+		value(index);
+	}
+
+
+	@Override
+	public void real(double value) throws IOException
+	{
+		int index = newObject();
+		ensureCapacity(9);
+		mObjects[mSize++] = (byte) (BinaryPListObjects.TYPE_REAL | 3);
+		putLong(Double.doubleToRawLongBits(value));
+		value(index);
+	}
+
+
+	@Override
+	public void bool(boolean value) throws IOException
+	{
+		int index = value ? mTrue : mFalse;
+		if (index < 0)
+		{
+			index = newObject();
+			ensureCapacity(1);
+			mObjects[mSize++] = (byte) (value ? BinaryPListObjects.TRUE : BinaryPListObjects.FALSE);
+			if (value)
+			{
+				mTrue = index;
+			}
+			else
+			{
+				mFalse = index;
+			}
+		}
+		value(index);
+	}
+
+
+	@Override
+	public void data(byte[] value) throws IOException
+	{
+		int index = beginObject(BinaryPListObjects.TYPE_DATA, value.length);
+		ensureCapacity(value.length);
+		System.arraycopy(value, 0, mObjects, mSize, value.length);
+		mSize += value.length;
+		value(index);
+	}
+
+
+	@Override
+	public void date(Date value) throws IOException
+	{
+		int index = newObject();
+		ensureCapacity(9);
+		mObjects[mSize++] = (byte) (BinaryPListObjects.TYPE_DATE | 3);
+		putLong(Double.doubleToRawLongBits((value.getTime() - PListDates.CF_EPOCH_OFFSET) / 1000d));
+		value(index);
+	}
+
+
+	/**
+	 * Append the objects of the given fragment to the current container, as if the events of the fragment had been sent to this writer. Strings, booleans
+	 * and integers that are already present are merged, so the result is exactly the same.
+	 * 
+	 * @param fragment
+	 *            A fragment writer, see {@link #BinaryPListWriter()}, with no open containers.
+	 */
+	void append(BinaryPListWriter fragment)
+	{
+		if (mDepth == 0 || !fragment.mFragment || fragment.mDepth != 0)
+		{
+			throw new IllegalStateException("can't append fragment here");
+		}
+
+		int count = fragment.mCount;
+
+		// collect the unique objects of the fragment
+		Object[] unique = new Object[count];
+		for (Map.Entry<String, Integer> entry : fragment.mStrings.entrySet())
+		{
+			unique[entry.getValue()] = entry.getKey();
+		}
+		for (Map.Entry<Long, Integer> entry : fragment.mIntegers.entrySet())
+		{
+			unique[entry.getValue()] = entry.getKey();
+		}
+		if (fragment.mTrue >= 0)
+		{
+			unique[fragment.mTrue] = Boolean.TRUE;
+		}
+		if (fragment.mFalse >= 0)
+		{
+			unique[fragment.mFalse] = Boolean.FALSE;
+		}
+
+		byte[] objects = fragment.mObjects;
+		int[] map = new int[count];
+		for (int i = 0; i < count; ++i)
+		{
+			Object value = unique[i];
+			Integer existing = null;
+			if (value instanceof String)
+			{
+				existing = mStrings.get(value);
+			}
+			else if (value instanceof Long)
+			{
+				existing = mIntegers.get(value);
+			}
+			else if (value != null)
+			{
+				int index = value == Boolean.TRUE ? mTrue : mFalse;
+				existing = index < 0 ? null : index;
+			}
+
+			if (existing != null)
+			{
+				map[i] = existing;
+				continue;
+			}
+
+			int index = newObject();
+			map[i] = index;
+			int start = fragment.mStarts[i];
+			int end = i + 1 < count ? fragment.mStarts[i + 1] : fragment.mSize;
+			int refStart = fragment.mRefStarts[i];
+			ensureCapacity(end - start);
+			if (refStart < 0)
+			{
+				System.arraycopy(objects, start, mObjects, mSize, end - start);
+				mSize += end - start;
+			}
+			else
+			{
+				System.arraycopy(objects, start, mObjects, mSize, refStart - start);
+				mSize += refStart - start;
+				mRefStarts[index] = mSize;
+				// children are always written before their containers, so they have already been mapped
+				for (int pos = refStart; pos < end; pos += BUFFERED_REF_SIZE)
+				{
+					int ref = ((objects[pos] & 0xff) << 24) | ((objects[pos + 1] & 0xff) << 16) | ((objects[pos + 2] & 0xff) << 8) | (objects[pos + 3] & 0xff);
+					putInt(map[ref]);
+				}
+			}
+
+			if (value instanceof String)
+			{
+				mStrings.put((String) value, index);
+			}
+			else if (value instanceof Long)
+			{
+				mIntegers.put((Long) value, index);
+			}
+			else if (value == Boolean.TRUE)
+			{
+				mTrue = index;
+			}
+			else if (value == Boolean.FALSE)
+			{
+				mFalse = index;
+			}
+		}
+
+		for (int i = 0; i < fragment.mRefTop; ++i)
+		{
+			pushRef(map[fragment.mRefStack[i]]);
+		}
+	}
+
+
+	/**
+	 * Write the buffered document to the given {@link OutputStream}, narrowing all object references to the smallest possible size.
+	 * <p>
+	 * References only get smaller, so they are narrowed in place and the offset table and the trailer are appended to the object table. The document is
+	 * written with a single call, without any intermediate buffer. Afterwards the object table is no longer usable.
+	 * </p>
+	 */
+	private void writeTo(OutputStream out) throws IOException
+	{
+		int count = mCount;
+		int refSize = sizeOf(count - 1);
+		byte[] objects = mObjects;
+		int[] starts = mStarts;
+		int[] refStarts = mRefStarts;
+
+		int pos = 0;
+		for (int i = 0; i < count; ++i)
+		{
+			int start = starts[i];
+			int end = i + 1 < count ? starts[i + 1] : mSize;
+			int refStart = refStarts[i];
+			int headerEnd = refStart < 0 ? end : refStart;
+			// from now on we only need the final offset of the object
+			starts[i] = BinaryPListObjects.MAGIC.length + pos;
+			System.arraycopy(objects, start, objects, pos, headerEnd - start);
+			pos += headerEnd - start;
+			for (int ref = headerEnd; ref < end; ref += BUFFERED_REF_SIZE)
+			{
+				// pos never passes ref, so this only overwrites references that have already been read
+				int value = ((objects[ref] & 0xff) << 24) | ((objects[ref + 1] & 0xff) << 16) | ((objects[ref + 2] & 0xff) << 8) | (objects[ref + 3] & 0xff);
+				encode(value, objects, pos, refSize);
+				pos += refSize;
+			}
+		}
+
+		long offsetTable = BinaryPListObjects.MAGIC.length + pos;
+		int offsetSize = sizeOf(offsetTable);
+		mSize = pos;
+		ensureCapacity(count * offsetSize + BinaryPListObjects.TRAILER_SIZE);
+		objects = mObjects;
+		for (int i = 0; i < count; ++i)
+		{
+			encode(starts[i], objects, pos, offsetSize);
+			pos += offsetSize;
+		}
+
+		for (int i = 0; i < 6; ++i)
+		{
+			objects[pos + i] = 0;
+		}
+		objects[pos + 6] = (byte) offsetSize;
+		objects[pos + 7] = (byte) refSize;
+		encode(count, objects, pos + 8, 8);
+		encode(mTop, objects, pos + 16, 8);
+		encode(offsetTable, objects, pos + 24, 8);
+		pos += BinaryPListObjects.TRAILER_SIZE;
+
+		mSize = 0;
+		mCount = 0;
+		out.write(BinaryPListObjects.MAGIC);
+		out.write(objects, 0, pos);
+		out.flush();
+	}
+
+
+	private int stringObject(String value)
+	{
+		Integer index = mStrings.get(value);
+		if (index != null)
+		{
+			return index;
+		}
+
+		int len = value.length();
+		boolean ascii = true;
+		for (int i = 0; i < len && ascii; ++i)
+		{
+			ascii = value.charAt(i) < 0x80;
+		}
+
+		int result;
+		if (ascii)
+		{
+			result = beginObject(BinaryPListObjects.TYPE_ASCII, len);
+			ensureCapacity(len);
+			for (int i = 0; i < len; ++i)
+			{
+				mObjects[mSize++] = (byte) value.charAt(i);
+			}
+		}
+		else
+		{
+			result = beginObject(BinaryPListObjects.TYPE_UNICODE, len);
+			ensureCapacity(len * 2);
+			for (int i = 0; i < len; ++i)
+			{
+				char c = value.charAt(i);
+				mObjects[mSize++] = (byte) (c >> 8);
+				mObjects[mSize++] = (byte) c;
+			}
+		}
+		mStrings.put(value, result);
+		return result;
+	}
+
+
+	private int intObject(long value)
+	{
+		int index = newObject();
+		ensureCapacity(9);
+		writeInt(value);
+		return index;
+	}
+
+
+	/**
+	 * Append an integer (including its marker) to the object table.
+	 */
+	private void writeInt(long value)
+	{
+		// only 8 byte integers are signed
+		int size = value < 0 ? 8 : sizeOf(value);
+		mObjects[mSize++] = (byte) (BinaryPListObjects.TYPE_INT | Integer.numberOfTrailingZeros(size));
+		for (int shift = (size - 1) * 8; shift >= 0; shift -= 8)
+		{
+			mObjects[mSize++] = (byte) (value >>> shift);
+		}
+	}
+
+
+	/**
+	 * Start a new variable length object with the given type and length.
+	 * 
+	 * @return The index of the new object.
+	 */
+	private int beginObject(int type, int length)
+	{
+		int index = newObject();
+		ensureCapacity(10);
+		if (length < 0x0f)
+		{
+			mObjects[mSize++] = (byte) (type | length);
+		}
+		else
+		{
+			mObjects[mSize++] = (byte) (type | 0x0f);
+			writeInt(length);
+		}
+		return index;
+	}
+
+
+	private int newObject()
+	{
+		if (mCount == mStarts.length)
+		{
+			mStarts = grow(mStarts);
+			mRefStarts = grow(mRefStarts);
+		}
+		mStarts[mCount] = mSize;
+		mRefStarts[mCount] = -1;
+		return mCount++;
+	}
+
+
+	/**
+	 * Register a completed value with its container or make it the top object. Top level values of fragments are collected like the values of a
+	 * container.
+	 */
+	private void value(int index)
+	{
+		if (mDepth == 0 && !mFragment)
+		{
+			mTop = index;
+		}
+		else
+		{
+			pushRef(index);
+		}
+	}
+
+
+	private void pushRef(int index)
+	{
+		if (mRefTop == mRefStack.length)
+		{
+			mRefStack = grow(mRefStack);
+		}
+		mRefStack[mRefTop++] = index;
+	}
+
+
+	private void pushFrame()
+	{
+		if (mDepth == mFrames.length)
+		{
+			mFrames = grow(mFrames);
+		}
+		mFrames[mDepth++] = mRefTop;
+	}
+
+
+	private void putInt(int value)
+	{
+		byte[] objects = mObjects;
+		objects[mSize++] = (byte) (value >>> 24);
+		objects[mSize++] = (byte) (value >>> 16);
+		objects[mSize++] = (byte) (value >>> 8);
+		objects[mSize++] = (byte) value;
+	}
+
+
+	private void putLong(long value)
+	{
+		putInt((int) (value >>> 32));
+		putInt((int) value);
+	}
+
+
+	private void ensureCapacity(int additional)
+	{
+		if (mSize + additional > mObjects.length)
+		{
+			long size = Math.max((long) mObjects.length * 2, (long) mSize + additional);
+			if (size > Integer.MAX_VALUE - 8)
+			{
+				if ((long) mSize + additional > Integer.MAX_VALUE - 8)
+				{
+					throw new OutOfMemoryError("object table too large");
+				}
+				size = Integer.MAX_VALUE - 8;
+			}
+			byte[] objects = new byte[(int) size];
+			System.arraycopy(mObjects, 0, objects, 0, mSize);
+			mObjects = objects;
+		}
+	}
+
+
+	/**
+	 * Returns the number of bytes (1, 2, 4 or 8) needed to store the given non-negative value.
+	 */
+	static int sizeOf(long value)
+	{
+		if (value <= 0xffL)
+		{
+			return 1;
+		}
+		if (value <= 0xffffL)
+		{
+			return 2;
+		}
+		if (value <= 0xffffffffL)
+		{
+			return 4;
+		}
+		return 8;
+	}
+
+
+	private static void encode(long value, byte[] dst, int offset, int size)
+	{
+		for (int i = offset + size - 1; i >= offset; --i)
+		{
+			dst[i] = (byte) value;
+			value >>>= 8;
+		}
+	}
+
+
+	private static int[] grow(int[] array)
+	{
+		int[] result = new int[array.length * 2];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+
+/**
+ * An {@link OutputStream} that writes into a chain of {@link ByteBuffer}s taken from a {@link ByteBufferPool}. The chain grows by adding buffers, the
+ * data is never copied to grow a buffer.
+ * <p>
+ * In buffer mode all data is kept in the chain. The result is available via {@link #getBuffers()} and can be sent with a single gathering write using
+ * {@link #writeTo(WritableByteChannel)}. Call {@link #release()} to return the buffers to the pool when done.
+ * </p>
+ * <p>
+ * In channel mode the chain is written to the channel with a gathering write whenever it reaches 16 buffers, on {@link #flush()} and on
+ * {@link #close()}. This bounds the memory needed for large documents. The channel should be in blocking mode and is not closed by this stream.
+ * </p>
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ */
+public final class ByteBufferOutputStream extends OutputStream
+{
+	/**
+	 * The number of buffers to fill in channel mode before writing them to the channel.
+	 */
+	private final static int MAX_CHAIN = 16;
+
+	private final ByteBufferPool mPool;
+	private final WritableByteChannel mChannel;
+
+	/**
+	 * The caller supplied buffer, if any, which is always the first one of the chain and never returned to the pool.
+	 */
+	private final ByteBuffer mInitial;
+	private final int mInitialPosition;
+
+	/**
+	 * The buffer chain, all but the last one are full.
+	 */
+	private ByteBuffer[] mBuffers = new ByteBuffer[MAX_CHAIN];
+	private int mCount;
+	private long mFlushed;
+
+
+	/**
+	 * Create a stream in buffer mode that writes into buffers of the given pool.
+	 * 
+	 * @param pool
+	 *            The {@link ByteBufferPool} to take the buffers from.
+	 */
+	public ByteBufferOutputStream(ByteBufferPool pool)
+	{
+		this(null, null, pool);
+	}
+
+
+	/**
+	 * Create a stream in buffer mode that writes into the given buffer, starting at its current position. If the data doesn't fit, buffers of the given
+	 * pool are appended to the chain.
+	 * 
+	 * @param buffer
+	 *            The first {@link ByteBuffer} to write to.
+	 * @param pool
+	 *            The {@link ByteBufferPool} to take more buffers from.
+	 */
+	public ByteBufferOutputStream(ByteBuffer buffer, ByteBufferPool pool)
+	{
+		this(buffer, null, pool);
+	}
+
+
+	/**
+	 * Create a stream in channel mode that writes to the given channel through buffers of the given pool.
+	 * 
+	 * @param channel
+	 *            The {@link WritableByteChannel} to write to.
+	 * @param pool
+	 *            The {@link ByteBufferPool} to take the buffers from.
+	 */
+	public ByteBufferOutputStream(WritableByteChannel channel, ByteBufferPool pool)
+	{
+		this(null, channel, pool);
+	}
+
+
+	private ByteBufferOutputStream(ByteBuffer buffer, WritableByteChannel channel, ByteBufferPool pool)
+	{
+		mPool = pool;
+		mChannel = channel;
+		mInitial = buffer;
+		mInitialPosition = buffer == null ? 0 : buffer.position();
+		if (buffer != null)
+		{
+			mBuffers[mCount++] = buffer;
+		}
+	}
+
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		current().put((byte) b);
+	}
+
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		while (len > 0)
+		{
+			ByteBuffer buffer = current();
+			int count = Math.min(len, buffer.remaining());
+			buffer.put(b, off, count);
+			off += count;
+			len -= count;
+		}
+	}
+
+
+	/**
+	 * Returns the total number of bytes written to this stream, including the ones that have already been written to the channel.
+	 */
+	public long size()
+	{
+		long result = mFlushed;
+		for (int i = 0; i < mCount; ++i)
+		{
+			result += mBuffers[i].position() - (mBuffers[i] == mInitial ? mInitialPosition : 0);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Returns the buffered data as an array of {@link ByteBuffer}s ready to be read. The returned buffers are views of the chain, they are valid until
+	 * {@link #release()} is called.
+	 */
+	public ByteBuffer[] getBuffers()
+	{
+		ByteBuffer[] result = new ByteBuffer[mCount];
+		for (int i = 0; i < mCount; ++i)
+		{
+			ByteBuffer buffer = mBuffers[i].duplicate();
+			buffer.flip();
+			if (mBuffers[i] == mInitial)
+			{
+				buffer.position(mInitialPosition);
+			}
+			result[i] = buffer;
+		}
+		return result;
+	}
+
+
+	/**
+	 * Write the buffered data to the given channel, using a gathering write if the channel supports it. The buffered data is left untouched.
+	 * 
+	 * @param channel
+	 *            The {@link WritableByteChannel} to write to.
+	 * @throws IOException
+	 */
+	public void writeTo(WritableByteChannel channel) throws IOException
+	{
+		writeFully(channel, getBuffers());
+	}
+
+
+	/**
+	 * In channel mode, writes the buffered data to the channel. Does nothing in buffer mode.
+	 */
+	@Override
+	public void flush() throws IOException
+	{
+		if (mChannel != null && mCount > 0)
+		{
+			long size = size();
+			writeTo(mChannel);
+			release();
+			mFlushed = size;
+		}
+	}
+
+
+	/**
+	 * Flushes the stream in channel mode and releases all buffers. The channel is not closed.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			flush();
+		}
+		finally
+		{
+			release();
+		}
+	}
+
+
+	/**
+	 * Return all buffers to the pool and discard the buffered data. The caller supplied buffer, if any, is reset to its initial position and kept.
+	 */
+	public void release()
+	{
+		for (int i = 0; i < mCount; ++i)
+		{
+			if (mBuffers[i] != mInitial)
+			{
+				mPool.release(mBuffers[i]);
+			}
+			mBuffers[i] = null;
+		}
+		mCount = 0;
+		if (mInitial != null)
+		{
+			mInitial.position(mInitialPosition);
+			mBuffers[mCount++] = mInitial;
+		}
+	}
+
+
+	/**
+	 * Returns the buffer to write to, making sure it has space left.
+	 */
+	private ByteBuffer current() throws IOException
+	{
+		if (mCount > 0 && mBuffers[mCount - 1].hasRemaining())
+		{
+			return mBuffers[mCount - 1];
+		}
+		if (mCount == mBuffers.length)
+		{
+			if (mChannel != null)
+			{
+				flush();
+			}
+			else
+			{
+				ByteBuffer[] buffers = new ByteBuffer[mCount * 2];
+				System.arraycopy(mBuffers, 0, buffers, 0, mCount);
+				mBuffers = buffers;
+			}
+		}
+		ByteBuffer result = mPool.acquire();
+		mBuffers[mCount++] = result;
+		return result;
+	}
+
+
+	/**
+	 * Write all remaining bytes of the given buffers to the given channel.
+	 */
+	static void writeFully(WritableByteChannel channel, ByteBuffer[] buffers) throws IOException
+	{
+		if (channel instanceof GatheringByteChannel)
+		{
+			GatheringByteChannel gathering = (GatheringByteChannel) channel;
+			int first = 0;
+			while (first < buffers.length)
+			{
+				if (!buffers[first].hasRemaining())
+				{
+					++first;
+					continue;
+				}
+				gathering.write(buffers, first, buffers.length - first);
+			}
+		}
+		else
+		{
+			for (ByteBuffer buffer : buffers)
+			{
+				while (buffer.hasRemaining())
+				{
+					channel.write(buffer);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A thread-safe pool of direct {@link ByteBuffer}s of a fixed size. Allocating direct buffers is expensive, so they are kept for reuse once released.
+ */
+public final class ByteBufferPool
+{
+	/**
+	 * A shared pool of up to 64 buffers of 64 KiB each.
+	 */
+	public final static ByteBufferPool DEFAULT = new ByteBufferPool(64 * 1024, 64);
+
+	private final int mBufferSize;
+	private final int mMaxPooled;
+	private final Queue<ByteBuffer> mBuffers = new ConcurrentLinkedQueue<ByteBuffer>();
+	private final AtomicInteger mPooled = new AtomicInteger();
+
+
+	/**
+	 * Create a new pool.
+	 * 
+	 * @param bufferSize
+	 *            The capacity of the buffers in bytes.
+	 * @param maxPooled
+	 *            The maximum number of released buffers to keep.
+	 */
+	public ByteBufferPool(int bufferSize, int maxPooled)
+	{
+		if (bufferSize < 1 || maxPooled < 0)
+		{
+			throw new IllegalArgumentException("invalid pool size");
+		}
+		mBufferSize = bufferSize;
+		mMaxPooled = maxPooled;
+	}
+
+
+	/**
+	 * Returns the capacity of the buffers of this pool.
+	 */
+	public int getBufferSize()
+	{
+		return mBufferSize;
+	}
+
+
+	/**
+	 * Returns an empty direct {@link ByteBuffer}, either a released one or a new one.
+	 */
+	public ByteBuffer acquire()
+	{
+		ByteBuffer result = mBuffers.poll();
+		if (result == null)
+		{
+			return ByteBuffer.allocateDirect(mBufferSize);
+		}
+		mPooled.decrementAndGet();
+		result.clear();
+		return result;
+	}
+
+
+	/**
+	 * Hand a buffer back to the pool. Buffers that don't belong to this pool are ignored. The buffer must not be used anymore afterwards.
+	 * 
+	 * @param buffer
+	 *            The {@link ByteBuffer} to release.
+	 */
+	public void release(ByteBuffer buffer)
+	{
+		if (!buffer.isDirect() || buffer.isReadOnly() || buffer.capacity() != mBufferSize)
+		{
+			return;
+		}
+		if (mPooled.incrementAndGet() > mMaxPooled)
+		{
+			// pool is full
+			mPooled.decrementAndGet();
+			return;
+		}
+		mBuffers.offer(buffer);
+	}
+
+
+	/**
+	 * Returns the number of released buffers this pool currently keeps.
+	 */
+	int pooled()
+	{
+		return mPooled.get();
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * Random access to a sequence of bytes with <code>long</code> offsets. This is what the binary plist code reads from.
+ */
+abstract class ByteSource
+{
+	/**
+	 * Returns the number of bytes in this source.
+	 */
+	abstract long length();
+
+
+	/**
+	 * Returns the unsigned byte at the given offset.
+	 */
+	abstract int get(long offset);
+
+
+	/**
+	 * Copy <code>length</code> bytes at the given offset into the given array.
+	 */
+	abstract void get(long offset, byte[] dst, int dstOffset, int length);
+
+
+	/**
+	 * Returns the big endian unsigned integer of <code>size</code> bytes at the given offset. Eight byte values are returned as is, so they may be
+	 * negative.
+	 */
+	long getSized(long offset, int size)
+	{
+		long result = 0;
+		for (int i = 0; i < size; ++i)
+		{
+			result = (result << 8) | get(offset + i);
+		}
+		return result;
+	}
+
+
+	/**
+	 * A {@link ByteSource} backed by a {@link ByteBuffer}.
+	 */
+	final static class ByteBufferSource extends ByteSource
+	{
+		private final ByteBuffer mBuffer;
+
+
+		ByteBufferSource(ByteBuffer buffer)
+		{
+			// absolute gets are relative to the buffer start, not to its position
+			mBuffer = buffer.slice();
+		}
+
+
+		@Override
+		long length()
+		{
+			return mBuffer.limit();
+		}
+
+
+		@Override
+		int get(long offset)
+		{
+			return mBuffer.get((int) offset) & 0xff;
+		}
+
+
+		@Override
+		void get(long offset, byte[] dst, int dstOffset, int length)
+		{
+			ByteBuffer buffer = mBuffer.duplicate();
+			buffer.position((int) offset);
+			buffer.get(dst, dstOffset, length);
+		}
+
+
+		@Override
+		long getSized(long offset, int size)
+		{
+			switch (size)
+			{
+				case 1:
+					return mBuffer.get((int) offset) & 0xffL;
+				case 2:
+					return mBuffer.getShort((int) offset) & 0xffffL;
+				case 4:
+					return mBuffer.getInt((int) offset) & 0xffffffffL;
+				case 8:
+					return mBuffer.getLong((int) offset);
+				default:
+					return super.getSized(offset, size);
+			}
+		}
+	}
+
+
+	/**
+	 * A {@link ByteSource} that maps a file into memory. Since a {@link MappedByteBuffer} can't be larger than 2 GiB, the file is mapped in segments of
+	 * 1 GiB. Mapping only reserves address space, so creating the source takes constant time and heap, no matter how large the file is.
+	 */
+	final static class MappedFileSource extends ByteSource
+	{
+		private final static int SEGMENT_SHIFT = 30;
+		private final static long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+		private final MappedByteBuffer[] mSegments;
+		private final long mLength;
+
+
+		MappedFileSource(FileChannel channel) throws IOException
+		{
+			mLength = channel.size();
+			int segments = (int) ((mLength + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+			mSegments = new MappedByteBuffer[segments];
+			for (int i = 0; i < segments; ++i)
+			{
+				long start = (long) i << SEGMENT_SHIFT;
+				mSegments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << SEGMENT_SHIFT, mLength - start));
+			}
+		}
+
+
+		@Override
+		long length()
+		{
+			return mLength;
+		}
+
+
+		@Override
+		int get(long offset)
+		{
+			return mSegments[(int) (offset >>> SEGMENT_SHIFT)].get((int) (offset & SEGMENT_MASK)) & 0xff;
+		}
+
+
+		@Override
+		void get(long offset, byte[] dst, int dstOffset, int length)
+		{
+			while (length > 0)
+			{
+				ByteBuffer segment = mSegments[(int) (offset >>> SEGMENT_SHIFT)].duplicate();
+				int position = (int) (offset & SEGMENT_MASK);
+				int count = Math.min(length, segment.limit() - position);
+				segment.position(position);
+				segment.get(dst, dstOffset, count);
+				offset += count;
+				dstOffset += count;
+				length -= count;
+			}
+		}
+
+
+		@Override
+		long getSized(long offset, int size)
+		{
+			int position = (int) (offset & SEGMENT_MASK);
+			MappedByteBuffer segment = mSegments[(int) (offset >>> SEGMENT_SHIFT)];
+			if (position + size > segment.limit())
+			{
+				// crosses a segment boundary
+				return super.getSized(offset, size);
+			}
+			switch (size)
+			{
+				case 1:
+					return segment.get(position) & 0xffL;
+				case 2:
+					return segment.getShort(position) & 0xffffL;
+				case 4:
+					return segment.getInt(position) & 0xffffffffL;
+				case 8:
+					return segment.getLong(position);
+				default:
+					return super.getSized(offset, size);
+			}
+		}
+	}
+}
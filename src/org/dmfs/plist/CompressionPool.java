@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+
+/**
+ * A thread-safe pool of {@link Inflater}s, {@link Deflater}s and I/O buffers. Creating them is expensive (they allocate native memory), so they are kept
+ * for reuse once released.
+ */
+final class CompressionPool
+{
+	/**
+	 * The maximum number of released objects to keep, per kind.
+	 */
+	private final static int MAX_POOLED = 32;
+
+	/**
+	 * The size of the I/O buffers.
+	 */
+	final static int BUFFER_SIZE = 64 * 1024;
+
+	private final static Queue<Inflater> INFLATERS = new ConcurrentLinkedQueue<Inflater>();
+	private final static Queue<Inflater> RAW_INFLATERS = new ConcurrentLinkedQueue<Inflater>();
+	private final static Queue<Deflater> DEFLATERS = new ConcurrentLinkedQueue<Deflater>();
+	private final static Queue<Deflater> RAW_DEFLATERS = new ConcurrentLinkedQueue<Deflater>();
+	private final static Queue<byte[]> BUFFERS = new ConcurrentLinkedQueue<byte[]>();
+
+
+	private CompressionPool()
+	{
+	}
+
+
+	/**
+	 * Returns an {@link Inflater}.
+	 * 
+	 * @param nowrap
+	 *            <code>true</code> for raw deflate data, <code>false</code> for zlib data.
+	 */
+	static Inflater obtainInflater(boolean nowrap)
+	{
+		Inflater result = (nowrap ? RAW_INFLATERS : INFLATERS).poll();
+		return result == null ? new Inflater(nowrap) : result;
+	}
+
+
+	/**
+	 * Hand an {@link Inflater} back to the pool.
+	 * 
+	 * @param nowrap
+	 *            The value the {@link Inflater} has been obtained with.
+	 */
+	static void release(Inflater inflater, boolean nowrap)
+	{
+		Queue<Inflater> pool = nowrap ? RAW_INFLATERS : INFLATERS;
+		if (pool.size() < MAX_POOLED)
+		{
+			inflater.reset();
+			pool.offer(inflater);
+		}
+		else
+		{
+			inflater.end();
+		}
+	}
+
+
+	/**
+	 * Returns a {@link Deflater} with the given compression level.
+	 * 
+	 * @param nowrap
+	 *            <code>true</code> for raw deflate data, <code>false</code> for zlib data.
+	 * @param level
+	 *            The compression level, see {@link Deflater#setLevel(int)}.
+	 */
+	static Deflater obtainDeflater(boolean nowrap, int level)
+	{
+		Deflater result = (nowrap ? RAW_DEFLATERS : DEFLATERS).poll();
+		if (result == null)
+		{
+			return new Deflater(level, nowrap);
+		}
+		result.setLevel(level);
+		return result;
+	}
+
+
+	/**
+	 * Hand a {@link Deflater} back to the pool.
+	 * 
+	 * @param nowrap
+	 *            The value the {@link Deflater} has been obtained with.
+	 */
+	static void release(Deflater deflater, boolean nowrap)
+	{
+		Queue<Deflater> pool = nowrap ? RAW_DEFLATERS : DEFLATERS;
+		if (pool.size() < MAX_POOLED)
+		{
+			deflater.reset();
+			pool.offer(deflater);
+		}
+		else
+		{
+			deflater.end();
+		}
+	}
+
+
+	/**
+	 * Returns a buffer of {@link #BUFFER_SIZE} bytes.
+	 */
+	static byte[] obtainBuffer()
+	{
+		byte[] result = BUFFERS.poll();
+		return result == null ? new byte[BUFFER_SIZE] : result;
+	}
+
+
+	static void release(byte[] buffer)
+	{
+		if (BUFFERS.size() < MAX_POOLED)
+		{
+			BUFFERS.offer(buffer);
+		}
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+
+/**
+ * An {@link OutputStream} that compresses to gzip or zlib using a {@link Deflater} and a buffer from the {@link CompressionPool}.
+ * <p>
+ * {@link #finish()} writes the end of the compressed data and returns the pooled resources without closing the underlying stream, {@link #close()} does
+ * both.
+ * </p>
+ */
+final class DeflatingOutputStream extends OutputStream
+{
+	private final static byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+	private final OutputStream mOut;
+	private final boolean mGzip;
+	private final CRC32 mCrc;
+	private Deflater mDeflater;
+	private byte[] mBuffer;
+	private final byte[] mSingle = new byte[1];
+
+
+	/**
+	 * Create a stream that compresses to the given output.
+	 * 
+	 * @param out
+	 *            The {@link OutputStream} to write the compressed data to.
+	 * @param compression
+	 *            The {@link PListCompression} to use, must not be {@link PListCompression#NONE}.
+	 * @param level
+	 *            The compression level, see {@link Deflater#setLevel(int)}.
+	 * @throws IOException
+	 */
+	DeflatingOutputStream(OutputStream out, PListCompression compression, int level) throws IOException
+	{
+		if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION))
+		{
+			throw new IllegalArgumentException("invalid compression level " + level);
+		}
+		mOut = out;
+		mGzip = compression == PListCompression.GZIP;
+		mCrc = mGzip ? new CRC32() : null;
+		mDeflater = CompressionPool.obtainDeflater(mGzip, level);
+		mBuffer = CompressionPool.obtainBuffer();
+		if (mGzip)
+		{
+			out.write(GZIP_HEADER);
+		}
+	}
+
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		mSingle[0] = (byte) b;
+		write(mSingle, 0, 1);
+	}
+
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		if (mDeflater == null)
+		{
+			throw new IOException("stream finished");
+		}
+		if (len == 0)
+		{
+			return;
+		}
+		if (mGzip)
+		{
+			mCrc.update(b, off, len);
+		}
+		mDeflater.setInput(b, off, len);
+		// the deflater keeps a reference to b, so consume it completely
+		while (!mDeflater.needsInput())
+		{
+			deflate();
+		}
+	}
+
+
+	@Override
+	public void flush() throws IOException
+	{
+		mOut.flush();
+	}
+
+
+	/**
+	 * Write the remaining compressed data and return the pooled resources. Nothing can be written afterwards. The underlying stream is not closed.
+	 * 
+	 * @throws IOException
+	 */
+	void finish() throws IOException
+	{
+		if (mDeflater == null)
+		{
+			return;
+		}
+		try
+		{
+			mDeflater.finish();
+			while (!mDeflater.finished())
+			{
+				deflate();
+			}
+			if (mGzip)
+			{
+				writeIntLE(mCrc.getValue());
+				writeIntLE(mDeflater.getBytesRead());
+			}
+		}
+		finally
+		{
+			release();
+		}
+	}
+
+
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			finish();
+		}
+		finally
+		{
+			mOut.close();
+		}
+	}
+
+
+	/**
+	 * Return the pooled resources without finishing the compressed data.
+	 */
+	void release()
+	{
+		if (mDeflater != null)
+		{
+			CompressionPool.release(mDeflater, mGzip);
+			CompressionPool.release(mBuffer);
+			mDeflater = null;
+			mBuffer = null;
+		}
+	}
+
+
+	private void deflate() throws IOException
+	{
+		int length = mDeflater.deflate(mBuffer, 0, mBuffer.length);
+		if (length > 0)
+		{
+			mOut.write(mBuffer, 0, length);
+		}
+	}
+
+
+	private void writeIntLE(long value) throws IOException
+	{
+		byte[] buffer = mBuffer;
+		buffer[0] = (byte) value;
+		buffer[1] = (byte) (value >>> 8);
+		buffer[2] = (byte) (value >>> 16);
+		buffer[3] = (byte) (value >>> 24);
+		mOut.write(buffer, 0, 4);
+	}
+}
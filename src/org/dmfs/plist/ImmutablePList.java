@@ -0,0 +1,391 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+
+/**
+ * An immutable plist. Dicts are {@link PersistentDict}s, arrays are {@link PersistentArray}s and all other values are {@link String}s, {@link Integer}s,
+ * {@link Long}s, {@link Double}s or {@link Boolean}s, just like in {@link PList} (data is stored as a base64 string).
+ * <p>
+ * Updates like {@link #with(String, Object)} return a new {@link ImmutablePList} that shares all untouched subtrees with this one, so updates take
+ * O(log n) time and space instead of requiring a deep copy. Instances are thread-safe and can be shared without any locking.
+ * </p>
+ * 
+ * <pre>
+ * ImmutablePList config = ImmutablePList.of(PList.read(reader));
+ * ImmutablePList updated = config.with(&quot;Server/Port&quot;, 8443);
+ * </pre>
+ */
+public final class ImmutablePList
+{
+	private final Object mRoot;
+
+
+	private ImmutablePList(Object root)
+	{
+		mRoot = root;
+	}
+
+
+	/**
+	 * Create an {@link ImmutablePList} from the given {@link PList}. The {@link PList} is copied, so it can be modified or recycled afterwards.
+	 * 
+	 * @param plist
+	 *            The {@link PList} to copy.
+	 * @return An {@link ImmutablePList}.
+	 * @throws IllegalArgumentException
+	 *             if the {@link PList} is empty or contains values of unsupported types.
+	 */
+	public static ImmutablePList of(PList plist)
+	{
+		Object root = plist.value();
+		if (root == null)
+		{
+			throw new IllegalArgumentException("empty plist");
+		}
+		return new ImmutablePList(persistent(root));
+	}
+
+
+	/**
+	 * Create an {@link ImmutablePList} with the given top level value. {@link Map}s and {@link List}s are copied into {@link PersistentDict}s and
+	 * {@link PersistentArray}s (unless they already are).
+	 * 
+	 * @param root
+	 *            The top level value.
+	 * @return An {@link ImmutablePList}.
+	 * @throws IllegalArgumentException
+	 *             if the value is or contains a value of an unsupported type.
+	 */
+	public static ImmutablePList of(Object root)
+	{
+		return new ImmutablePList(persistent(root));
+	}
+
+
+	/**
+	 * Returns the top level value.
+	 */
+	public Object getRoot()
+	{
+		return mRoot;
+	}
+
+
+	/**
+	 * Returns the top level dict or <code>null</code> if the top level value is not a dict.
+	 */
+	public PersistentDict getDict()
+	{
+		return mRoot instanceof PersistentDict ? (PersistentDict) mRoot : null;
+	}
+
+
+	/**
+	 * Returns the top level array or <code>null</code> if the top level value is not an array.
+	 */
+	public PersistentArray getArray()
+	{
+		return mRoot instanceof PersistentArray ? (PersistentArray) mRoot : null;
+	}
+
+
+	/**
+	 * Returns the value at the given key path.
+	 * 
+	 * @param keyPath
+	 *            A key path like <code>Tracks/1234/Name</code>, see {@link BinaryPListView.Node#get(String)} for the syntax.
+	 * @return The value or <code>null</code> if there is no such value.
+	 */
+	public Object get(String keyPath)
+	{
+		Object result = mRoot;
+		for (String segment : PListKeyPath.split(keyPath))
+		{
+			result = child(result, segment);
+			if (result == null)
+			{
+				return null;
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Returns a plist with the value at the given key path replaced. Missing dicts on the path are created. Appending to an array is done by using the
+	 * array size as index.
+	 * 
+	 * @param keyPath
+	 *            The key path of the value to set. The empty path replaces the top level value.
+	 * @param value
+	 *            The new value. {@link Map}s and {@link List}s are copied.
+	 * @return A new {@link ImmutablePList} or this instance if the value is already present.
+	 * @throws IllegalArgumentException
+	 *             if the key path passes a value that's neither a dict nor an array, if an array index is invalid or if the value is of an unsupported
+	 *             type.
+	 */
+	public ImmutablePList with(String keyPath, Object value)
+	{
+		Object root = with(mRoot, PListKeyPath.split(keyPath), 0, persistent(value));
+		return root == mRoot ? this : new ImmutablePList(root);
+	}
+
+
+	/**
+	 * Returns a plist without the value at the given key path.
+	 * 
+	 * @param keyPath
+	 *            The key path of the value to remove, must not be empty.
+	 * @return A new {@link ImmutablePList} or this instance if there is no such value.
+	 */
+	public ImmutablePList without(String keyPath)
+	{
+		String[] segments = PListKeyPath.split(keyPath);
+		if (segments.length == 0)
+		{
+			throw new IllegalArgumentException("can't remove the top level value");
+		}
+		Object root = without(mRoot, segments, 0);
+		return root == mRoot ? this : new ImmutablePList(root);
+	}
+
+
+	/**
+	 * Returns a mutable deep copy of this plist.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the top level value is a {@link Long} that doesn't fit into an {@link Integer}.
+	 */
+	@SuppressWarnings("unchecked")
+	public PList toPList()
+	{
+		PList result = new PList();
+		result.mVersion = "1.0";
+		if (mRoot instanceof PersistentDict)
+		{
+			result.dict = (Map<String, ?>) mutable(mRoot);
+		}
+		else if (mRoot instanceof PersistentArray)
+		{
+			result.array = (List<?>) mutable(mRoot);
+		}
+		else if (mRoot instanceof String)
+		{
+			result.string = (String) mRoot;
+		}
+		else if (mRoot instanceof Double)
+		{
+			result.real = (Double) mRoot;
+		}
+		else if (mRoot instanceof Boolean)
+		{
+			result.bool = (Boolean) mRoot;
+		}
+		else
+		{
+			long value = ((Number) mRoot).longValue();
+			if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+			{
+				throw new IllegalStateException("integer " + value + " is out of range");
+			}
+			result.integer = (int) value;
+		}
+		return result;
+	}
+
+
+	/**
+	 * Pass the contents of this plist as a document to the given {@link PListHandler}, e.g. an {@link XmlPListWriter} or a {@link BinaryPListWriter}.
+	 * 
+	 * @param handler
+	 *            The {@link PListHandler} to receive the events.
+	 * @throws IOException
+	 */
+	public void write(PListHandler handler) throws IOException
+	{
+		handler.startDocument();
+		PListTreeWalker.value(mRoot, handler);
+		handler.endDocument();
+	}
+
+
+	@Override
+	public boolean equals(Object o)
+	{
+		return o instanceof ImmutablePList && mRoot.equals(((ImmutablePList) o).mRoot);
+	}
+
+
+	@Override
+	public int hashCode()
+	{
+		return mRoot.hashCode();
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return "immutableplist:" + mRoot.toString();
+	}
+
+
+	private static Object child(Object container, String segment)
+	{
+		if (container instanceof PersistentDict)
+		{
+			return ((PersistentDict) container).get(segment);
+		}
+		if (container instanceof PersistentArray)
+		{
+			PersistentArray array = (PersistentArray) container;
+			int index = PListKeyPath.index(segment);
+			return index >= 0 && index < array.size() ? array.get(index) : null;
+		}
+		return null;
+	}
+
+
+	private static Object with(Object container, String[] path, int pos, Object value)
+	{
+		if (pos == path.length)
+		{
+			return value;
+		}
+		String segment = path[pos];
+		if (container instanceof PersistentDict)
+		{
+			PersistentDict dict = (PersistentDict) container;
+			Object child = dict.get(segment);
+			return dict.with(segment, with(child == null ? PersistentDict.EMPTY : child, path, pos + 1, value));
+		}
+		if (container instanceof PersistentArray)
+		{
+			PersistentArray array = (PersistentArray) container;
+			int index = PListKeyPath.index(segment);
+			if (index >= 0 && index < array.size())
+			{
+				return array.with(index, with(array.get(index), path, pos + 1, value));
+			}
+			if (index == array.size())
+			{
+				return array.append(with(PersistentDict.EMPTY, path, pos + 1, value));
+			}
+			throw new IllegalArgumentException("invalid array index " + segment);
+		}
+		throw new IllegalArgumentException("key path segment " + segment + " doesn't refer to a dict or an array");
+	}
+
+
+	private static Object without(Object container, String[] path, int pos)
+	{
+		String segment = path[pos];
+		Object child = child(container, segment);
+		if (child == null)
+		{
+			return container;
+		}
+
+		if (pos + 1 < path.length)
+		{
+			Object newChild = without(child, path, pos + 1);
+			if (newChild == child)
+			{
+				return container;
+			}
+			return container instanceof PersistentDict ? ((PersistentDict) container).with(segment, newChild) : ((PersistentArray) container).with(
+				PListKeyPath.index(segment), newChild);
+		}
+		return container instanceof PersistentDict ? ((PersistentDict) container).without(segment) : ((PersistentArray) container).without(PListKeyPath
+			.index(segment));
+	}
+
+
+	/**
+	 * Returns the persistent version of the given value.
+	 */
+	static Object persistent(Object value)
+	{
+		if (value instanceof PersistentDict || value instanceof PersistentArray || value instanceof String || value instanceof Integer
+			|| value instanceof Long || value instanceof Double || value instanceof Boolean)
+		{
+			return value;
+		}
+		if (value instanceof Map)
+		{
+			PersistentDict result = PersistentDict.EMPTY;
+			for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+			{
+				if (!(entry.getKey() instanceof String))
+				{
+					throw new IllegalArgumentException("dict key " + entry.getKey() + " is not a string");
+				}
+				result = result.with((String) entry.getKey(), persistent(entry.getValue()));
+			}
+			return result;
+		}
+		if (value instanceof List)
+		{
+			List<?> list = (List<?>) value;
+			List<Object> result = new ArrayList<Object>(list.size());
+			for (Object element : list)
+			{
+				result.add(persistent(element));
+			}
+			return PersistentArray.of(result);
+		}
+		throw new IllegalArgumentException("unsupported value " + value);
+	}
+
+
+	/**
+	 * Returns a mutable deep copy of the given value.
+	 */
+	private static Object mutable(Object value)
+	{
+		if (value instanceof PersistentDict)
+		{
+			PersistentDict dict = (PersistentDict) value;
+			Map<String, Object> result = new HashMap<String, Object>(dict.size() * 4 / 3 + 1);
+			for (Entry<String, Object> entry : dict.entrySet())
+			{
+				result.put(entry.getKey(), mutable(entry.getValue()));
+			}
+			return result;
+		}
+		if (value instanceof PersistentArray)
+		{
+			PersistentArray array = (PersistentArray) value;
+			List<Object> result = new ArrayList<Object>(array.size());
+			for (Object element : array)
+			{
+				result.add(mutable(element));
+			}
+			return result;
+		}
+		return value;
+	}
+}
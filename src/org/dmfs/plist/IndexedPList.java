@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A plist with hash indexes for {@link PListQuery}s. An index maps the values at a key path of the children of a dict or an array to these children, so a
+ * query like <code>Tracks/*[Artist == ?]</code> becomes a lookup instead of a scan of all tracks.
+ * 
+ * <pre>
+ * IndexedPList library = new IndexedPList(plist).index(&quot;Tracks&quot;, &quot;Artist&quot;);
+ * List&lt;Object&gt; names = PListQuery.compile(&quot;Tracks/*[Artist == ?]{Name}&quot;).select(library, &quot;Queen&quot;);
+ * </pre>
+ * <p>
+ * Indexes are built on first use and rebuilt when the indexed container has been replaced or the plist has been changed by {@link #put(String, Object)} or
+ * {@link #remove(String)}. An {@link ImmutablePList} can't be changed in place, so for an {@link IndexedPList} of an {@link ImmutablePList} only the
+ * indexes of containers that have actually been replaced are rebuilt. Changes made to the tree of a {@link PList} without this class must be followed by a
+ * call to {@link #invalidate()}.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public final class IndexedPList
+{
+	private final PList mPList;
+	private ImmutablePList mImmutablePList;
+	private final List<Index> mIndexes = new ArrayList<Index>(4);
+
+	/**
+	 * Incremented with every change to a mutable plist.
+	 */
+	private int mGeneration;
+
+
+	/**
+	 * Create an {@link IndexedPList} of the given {@link PList}.
+	 * 
+	 * @param plist
+	 *            The {@link PList}. It's not copied.
+	 */
+	public IndexedPList(PList plist)
+	{
+		mPList = plist;
+	}
+
+
+	/**
+	 * Create an {@link IndexedPList} of the given {@link ImmutablePList}.
+	 * 
+	 * @param plist
+	 *            The {@link ImmutablePList}.
+	 */
+	public IndexedPList(ImmutablePList plist)
+	{
+		mPList = null;
+		mImmutablePList = plist;
+	}
+
+
+	/**
+	 * Add an index on the values at the given key path of the children of the given container.
+	 * 
+	 * @param containerPath
+	 *            The key path of the dict or array to index, e.g. <code>Tracks</code>.
+	 * @param keyPath
+	 *            The key path to index relative to the children of the container, e.g. <code>Artist</code>.
+	 * @return This instance.
+	 */
+	public IndexedPList index(String containerPath, String keyPath)
+	{
+		mIndexes.add(new Index(PListKeyPath.split(containerPath), PListKeyPath.split(keyPath)));
+		return this;
+	}
+
+
+	/**
+	 * Returns the top level value.
+	 */
+	public Object getRoot()
+	{
+		return mPList != null ? mPList.value() : mImmutablePList.getRoot();
+	}
+
+
+	/**
+	 * Returns the {@link ImmutablePList} this has been created with, including all changes, or <code>null</code> if this has been created with a
+	 * {@link PList}.
+	 */
+	public ImmutablePList getImmutablePList()
+	{
+		return mImmutablePList;
+	}
+
+
+	/**
+	 * Set the value at the given key path. Missing dicts on the path are created. Appending to an array is done by using the array size as index.
+	 * 
+	 * @param keyPath
+	 *            The key path of the value to set.
+	 * @param value
+	 *            The new value.
+	 * @throws IllegalArgumentException
+	 *             if the key path is empty, passes a value that's neither a dict nor an array or if an array index is invalid.
+	 */
+	public void put(String keyPath, Object value)
+	{
+		if (mImmutablePList != null)
+		{
+			mImmutablePList = mImmutablePList.with(keyPath, value);
+			return;
+		}
+
+		String[] path = PListKeyPath.split(keyPath);
+		if (path.length == 0)
+		{
+			throw new IllegalArgumentException("can't replace the top level value of a PList");
+		}
+		Object container = mPList.value();
+		for (int i = 0; i < path.length - 1; ++i)
+		{
+			Object child = PListQuery.child(container, path[i]);
+			if (child == null && container instanceof Map)
+			{
+				child = new HashMap<String, Object>();
+				set(container, path[i], child);
+			}
+			if (child == null)
+			{
+				throw new IllegalArgumentException("can't resolve key path " + keyPath);
+			}
+			container = child;
+		}
+		set(container, path[path.length - 1], value);
+		++mGeneration;
+	}
+
+
+	/**
+	 * Remove the value at the given key path. Elements of an array that follow the removed element move down by one.
+	 * 
+	 * @param keyPath
+	 *            The key path of the value to remove.
+	 */
+	public void remove(String keyPath)
+	{
+		if (mImmutablePList != null)
+		{
+			mImmutablePList = mImmutablePList.without(keyPath);
+			return;
+		}
+
+		String[] path = PListKeyPath.split(keyPath);
+		if (path.length == 0)
+		{
+			throw new IllegalArgumentException("can't remove the top level value of a PList");
+		}
+		String[] parentPath = new String[path.length - 1];
+		System.arraycopy(path, 0, parentPath, 0, parentPath.length);
+		Object container = PListQuery.resolve(mPList.value(), parentPath);
+		String segment = path[path.length - 1];
+		if (container instanceof Map)
+		{
+			((Map<?, ?>) container).remove(segment);
+		}
+		else if (container instanceof List)
+		{
+			List<?> list = (List<?>) container;
+			int index = PListKeyPath.index(segment);
+			if (index >= 0 && index < list.size())
+			{
+				list.remove(index);
+			}
+		}
+		++mGeneration;
+	}
+
+
+	/**
+	 * Drop all indexes, so they are rebuilt when they are used next. Call this after changing the tree of the {@link PList} directly.
+	 */
+	public void invalidate()
+	{
+		++mGeneration;
+	}
+
+
+	/**
+	 * Returns the index of the given container on the given key path.
+	 * 
+	 * @param container
+	 *            A dict or array of this plist.
+	 * @param keyPath
+	 *            The joined key path relative to the children of the container.
+	 * @return A {@link Map} from the normalized values to the children that have them (in container order) or <code>null</code> if there is no such index.
+	 */
+	Map<Object, List<Object>> table(Object container, String keyPath)
+	{
+		Object root = null;
+		for (Index index : mIndexes)
+		{
+			if (!index.mKey.equals(keyPath))
+			{
+				continue;
+			}
+			if (root == null)
+			{
+				root = getRoot();
+			}
+			// the indexed container may have been replaced, so always compare with the current one
+			if (PListQuery.resolve(root, index.mContainerPath) != container)
+			{
+				continue;
+			}
+			if (index.mTable == null || index.mContainer != container || index.mGeneration != mGeneration)
+			{
+				index.build(container, mGeneration);
+			}
+			return index.mTable;
+		}
+		return null;
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private static void set(Object container, String segment, Object value)
+	{
+		if (container instanceof Map)
+		{
+			((Map<String, Object>) container).put(segment, value);
+			return;
+		}
+		if (container instanceof List)
+		{
+			List<Object> list = (List<Object>) container;
+			int index = PListKeyPath.index(segment);
+			if (index >= 0 && index < list.size())
+			{
+				list.set(index, value);
+				return;
+			}
+			if (index == list.size())
+			{
+				list.add(value);
+				return;
+			}
+			throw new IllegalArgumentException("invalid array index " + segment);
+		}
+		throw new IllegalArgumentException("can't set " + segment + " on a value that's neither a dict nor an array");
+	}
+
+
+	/**
+	 * A hash index of a container.
+	 */
+	private final static class Index
+	{
+		final String[] mContainerPath;
+		final String[] mKeyPath;
+		final String mKey;
+
+		Object mContainer;
+		int mGeneration;
+		Map<Object, List<Object>> mTable;
+
+
+		Index(String[] containerPath, String[] keyPath)
+		{
+			mContainerPath = containerPath;
+			mKeyPath = keyPath;
+			mKey = PListKeyPath.join(keyPath);
+		}
+
+
+		void build(Object container, int generation)
+		{
+			Map<Object, List<Object>> table = new HashMap<Object, List<Object>>();
+			for (Object child : PListQuery.children(container))
+			{
+				Object value = PListQuery.resolve(child, mKeyPath);
+				if (value == null)
+				{
+					continue;
+				}
+				Object key = PListQuery.normalize(value);
+				List<Object> children = table.get(key);
+				if (children == null)
+				{
+					children = new ArrayList<Object>(2);
+					table.put(key, children);
+				}
+				children.add(child);
+			}
+			mTable = table;
+			mContainer = container;
+			mGeneration = generation;
+		}
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+
+/**
+ * An {@link InputStream} that decompresses gzip or zlib data using an {@link Inflater} and a buffer from the {@link CompressionPool}. Unlike
+ * {@link java.util.zip.GZIPInputStream} it doesn't allocate a new {@link Inflater} for every stream.
+ * <p>
+ * Concatenated gzip members are decompressed as one stream. The pooled resources are returned by {@link #close()} or {@link #release()}.
+ * </p>
+ */
+final class InflatingInputStream extends InputStream
+{
+	private final static int FLAG_HEADER_CRC = 0x02;
+	private final static int FLAG_EXTRA = 0x04;
+	private final static int FLAG_NAME = 0x08;
+	private final static int FLAG_COMMENT = 0x10;
+
+	private final InputStream mIn;
+	private final boolean mGzip;
+	private final CRC32 mCrc;
+	private Inflater mInflater;
+	private byte[] mBuffer;
+
+	/**
+	 * The range of compressed bytes in {@link #mBuffer} that have not been passed to the {@link Inflater} yet.
+	 */
+	private int mPos;
+	private int mLimit;
+
+	private boolean mEof;
+	private final byte[] mSingle = new byte[1];
+
+
+	/**
+	 * Create a stream that decompresses the given input.
+	 * 
+	 * @param in
+	 *            The compressed {@link InputStream}.
+	 * @param compression
+	 *            The {@link PListCompression} of the input, must not be {@link PListCompression#NONE}.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the gzip header is invalid.
+	 */
+	InflatingInputStream(InputStream in, PListCompression compression) throws IOException
+	{
+		mIn = in;
+		mGzip = compression == PListCompression.GZIP;
+		mCrc = mGzip ? new CRC32() : null;
+		mInflater = CompressionPool.obtainInflater(mGzip);
+		mBuffer = CompressionPool.obtainBuffer();
+		if (mGzip)
+		{
+			try
+			{
+				readGzipHeader(readByte());
+			}
+			catch (IOException e)
+			{
+				release();
+				throw e;
+			}
+		}
+	}
+
+
+	@Override
+	public int read() throws IOException
+	{
+		return read(mSingle, 0, 1) < 0 ? -1 : mSingle[0] & 0xff;
+	}
+
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException
+	{
+		if (mInflater == null)
+		{
+			throw new IOException("stream closed");
+		}
+		if (mEof)
+		{
+			return -1;
+		}
+		if (len == 0)
+		{
+			return 0;
+		}
+		while (true)
+		{
+			int read;
+			try
+			{
+				read = mInflater.inflate(b, off, len);
+			}
+			catch (DataFormatException e)
+			{
+				throw new PListFormatException("corrupt compressed data: " + e.getMessage());
+			}
+			if (read > 0)
+			{
+				if (mGzip)
+				{
+					mCrc.update(b, off, read);
+				}
+				return read;
+			}
+			if (mInflater.finished())
+			{
+				// give back the bytes the inflater didn't consume
+				mPos = mLimit - mInflater.getRemaining();
+				if (mGzip)
+				{
+					readGzipTrailer();
+					int next = readByte();
+					if (next >= 0)
+					{
+						// another member follows
+						readGzipHeader(next);
+						mInflater.reset();
+						mCrc.reset();
+						continue;
+					}
+				}
+				mEof = true;
+				return -1;
+			}
+			if (mInflater.needsDictionary())
+			{
+				throw new PListFormatException("compressed data with a preset dictionary is not supported");
+			}
+			if (mInflater.needsInput())
+			{
+				if (mPos == mLimit && !fill())
+				{
+					throw new PListFormatException("truncated compressed data");
+				}
+				mInflater.setInput(mBuffer, mPos, mLimit - mPos);
+				mPos = mLimit;
+			}
+		}
+	}
+
+
+	@Override
+	public int available() throws IOException
+	{
+		return mEof || mInflater == null ? 0 : 1;
+	}
+
+
+	@Override
+	public void close() throws IOException
+	{
+		release();
+		mIn.close();
+	}
+
+
+	/**
+	 * Return the pooled resources without closing the underlying stream. This stream can't be read afterwards.
+	 */
+	void release()
+	{
+		if (mInflater != null)
+		{
+			CompressionPool.release(mInflater, mGzip);
+			CompressionPool.release(mBuffer);
+			mInflater = null;
+			mBuffer = null;
+		}
+	}
+
+
+	private boolean fill() throws IOException
+	{
+		int read = mIn.read(mBuffer, 0, mBuffer.length);
+		if (read < 0)
+		{
+			return false;
+		}
+		mPos = 0;
+		mLimit = read;
+		return true;
+	}
+
+
+	private int readByte() throws IOException
+	{
+		if (mPos == mLimit && !fill())
+		{
+			return -1;
+		}
+		return mBuffer[mPos++] & 0xff;
+	}
+
+
+	private int readRequiredByte() throws IOException
+	{
+		int result = readByte();
+		if (result < 0)
+		{
+			throw new PListFormatException("truncated gzip data");
+		}
+		return result;
+	}
+
+
+	private long readIntLE() throws IOException
+	{
+		long result = 0;
+		for (int i = 0; i < 32; i += 8)
+		{
+			result |= (long) readRequiredByte() << i;
+		}
+		return result;
+	}
+
+
+	/**
+	 * Read a gzip member header (RFC 1952), the first byte has already been read.
+	 */
+	private void readGzipHeader(int first) throws IOException
+	{
+		if (first != 0x1f || readByte() != 0x8b || readByte() != 8)
+		{
+			throw new PListFormatException("not a gzip stream");
+		}
+		int flags = readRequiredByte();
+		// skip mtime, xfl and os
+		for (int i = 0; i < 6; ++i)
+		{
+			readRequiredByte();
+		}
+		if ((flags & FLAG_EXTRA) != 0)
+		{
+			int length = readRequiredByte() | (readRequiredByte() << 8);
+			for (int i = 0; i < length; ++i)
+			{
+				readRequiredByte();
+			}
+		}
+		if ((flags & FLAG_NAME) != 0)
+		{
+			while (readRequiredByte() != 0)
+			{
+			}
+		}
+		if ((flags & FLAG_COMMENT) != 0)
+		{
+			while (readRequiredByte() != 0)
+			{
+			}
+		}
+		if ((flags & FLAG_HEADER_CRC) != 0)
+		{
+			readRequiredByte();
+			readRequiredByte();
+		}
+	}
+
+
+	private void readGzipTrailer() throws IOException
+	{
+		if (readIntLE() != mCrc.getValue())
+		{
+			throw new PListFormatException("gzip checksum mismatch");
+		}
+		if (readIntLE() != (mInflater.getBytesWritten() & 0xffffffffL))
+		{
+			throw new PListFormatException("gzip size mismatch");
+		}
+	}
+}
@@ -0,0 +1,470 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.Reader;
+
+
+/**
+ * Reads a JSON document and passes its contents to a {@link PListHandler}, without building a tree.
+ * <p>
+ * JSON objects become dicts, JSON arrays become arrays, strings become strings and <code>true</code> & <code>false</code> become booleans. Numbers without
+ * fraction and exponent that fit into a <code>long</code> become integers, all other numbers become reals. Plists have no equivalent of <code>null</code>,
+ * so <code>null</code> values are dropped together with their keys. A <code>null</code> root value is an error.
+ * </p>
+ * <p>
+ * The tokenizer works on its own character buffer, so there is no need to wrap the {@link Reader} in a {@link java.io.BufferedReader}. Instances are not
+ * thread safe.
+ * </p>
+ */
+public final class JsonPListEventReader
+{
+	private final static int BUFFER_SIZE = 8192;
+	private final static int EOF = -1;
+
+	private final Reader mReader;
+	private final PListBudget mBudget;
+	private final char[] mBuffer = new char[BUFFER_SIZE];
+	private final StringBuilder mToken = new StringBuilder(256);
+	private int mPos;
+	private int mLimit;
+	private long mOffset;
+
+
+	public JsonPListEventReader(Reader reader)
+	{
+		this(reader, PListLimits.UNLIMITED);
+	}
+
+
+	public JsonPListEventReader(Reader reader, PListLimits limits)
+	{
+		mReader = reader;
+		mBudget = new PListBudget(limits);
+	}
+
+
+	/**
+	 * Read the JSON document from the input and pass it to the given {@link PListHandler}. The input must not contain anything but white space after the
+	 * root value.
+	 * 
+	 * @param handler
+	 *            The {@link PListHandler} to receive the events.
+	 * @return <code>false</code> if the input didn't contain anything but white space, <code>true</code> otherwise.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the input is not valid JSON.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the {@link PListLimits}.
+	 */
+	public boolean read(PListHandler handler) throws IOException, PListLimitExceededException
+	{
+		mBudget.reset(null);
+		int c = skipWhitespace();
+		if (c == EOF)
+		{
+			return false;
+		}
+		if (c == 'n')
+		{
+			throw error("null is not a valid plist root value");
+		}
+		handler.startDocument();
+		readValue(c, handler);
+		if (skipWhitespace() != EOF)
+		{
+			throw error("unexpected input after the root value");
+		}
+		handler.endDocument();
+		return true;
+	}
+
+
+	/**
+	 * Read a value. Returns <code>false</code> if the value was <code>null</code> and has been dropped.
+	 */
+	private boolean readValue(int c, PListHandler handler) throws IOException, PListLimitExceededException
+	{
+		switch (c)
+		{
+			case '{':
+				++mPos;
+				mBudget.addNode();
+				mBudget.enterContainer();
+				handler.startDict();
+				readObjectMembers(handler);
+				handler.endDict();
+				mBudget.leaveContainer();
+				return true;
+			case '[':
+				++mPos;
+				mBudget.addNode();
+				mBudget.enterContainer();
+				handler.startArray();
+				readArrayElements(handler);
+				handler.endArray();
+				mBudget.leaveContainer();
+				return true;
+			case '"':
+				mBudget.addNode();
+				handler.string(readString());
+				return true;
+			case 't':
+				expectLiteral("true");
+				mBudget.addNode();
+				handler.bool(true);
+				return true;
+			case 'f':
+				expectLiteral("false");
+				mBudget.addNode();
+				handler.bool(false);
+				return true;
+			case 'n':
+				expectLiteral("null");
+				return false;
+			case EOF:
+				throw error("unexpected end of input");
+			default:
+				if (c == '-' || c >= '0' && c <= '9')
+				{
+					mBudget.addNode();
+					readNumber(handler);
+					return true;
+				}
+				throw error("unexpected character '" + (char) c + "'");
+		}
+	}
+
+
+	private void readObjectMembers(PListHandler handler) throws IOException, PListLimitExceededException
+	{
+		int size = 0;
+		int c = skipWhitespace();
+		if (c == '}')
+		{
+			++mPos;
+			return;
+		}
+		while (true)
+		{
+			if (c != '"')
+			{
+				throw error("expected object key");
+			}
+			String key = readString();
+			if (skipWhitespace() != ':')
+			{
+				throw error("expected ':' after object key");
+			}
+			++mPos;
+			c = skipWhitespace();
+			if (c == 'n')
+			{
+				// drop null members
+				expectLiteral("null");
+			}
+			else
+			{
+				mBudget.checkContainerSize(size++);
+				handler.key(key);
+				readValue(c, handler);
+			}
+
+			c = skipWhitespace();
+			++mPos;
+			if (c == '}')
+			{
+				return;
+			}
+			if (c != ',')
+			{
+				throw c == EOF ? error("unexpected end of input in object") : error("expected ',' or '}' in object");
+			}
+			c = skipWhitespace();
+		}
+	}
+
+
+	private void readArrayElements(PListHandler handler) throws IOException, PListLimitExceededException
+	{
+		int size = 0;
+		int c = skipWhitespace();
+		if (c == ']')
+		{
+			++mPos;
+			return;
+		}
+		while (true)
+		{
+			if (c != 'n')
+			{
+				mBudget.checkContainerSize(size++);
+			}
+			readValue(c, handler);
+
+			c = skipWhitespace();
+			++mPos;
+			if (c == ']')
+			{
+				return;
+			}
+			if (c != ',')
+			{
+				throw c == EOF ? error("unexpected end of input in array") : error("expected ',' or ']' in array");
+			}
+			c = skipWhitespace();
+		}
+	}
+
+
+	private String readString() throws IOException, PListLimitExceededException
+	{
+		StringBuilder token = mToken;
+		token.setLength(0);
+		int maxLength = mBudget.getLimits().getMaxStringLength();
+
+		++mPos;
+		int c;
+		while ((c = next()) != '"')
+		{
+			if (c == EOF)
+			{
+				throw error("unterminated string");
+			}
+			if (c < 0x20)
+			{
+				throw error("unescaped control character in string");
+			}
+			if (c == '\\')
+			{
+				c = readEscape();
+			}
+			if (token.length() >= maxLength)
+			{
+				mBudget.addString(token.length(), 1);
+			}
+			token.append((char) c);
+		}
+		mBudget.addString(0, token.length());
+		return token.toString();
+	}
+
+
+	private int readEscape() throws IOException
+	{
+		int c = next();
+		switch (c)
+		{
+			case '"':
+			case '\\':
+			case '/':
+				return c;
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u':
+			{
+				int result = 0;
+				for (int i = 0; i < 4; ++i)
+				{
+					int digit = Character.digit(next(), 16);
+					if (digit < 0)
+					{
+						throw error("invalid unicode escape sequence");
+					}
+					result = (result << 4) | digit;
+				}
+				return result;
+			}
+			default:
+				throw error("invalid escape sequence");
+		}
+	}
+
+
+	/**
+	 * Read a number according to the JSON grammar, i.e. an optional minus, an integer part without leading zeros, an optional fraction and an optional
+	 * exponent.
+	 */
+	private void readNumber(PListHandler handler) throws IOException
+	{
+		StringBuilder token = mToken;
+		token.setLength(0);
+		boolean integer = true;
+		int c = peek();
+		if (c == '-')
+		{
+			appendNext(token);
+			c = peek();
+		}
+		if (c == '0')
+		{
+			appendNext(token);
+		}
+		else if (readDigits(token) == 0)
+		{
+			throw error("invalid number " + token);
+		}
+
+		if (peek() == '.')
+		{
+			integer = false;
+			appendNext(token);
+			if (readDigits(token) == 0)
+			{
+				throw error("invalid number " + token);
+			}
+		}
+
+		c = peek();
+		if (c == 'e' || c == 'E')
+		{
+			integer = false;
+			appendNext(token);
+			c = peek();
+			if (c == '+' || c == '-')
+			{
+				appendNext(token);
+			}
+			if (readDigits(token) == 0)
+			{
+				throw error("invalid number " + token);
+			}
+		}
+
+		c = peek();
+		if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-' || c >= '0' && c <= '9')
+		{
+			// e.g. a leading zero or a second sign
+			throw error("invalid number " + token + (char) c);
+		}
+
+		String number = token.toString();
+		if (integer)
+		{
+			try
+			{
+				handler.integer(Long.parseLong(number));
+				return;
+			}
+			catch (NumberFormatException e)
+			{
+				// too large for a long, fall through and use a double
+			}
+		}
+		handler.real(Double.parseDouble(number));
+	}
+
+
+	/**
+	 * Append all digits at the current position to the given token and return their number.
+	 */
+	private int readDigits(StringBuilder token) throws IOException
+	{
+		int count = 0;
+		int c;
+		while ((c = peek()) >= '0' && c <= '9')
+		{
+			appendNext(token);
+			++count;
+		}
+		return count;
+	}
+
+
+	private void appendNext(StringBuilder token) throws IOException
+	{
+		token.append((char) next());
+	}
+
+
+	private void expectLiteral(String literal) throws IOException
+	{
+		for (int i = 0, len = literal.length(); i < len; ++i)
+		{
+			if (next() != literal.charAt(i))
+			{
+				throw error("invalid literal, expected " + literal);
+			}
+		}
+	}
+
+
+	private int skipWhitespace() throws IOException
+	{
+		int c;
+		while ((c = peek()) == ' ' || c == '\t' || c == '\n' || c == '\r')
+		{
+			++mPos;
+		}
+		return c;
+	}
+
+
+	private int peek() throws IOException
+	{
+		if (mPos < mLimit || fill())
+		{
+			return mBuffer[mPos];
+		}
+		return EOF;
+	}
+
+
+	private int next() throws IOException
+	{
+		if (mPos < mLimit || fill())
+		{
+			return mBuffer[mPos++];
+		}
+		return EOF;
+	}
+
+
+	private boolean fill() throws IOException
+	{
+		mOffset += mLimit;
+		mPos = 0;
+		mLimit = 0;
+		int read;
+		while ((read = mReader.read(mBuffer, 0, mBuffer.length)) == 0)
+		{
+			// nothing read, try again
+		}
+		if (read < 0)
+		{
+			return false;
+		}
+		mLimit = read;
+		return true;
+	}
+
+
+	private PListFormatException error(String message)
+	{
+		return new PListFormatException(message + " at offset " + (mOffset + mPos));
+	}
+}
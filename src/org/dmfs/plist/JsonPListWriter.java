@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Base64;
+import java.util.Date;
+
+
+/**
+ * A {@link PListHandler} that writes compact JSON text.
+ * <p>
+ * Data is written as a base64 string and dates are written as ISO 8601 strings like <code>"2014-04-01T12:00:00Z"</code>. Reals are always written with a
+ * fraction or an exponent (e.g. <code>1.0</code>), so they are read back as reals by {@link JsonPListEventReader}. NaN and infinite reals can not be
+ * represented in JSON and result in a {@link PListFormatException}.
+ * </p>
+ */
+public final class JsonPListWriter implements PListHandler
+{
+	private final static char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final Writer mWriter;
+
+	/**
+	 * Whether the next value or key is the first in the current container.
+	 */
+	private boolean mFirst = true;
+
+	/**
+	 * Whether the next value belongs to a key that has just been written.
+	 */
+	private boolean mAfterKey;
+
+
+	public JsonPListWriter(Writer writer)
+	{
+		mWriter = writer;
+	}
+
+
+	@Override
+	public void startDocument() throws IOException
+	{
+		mFirst = true;
+		mAfterKey = false;
+	}
+
+
+	/**
+	 * Flushes the underlying {@link Writer}. The writer is not closed.
+	 */
+	@Override
+	public void endDocument() throws IOException
+	{
+		mWriter.flush();
+	}
+
+
+	@Override
+	public void startDict() throws IOException
+	{
+		beforeValue();
+		mWriter.write('{');
+		mFirst = true;
+	}
+
+
+	@Override
+	public void key(String key) throws IOException
+	{
+		if (!mFirst)
+		{
+			mWriter.write(',');
+		}
+		writeString(key);
+		mWriter.write(':');
+		mAfterKey = true;
+	}
+
+
+	@Override
+	public void endDict() throws IOException
+	{
+		mWriter.write('}');
+		mFirst = false;
+	}
+
+
+	@Override
+	public void startArray() throws IOException
+	{
+		beforeValue();
+		mWriter.write('[');
+		mFirst = true;
+	}
+
+
+	@Override
+	public void endArray() throws IOException
+	{
+		mWriter.write(']');
+		mFirst = false;
+	}
+
+
+	@Override
+	public void string(String value) throws IOException
+	{
+		beforeValue();
+		writeString(value);
+		mFirst = false;
+	}
+
+
+	@Override
+	public void integer(long value) throws IOException
+	{
+		beforeValue();
+		mWriter.write(Long.toString(value));
+		mFirst = false;
+	}
+
+
+	@Override
+	public void real(double value) throws IOException
+	{
+		if (Double.isNaN(value) || Double.isInfinite(value))
+		{
+			throw new PListFormatException("can not represent " + value + " in JSON");
+		}
+		beforeValue();
+		// Double.toString always contains a '.' or an exponent
+		mWriter.write(Double.toString(value));
+		mFirst = false;
+	}
+
+
+	@Override
+	public void bool(boolean value) throws IOException
+	{
+		beforeValue();
+		mWriter.write(value ? "true" : "false");
+		mFirst = false;
+	}
+
+
+	@Override
+	public void data(byte[] value) throws IOException
+	{
+		beforeValue();
+		mWriter.write('"');
+		mWriter.write(Base64.getEncoder().encodeToString(value));
+		mWriter.write('"');
+		mFirst = false;
+	}
+
+
+	@Override
+	public void date(Date value) throws IOException
+	{
+		beforeValue();
+		mWriter.write('"');
+		mWriter.write(PListDates.format(value));
+		mWriter.write('"');
+		mFirst = false;
+	}
+
+
+	private void beforeValue() throws IOException
+	{
+		if (mAfterKey)
+		{
+			mAfterKey = false;
+		}
+		else if (!mFirst)
+		{
+			mWriter.write(',');
+		}
+	}
+
+
+	private void writeString(String string) throws IOException
+	{
+		Writer writer = mWriter;
+		writer.write('"');
+		int start = 0;
+		int len = string.length();
+		for (int i = 0; i < len; ++i)
+		{
+			char c = string.charAt(i);
+			// U+2028 and U+2029 are valid in JSON but not in JavaScript string literals, so escape them as well
+			if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029')
+			{
+				continue;
+			}
+			writer.write(string, start, i - start);
+			start = i + 1;
+			switch (c)
+			{
+				case '"':
+					writer.write("\\\"");
+					break;
+				case '\\':
+					writer.write("\\\\");
+					break;
+				case '\n':
+					writer.write("\\n");
+					break;
+				case '\r':
+					writer.write("\\r");
+					break;
+				case '\t':
+					writer.write("\\t");
+					break;
+				case '\b':
+					writer.write("\\b");
+					break;
+				case '\f':
+					writer.write("\\f");
+					break;
+				default:
+					writer.write("\\u");
+					writer.write(HEX[(c >> 12) & 0x0f]);
+					writer.write(HEX[(c >> 8) & 0x0f]);
+					writer.write(HEX[(c >> 4) & 0x0f]);
+					writer.write(HEX[c & 0x0f]);
+			}
+		}
+		writer.write(string, start, len - start);
+		writer.write('"');
+	}
+}
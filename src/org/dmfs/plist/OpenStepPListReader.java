@@ -0,0 +1,538 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A reader for old-style (OpenStep) ASCII plists like <code>{ key = value; list = ( a, b ); data = &lt;0fbd77&gt;; }</code>, as used by Xcode project files
+ * and many legacy configuration files.
+ * <p>
+ * The reader produces the same model as {@link PList#read(Reader)}, i.e. dicts become {@link Map}s, arrays become {@link List}s and strings become
+ * {@link String}s. Data elements are converted to base64 strings, just like XML data elements. Strings files (a dict without the enclosing braces) are
+ * supported as well.
+ * </p>
+ * <p>
+ * The lexer works on its own character buffer, so there is no need to wrap the {@link Reader} in a {@link java.io.BufferedReader}. Instances are not
+ * thread safe.
+ * </p>
+ */
+public final class OpenStepPListReader
+{
+	private final static int BUFFER_SIZE = 8192;
+	private final static int EOF = -1;
+
+	private final Reader mReader;
+	private final PListBudget mBudget;
+	private final char[] mBuffer = new char[BUFFER_SIZE];
+	private final StringBuilder mToken = new StringBuilder(256);
+	private int mPos;
+	private int mLimit;
+	private int mLine = 1;
+
+
+	public OpenStepPListReader(Reader reader)
+	{
+		this(reader, PListLimits.UNLIMITED);
+	}
+
+
+	public OpenStepPListReader(Reader reader, PListLimits limits)
+	{
+		mReader = reader;
+		mBudget = new PListBudget(limits);
+	}
+
+
+	/**
+	 * Read the plist.
+	 * 
+	 * @return A {@link PList} or <code>null</code> if the input doesn't contain anything but white space and comments.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the input is not a valid OpenStep plist.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the {@link PListLimits}.
+	 */
+	@SuppressWarnings("unchecked")
+	public PList read() throws IOException, PListLimitExceededException
+	{
+		int c = skipWhitespace();
+		if (c == EOF)
+		{
+			return null;
+		}
+
+		PList result = new PList();
+		result.mVersion = "1.0";
+
+		if (isUnquotedChar(c) || c == '"' || c == '\'')
+		{
+			// could be a strings file
+			String string = readString(c);
+			c = skipWhitespace();
+			if (c == '=')
+			{
+				mBudget.enterContainer();
+				mBudget.addNode();
+				result.dict = readDictEntries(string, EOF);
+				mBudget.leaveContainer();
+				return result;
+			}
+			mBudget.addNode();
+			result.string = string;
+		}
+		else if (c == '<')
+		{
+			mBudget.addNode();
+			result.data = readData();
+		}
+		else
+		{
+			Object value = readValue(c);
+			if (value instanceof Map)
+			{
+				result.dict = (Map<String, ?>) value;
+			}
+			else
+			{
+				result.array = (List<?>) value;
+			}
+		}
+
+		if ((c = skipWhitespace()) != EOF)
+		{
+			throw error("unexpected character '" + (char) c + "' after root element");
+		}
+		return result;
+	}
+
+
+	private Object readValue(int c) throws IOException, PListLimitExceededException
+	{
+		mBudget.addNode();
+		switch (c)
+		{
+			case '{':
+				++mPos;
+				mBudget.enterContainer();
+				Map<String, Object> dict = readDictEntries(null, '}');
+				mBudget.leaveContainer();
+				return dict;
+			case '(':
+				++mPos;
+				mBudget.enterContainer();
+				List<Object> array = readArrayElements();
+				mBudget.leaveContainer();
+				return array;
+			case '<':
+				return readData();
+			case EOF:
+				throw error("unexpected end of input");
+			default:
+				if (isUnquotedChar(c) || c == '"' || c == '\'')
+				{
+					return readString(c);
+				}
+				throw error("unexpected character '" + (char) c + "'");
+		}
+	}
+
+
+	/**
+	 * Read dict entries up to the given terminator. If <code>firstKey</code> is not <code>null</code> it's the key of the first entry and the current
+	 * character is expected to be the <code>=</code>.
+	 */
+	private Map<String, Object> readDictEntries(String firstKey, int terminator) throws IOException, PListLimitExceededException
+	{
+		Map<String, Object> result = new HashMap<String, Object>(16);
+		String key = firstKey;
+		while (true)
+		{
+			int c;
+			if (key == null)
+			{
+				c = skipWhitespace();
+				if (c == terminator)
+				{
+					++mPos;
+					return result;
+				}
+				if (!isUnquotedChar(c) && c != '"' && c != '\'')
+				{
+					throw c == EOF ? error("unexpected end of input in dict") : error("unexpected character '" + (char) c + "', expected dict key");
+				}
+				key = readString(c);
+				c = skipWhitespace();
+			}
+			else
+			{
+				c = mBuffer[mPos];
+			}
+
+			if (c != '=')
+			{
+				throw error("expected '=' after dict key \"" + key + "\"");
+			}
+			++mPos;
+
+			if (!result.containsKey(key))
+			{
+				mBudget.checkContainerSize(result.size());
+			}
+			result.put(key, readValue(skipWhitespace()));
+
+			if (skipWhitespace() != ';')
+			{
+				throw error("expected ';' after value of dict key \"" + key + "\"");
+			}
+			++mPos;
+			key = null;
+		}
+	}
+
+
+	private List<Object> readArrayElements() throws IOException, PListLimitExceededException
+	{
+		List<Object> result = new ArrayList<Object>(16);
+		int c = skipWhitespace();
+		while (c != ')')
+		{
+			mBudget.checkContainerSize(result.size());
+			result.add(readValue(c));
+
+			c = skipWhitespace();
+			if (c == ',')
+			{
+				++mPos;
+				c = skipWhitespace();
+			}
+			else if (c != ')')
+			{
+				throw c == EOF ? error("unexpected end of input in array") : error("expected ',' or ')' in array");
+			}
+		}
+		++mPos;
+		return result;
+	}
+
+
+	/**
+	 * Read a quoted or unquoted string starting at the current position.
+	 */
+	private String readString(int c) throws IOException, PListLimitExceededException
+	{
+		StringBuilder token = mToken;
+		token.setLength(0);
+		int maxLength = mBudget.getLimits().getMaxStringLength();
+
+		if (c == '"' || c == '\'')
+		{
+			int quote = c;
+			++mPos;
+			while ((c = next()) != quote)
+			{
+				if (c == EOF)
+				{
+					throw error("unterminated quoted string");
+				}
+				if (c == '\\')
+				{
+					c = readEscape();
+				}
+				else if (c == '\n')
+				{
+					++mLine;
+				}
+				if (token.length() >= maxLength)
+				{
+					mBudget.addString(token.length(), 1);
+				}
+				token.append((char) c);
+			}
+		}
+		else
+		{
+			while (c != EOF && isUnquotedChar(c))
+			{
+				if (token.length() >= maxLength)
+				{
+					mBudget.addString(token.length(), 1);
+				}
+				token.append((char) c);
+				++mPos;
+				c = peek();
+			}
+		}
+
+		mBudget.addString(0, token.length());
+		return token.toString();
+	}
+
+
+	private int readEscape() throws IOException
+	{
+		int c = next();
+		switch (c)
+		{
+			case 'a':
+				return 0x07;
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'v':
+				return 0x0b;
+			case 'U':
+			case 'u':
+			{
+				int result = 0;
+				for (int i = 0; i < 4; ++i)
+				{
+					int digit = Character.digit(peek(), 16);
+					if (digit < 0)
+					{
+						break;
+					}
+					++mPos;
+					result = (result << 4) | digit;
+				}
+				return result;
+			}
+			case EOF:
+				throw error("unterminated quoted string");
+			default:
+				if (c >= '0' && c <= '7')
+				{
+					int result = c - '0';
+					for (int i = 0; i < 2 && peek() >= '0' && peek() <= '7'; ++i)
+					{
+						result = (result << 3) | (next() - '0');
+					}
+					return result & 0xff;
+				}
+				// \\, \", \' and any other escaped character
+				return c;
+		}
+	}
+
+
+	/**
+	 * Read a data element like <code>&lt;0fbd 77&gt;</code> and return it as a base64 string.
+	 */
+	private String readData() throws IOException, PListLimitExceededException
+	{
+		++mPos;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		int high = -1;
+		int c;
+		while ((c = next()) != '>')
+		{
+			if (c == EOF)
+			{
+				throw error("unterminated data element");
+			}
+			if (c == ' ' || c == '\t' || c == '\r' || c == '\n')
+			{
+				if (c == '\n')
+				{
+					++mLine;
+				}
+				continue;
+			}
+			int digit = Character.digit(c, 16);
+			if (digit < 0)
+			{
+				throw error("invalid character '" + (char) c + "' in data element");
+			}
+			if (high < 0)
+			{
+				high = digit;
+			}
+			else
+			{
+				bytes.write((high << 4) | digit);
+				high = -1;
+			}
+		}
+		if (high >= 0)
+		{
+			throw error("odd number of hex digits in data element");
+		}
+		String result = Base64.getEncoder().encodeToString(bytes.toByteArray());
+		mBudget.addString(0, result.length());
+		return result;
+	}
+
+
+	/**
+	 * Skip white space and comments and return the next character without consuming it.
+	 */
+	private int skipWhitespace() throws IOException
+	{
+		while (true)
+		{
+			int c = peek();
+			switch (c)
+			{
+				case '\n':
+					++mLine;
+					// fall through
+				case ' ':
+				case '\t':
+				case '\r':
+				case '\f':
+					++mPos;
+					continue;
+				case '/':
+					if (!skipComment())
+					{
+						return c;
+					}
+					continue;
+				default:
+					return c;
+			}
+		}
+	}
+
+
+	/**
+	 * Skip a comment starting at the current position, if any.
+	 * 
+	 * @return <code>true</code> if a comment was skipped, <code>false</code> if the current character doesn't start a comment.
+	 */
+	private boolean skipComment() throws IOException
+	{
+		if (!fill(2))
+		{
+			return false;
+		}
+		char second = mBuffer[mPos + 1];
+		if (second == '/')
+		{
+			mPos += 2;
+			int c;
+			while ((c = peek()) != EOF && c != '\n')
+			{
+				++mPos;
+			}
+			return true;
+		}
+		else if (second == '*')
+		{
+			mPos += 2;
+			int c;
+			while ((c = next()) != EOF)
+			{
+				if (c == '\n')
+				{
+					++mLine;
+				}
+				else if (c == '*' && peek() == '/')
+				{
+					++mPos;
+					return true;
+				}
+			}
+			throw error("unterminated comment");
+		}
+		return false;
+	}
+
+
+	private int peek() throws IOException
+	{
+		if (mPos < mLimit || fill(1))
+		{
+			return mBuffer[mPos];
+		}
+		return EOF;
+	}
+
+
+	private int next() throws IOException
+	{
+		if (mPos < mLimit || fill(1))
+		{
+			return mBuffer[mPos++];
+		}
+		return EOF;
+	}
+
+
+	/**
+	 * Make sure at least <code>count</code> characters are available in the buffer.
+	 * 
+	 * @return <code>false</code> if the end of the input has been reached before <code>count</code> characters were available.
+	 */
+	private boolean fill(int count) throws IOException
+	{
+		if (mLimit - mPos >= count)
+		{
+			return true;
+		}
+		if (mPos > 0)
+		{
+			System.arraycopy(mBuffer, mPos, mBuffer, 0, mLimit - mPos);
+			mLimit -= mPos;
+			mPos = 0;
+		}
+		while (mLimit < count)
+		{
+			int read = mReader.read(mBuffer, mLimit, mBuffer.length - mLimit);
+			if (read < 0)
+			{
+				return false;
+			}
+			mLimit += read;
+		}
+		return true;
+	}
+
+
+	private PListFormatException error(String message)
+	{
+		return new PListFormatException(message + " in line " + mLine);
+	}
+
+
+	/**
+	 * Returns whether the given character is allowed in unquoted strings.
+	 */
+	static boolean isUnquotedChar(int c)
+	{
+		return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '$' || c == '+' || c == '/' || c == ':' || c == '.'
+			|| c == '-';
+	}
+
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+
+/**
+ * A writer for old-style (OpenStep) ASCII plists.
+ * <p>
+ * The OpenStep format only knows strings, data, arrays and dicts. Integers and reals are written as unquoted strings, booleans are written as
+ * <code>YES</code> and <code>NO</code>. Since data inside of dicts and arrays can not be distinguished from strings in the {@link PList} model, only a root
+ * data element is written as data.
+ * </p>
+ */
+public final class OpenStepPListWriter
+{
+	private final static char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final Writer mWriter;
+	private final boolean mPretty;
+
+
+	/**
+	 * Create a writer that writes indented output.
+	 * 
+	 * @param writer
+	 *            The {@link Writer} to write to.
+	 */
+	public OpenStepPListWriter(Writer writer)
+	{
+		this(writer, true);
+	}
+
+
+	/**
+	 * Create a writer.
+	 * 
+	 * @param writer
+	 *            The {@link Writer} to write to.
+	 * @param pretty
+	 *            Whether to write each dict entry and array element on its own line.
+	 */
+	public OpenStepPListWriter(Writer writer, boolean pretty)
+	{
+		mWriter = writer;
+		mPretty = pretty;
+	}
+
+
+	/**
+	 * Write the given {@link PList}.
+	 * <p>
+	 * <strong>Note:</strong> the writer is neither flushed nor closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param plist
+	 *            The {@link PList} to write.
+	 * @throws IOException
+	 */
+	public void write(PList plist) throws IOException
+	{
+		if (plist.array != null)
+		{
+			writeValue(plist.array, 0);
+		}
+		else if (plist.dict != null)
+		{
+			writeValue(plist.dict, 0);
+		}
+		else if (plist.string != null)
+		{
+			writeString(plist.string);
+		}
+		else if (plist.data != null)
+		{
+			writeData(plist.data);
+		}
+		else if (plist.integer != null)
+		{
+			writeValue(plist.integer, 0);
+		}
+		else if (plist.real != null)
+		{
+			writeValue(plist.real, 0);
+		}
+		else if (plist.bool != null)
+		{
+			writeValue(plist.bool, 0);
+		}
+		if (mPretty)
+		{
+			mWriter.write('\n');
+		}
+	}
+
+
+	private void writeValue(Object value, int depth) throws IOException
+	{
+		Writer writer = mWriter;
+		if (value instanceof Map)
+		{
+			writer.write('{');
+			for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+			{
+				if (entry.getValue() == null)
+				{
+					// null values are not allowed
+					continue;
+				}
+				newLine(depth + 1);
+				writeString(entry.getKey().toString());
+				writer.write(" = ");
+				writeValue(entry.getValue(), depth + 1);
+				writer.write(';');
+			}
+			newLine(depth);
+			writer.write('}');
+		}
+		else if (value instanceof List)
+		{
+			writer.write('(');
+			boolean first = true;
+			for (Object element : (List<?>) value)
+			{
+				if (element == null)
+				{
+					// null values are not allowed
+					continue;
+				}
+				if (!first)
+				{
+					writer.write(',');
+				}
+				first = false;
+				newLine(depth + 1);
+				writeValue(element, depth + 1);
+			}
+			newLine(depth);
+			writer.write(')');
+		}
+		else if (value instanceof Boolean)
+		{
+			writer.write((Boolean) value ? "YES" : "NO");
+		}
+		else
+		{
+			writeString(value.toString());
+		}
+	}
+
+
+	private void newLine(int depth) throws IOException
+	{
+		if (mPretty)
+		{
+			mWriter.write('\n');
+			for (int i = 0; i < depth; ++i)
+			{
+				mWriter.write('\t');
+			}
+		}
+		else
+		{
+			mWriter.write(' ');
+		}
+	}
+
+
+	/**
+	 * Write a string, quoting it if necessary.
+	 */
+	private void writeString(String string) throws IOException
+	{
+		Writer writer = mWriter;
+		int len = string.length();
+		if (len > 0 && !needsQuotes(string))
+		{
+			writer.write(string);
+			return;
+		}
+
+		writer.write('"');
+		int start = 0;
+		for (int i = 0; i < len; ++i)
+		{
+			char c = string.charAt(i);
+			if (c >= 0x20 && c != '"' && c != '\\')
+			{
+				continue;
+			}
+			writer.write(string, start, i - start);
+			start = i + 1;
+			switch (c)
+			{
+				case '"':
+					writer.write("\\\"");
+					break;
+				case '\\':
+					writer.write("\\\\");
+					break;
+				case '\n':
+					writer.write("\\n");
+					break;
+				case '\t':
+					writer.write("\\t");
+					break;
+				case '\r':
+					writer.write("\\r");
+					break;
+				default:
+					writer.write("\\U00");
+					writer.write(HEX[c >> 4]);
+					writer.write(HEX[c & 0x0f]);
+			}
+		}
+		writer.write(string, start, len - start);
+		writer.write('"');
+	}
+
+
+	private static boolean needsQuotes(String string)
+	{
+		for (int i = 0, len = string.length(); i < len; ++i)
+		{
+			char c = string.charAt(i);
+			if (!OpenStepPListReader.isUnquotedChar(c) || c == '/' && i + 1 < len && (string.charAt(i + 1) == '/' || string.charAt(i + 1) == '*'))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Write the given base64 string as a data element.
+	 */
+	private void writeData(String base64) throws IOException
+	{
+		byte[] data;
+		try
+		{
+			data = Base64.getMimeDecoder().decode(base64);
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new PListFormatException("invalid base64 data", e);
+		}
+
+		Writer writer = mWriter;
+		writer.write('<');
+		for (int i = 0; i < data.length; ++i)
+		{
+			if (i > 0 && (i & 3) == 0)
+			{
+				writer.write(' ');
+			}
+			writer.write(HEX[(data[i] >> 4) & 0x0f]);
+			writer.write(HEX[data[i] & 0x0f]);
+		}
+		writer.write('>');
+	}
+}
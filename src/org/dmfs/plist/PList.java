@@ -24,14 +24,15 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.dmfs.xmlobjects.ElementDescriptor;
 import org.dmfs.xmlobjects.QualifiedName;
 import org.dmfs.xmlobjects.builder.DoubleObjectBuilder;
 import org.dmfs.xmlobjects.builder.IntegerObjectBuilder;
-import org.dmfs.xmlobjects.builder.StringObjectBuilder;
 import org.dmfs.xmlobjects.pull.Recyclable;
 import org.dmfs.xmlobjects.pull.XmlObjectPull;
 import org.dmfs.xmlobjects.pull.XmlObjectPullParserException;
@@ -62,12 +63,12 @@ public class PList implements Recyclable
 	private final static String VERSION_1_0 = "1.0";
 
 	final static ElementDescriptor<PList> PLIST = ElementDescriptor.register(QualifiedName.get("plist"), PListObjectBuilder.INSTANCE);
-	final static ElementDescriptor<String> KEY = ElementDescriptor.register(QualifiedName.get("key"), StringObjectBuilder.INSTANCE);
+	final static ElementDescriptor<String> KEY = ElementDescriptor.register(QualifiedName.get("key"), PListStringObjectBuilder.INSTANCE);
 
-	final static ElementDescriptor<String> STRING = ElementDescriptor.register(QualifiedName.get("string"), StringObjectBuilder.INSTANCE);
+	final static ElementDescriptor<String> STRING = ElementDescriptor.register(QualifiedName.get("string"), PListStringObjectBuilder.INSTANCE);
 	final static ElementDescriptor<Integer> INTEGER = ElementDescriptor.register(QualifiedName.get("integer"), IntegerObjectBuilder.INSTANCE_STRICT);
 	final static ElementDescriptor<Double> REAL = ElementDescriptor.register(QualifiedName.get("real"), DoubleObjectBuilder.INSTANCE_STRICT);
-	final static ElementDescriptor<String> DATA = ElementDescriptor.register(QualifiedName.get("data"), StringObjectBuilder.INSTANCE);
+	final static ElementDescriptor<String> DATA = ElementDescriptor.register(QualifiedName.get("data"), PListStringObjectBuilder.INSTANCE);
 
 	final static ElementDescriptor<Boolean> TRUE = ElementDescriptor.register(QualifiedName.get("true"), PListBooleanObjectBuilder.INSTANCE);
 	final static ElementDescriptor<Boolean> FALSE = ElementDescriptor.register(QualifiedName.get("false"), PListBooleanObjectBuilder.INSTANCE);
@@ -105,6 +106,30 @@ public class PList implements Recyclable
 	}
 
 
+	/**
+	 * Read a {@link PList} from the given {@link InputStream}, enforcing the given {@link PListLimits}.
+	 * 
+	 * @param in
+	 *            The {@link InputStream} to read from.
+	 * @param charset
+	 *            The character set the stream uses.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @return A {@link PList} or <code>null</code> if there was no plist in the stream.
+	 * @throws UnsupportedEncodingException
+	 * @throws XmlPullParserException
+	 * @throws IOException
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 * @throws XmlObjectPullParserException
+	 */
+	public static PList read(InputStream in, String charset, PListLimits limits) throws UnsupportedEncodingException, XmlPullParserException,
+		IOException, XmlObjectPullParserException
+	{
+		return read(new InputStreamReader(in, charset), limits);
+	}
+
+
 	/**
 	 * Read a {@link PList} from the given {@link Reader}.
 	 * 
@@ -117,12 +142,33 @@ public class PList implements Recyclable
 	 * @throws XmlObjectPullParserException
 	 */
 	public static PList read(Reader in) throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		return read(in, PListLimits.UNLIMITED);
+	}
+
+
+	/**
+	 * Read a {@link PList} from the given {@link Reader}, enforcing the given {@link PListLimits}. The limits are checked while parsing, so the parser
+	 * fails as soon as the document exceeds any of them.
+	 * 
+	 * @param in
+	 *            The {@link Reader} to read from.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @return A {@link PList} or <code>null</code> if there was no plist in the stream.
+	 * @throws XmlPullParserException
+	 * @throws IOException
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 * @throws XmlObjectPullParserException
+	 */
+	public static PList read(Reader in, PListLimits limits) throws XmlPullParserException, IOException, XmlObjectPullParserException
 	{
 		XmlPullParserFactory ppfactory = XmlPullParserFactory.newInstance();
 		XmlPullParser parser = ppfactory.newPullParser();
 		parser.setInput(in);
 
-		XmlObjectPull op = new XmlObjectPull(parser);
+		XmlObjectPull op = new XmlObjectPull(parser, new PListParserContext(limits));
 
 		if (op.moveToNext(PList.PLIST, EMPTY_PATH))
 		{
@@ -132,6 +178,144 @@ public class PList implements Recyclable
 	}
 
 
+	/**
+	 * Read a {@link PList} from the given {@link Reader}, reusing the given {@link PList} and all its dicts and arrays. This uses the
+	 * {@link PListReader} of the current thread.
+	 * 
+	 * @param in
+	 *            The {@link Reader} to read from.
+	 * @param recycle
+	 *            A {@link PList} that's no longer used or <code>null</code>.
+	 * @return A {@link PList} or <code>null</code> if there was no plist in the stream.
+	 * @throws XmlPullParserException
+	 * @throws IOException
+	 * @throws XmlObjectPullParserException
+	 * @see PListReader
+	 */
+	public static PList readRecycling(Reader in, PList recycle) throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		return PListReader.forCurrentThread().read(in, PListLimits.UNLIMITED, recycle);
+	}
+
+
+	/**
+	 * Read a {@link PList} from the given {@link Reader}, keeping only the values declared in the given {@link PListSchema}. All other values are skipped
+	 * without being decoded. Dicts with a dict schema are returned as {@link SchemaDict}s.
+	 * 
+	 * @param in
+	 *            The {@link Reader} to read from.
+	 * @param schema
+	 *            The {@link PListSchema} of the top level value.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @return A {@link PList} or <code>null</code> if there was no plist in the stream.
+	 * @throws XmlPullParserException
+	 * @throws IOException
+	 * @throws PListSchemaException
+	 *             if the document doesn't match the schema.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 */
+	public static PList read(Reader in, PListSchema schema, PListLimits limits) throws XmlPullParserException, IOException, PListLimitExceededException
+	{
+		PListSchemaHandler handler = new PListSchemaHandler(schema);
+		return new XmlPListEventReader(in, limits).read(handler) ? handler.getPList() : null;
+	}
+
+
+	/**
+	 * Read an old-style (OpenStep) ASCII {@link PList} from the given {@link Reader}.
+	 * 
+	 * @param in
+	 *            The {@link Reader} to read from.
+	 * @return A {@link PList} or <code>null</code> if there was no plist in the stream.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the input is not a valid OpenStep plist.
+	 * @throws PListLimitExceededException
+	 * @see OpenStepPListReader
+	 */
+	public static PList readOpenStep(Reader in) throws IOException, PListLimitExceededException
+	{
+		return new OpenStepPListReader(in).read();
+	}
+
+
+	/**
+	 * Read an old-style (OpenStep) ASCII {@link PList} from the given {@link Reader}, enforcing the given {@link PListLimits}.
+	 * 
+	 * @param in
+	 *            The {@link Reader} to read from.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @return A {@link PList} or <code>null</code> if there was no plist in the stream.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the input is not a valid OpenStep plist.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 * @see OpenStepPListReader
+	 */
+	public static PList readOpenStep(Reader in, PListLimits limits) throws IOException, PListLimitExceededException
+	{
+		return new OpenStepPListReader(in, limits).read();
+	}
+
+
+	/**
+	 * Read a binary {@link PList} (<code>bplist00</code>) from the given {@link InputStream}. The entire stream is read into memory.
+	 * <p>
+	 * <strong>Note:</strong> the stream is not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param in
+	 *            The {@link InputStream} to read from.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @return A {@link PList}.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the input is not a valid binary plist or contains values that this model can't represent.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 * @see BinaryPListReader
+	 */
+	public static PList readBinary(InputStream in, PListLimits limits) throws IOException, PListLimitExceededException
+	{
+		return BinaryPListReader.fromStream(in, limits).readPList();
+	}
+
+
+	/**
+	 * Read a binary {@link PList} (<code>bplist00</code>) from the given {@link InputStream}, keeping only the values declared in the given
+	 * {@link PListSchema}. The entire stream is read into memory.
+	 * <p>
+	 * <strong>Note:</strong> the stream is not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param in
+	 *            The {@link InputStream} to read from.
+	 * @param schema
+	 *            The {@link PListSchema} of the top level value.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @return A {@link PList}.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the input is not a valid binary plist.
+	 * @throws PListSchemaException
+	 *             if the document doesn't match the schema.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 */
+	public static PList readBinary(InputStream in, PListSchema schema, PListLimits limits) throws IOException, PListLimitExceededException
+	{
+		PListSchemaHandler handler = new PListSchemaHandler(schema);
+		BinaryPListReader.fromStream(in, limits).read(handler);
+		return handler.getPList();
+	}
+
+
 	PList()
 	{
 	}
@@ -227,6 +411,16 @@ public class PList implements Recyclable
 	}
 
 
+	/**
+	 * Returns the top level value, whatever its type is.
+	 */
+	Object value()
+	{
+		return dict != null ? dict : array != null ? array : string != null ? string : data != null ? data : integer != null ? integer : real != null ? real
+			: bool;
+	}
+
+
 	/**
 	 * Write the {@link PList} to the given {@link OutputStream} using the given charset.
 	 * <p>
@@ -271,6 +465,123 @@ public class PList implements Recyclable
 	}
 
 
+	/**
+	 * Write the {@link PList} to the given {@link OutputStream} in the given format. XML is written in UTF-8.
+	 * <p>
+	 * <strong>Note:</strong> the output stream is not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param out
+	 *            The {@link OutputStream} to write to, e.g. a {@link ByteBufferOutputStream}.
+	 * @param format
+	 *            The {@link PListFormat} to write.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 * @throws SerializerException
+	 */
+	public void write(OutputStream out, PListFormat format) throws IOException, XmlPullParserException, SerializerException
+	{
+		if (format == PListFormat.BINARY)
+		{
+			writeBinary(out);
+		}
+		else
+		{
+			write(out, "UTF-8");
+		}
+	}
+
+
+	/**
+	 * Write the {@link PList} to the given {@link OutputStream} in the given format, encoding large top level arrays and dicts in parallel on the given
+	 * {@link ForkJoinPool}. XML is written in UTF-8.
+	 * <p>
+	 * <strong>Note:</strong> the output stream is not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param out
+	 *            The {@link OutputStream} to write to.
+	 * @param format
+	 *            The {@link PListFormat} to write.
+	 * @param pool
+	 *            The {@link ForkJoinPool} to use.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 * @see PListParallelWriter
+	 */
+	public void write(OutputStream out, PListFormat format, ForkJoinPool pool) throws IOException, XmlPullParserException
+	{
+		new PListParallelWriter(pool).write(this, out, format);
+	}
+
+
+	/**
+	 * Write the {@link PList} to the given {@link WritableByteChannel} in the given format. The output is staged in direct buffers of the given pool and
+	 * written with gathering writes, so large documents are written in chunks without ever being copied into a byte array.
+	 * <p>
+	 * <strong>Note:</strong> the channel is not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param channel
+	 *            The {@link WritableByteChannel} to write to, should be in blocking mode.
+	 * @param format
+	 *            The {@link PListFormat} to write.
+	 * @param pool
+	 *            The {@link ByteBufferPool} to take the buffers from, e.g. {@link ByteBufferPool#DEFAULT}.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 * @throws SerializerException
+	 */
+	public void write(WritableByteChannel channel, PListFormat format, ByteBufferPool pool) throws IOException, XmlPullParserException,
+		SerializerException
+	{
+		ByteBufferOutputStream out = new ByteBufferOutputStream(channel, pool);
+		try
+		{
+			write(out, format);
+			out.flush();
+		}
+		finally
+		{
+			out.release();
+		}
+	}
+
+
+	/**
+	 * Write the {@link PList} to the given {@link Writer} in the old-style (OpenStep) ASCII format.
+	 * <p>
+	 * <strong>Note:</strong> the writer is not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param out
+	 *            The {@link Writer} to write to.
+	 * @throws IOException
+	 * @see OpenStepPListWriter
+	 */
+	public void writeOpenStep(Writer out) throws IOException
+	{
+		new OpenStepPListWriter(out).write(this);
+	}
+
+
+	/**
+	 * Write the {@link PList} to the given {@link OutputStream} in the binary format (<code>bplist00</code>).
+	 * <p>
+	 * <strong>Note:</strong> the output stream is not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param out
+	 *            The {@link OutputStream} to write to.
+	 * @throws IOException
+	 * @see BinaryPListWriter
+	 */
+	public void writeBinary(OutputStream out) throws IOException
+	{
+		PListTreeWalker.walk(this, new BinaryPListWriter(out));
+	}
+
+
 	@Override
 	public String toString()
 	{
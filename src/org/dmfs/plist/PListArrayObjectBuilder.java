@@ -51,15 +51,28 @@ public class PListArrayObjectBuilder extends AbstractObjectBuilder<List<?>>
 	@Override
 	public List<?> get(ElementDescriptor<List<?>> descriptor, List<?> recycle, ParserContext context) throws XmlObjectPullParserException
 	{
+		PListBudget budget = PListParserContext.budget(context);
+		if (budget != null)
+		{
+			budget.enterContainer();
+		}
+
 		if (recycle != null)
 		{
 			recycle.clear();
 			return recycle;
 		}
-		else
+
+		PListRecycler recycler = PListParserContext.recycler(context);
+		if (recycler != null)
 		{
-			return new ArrayList<Object>(16);
+			ArrayList<Object> result = recycler.obtainList();
+			if (result != null)
+			{
+				return result;
+			}
 		}
+		return new ArrayList<Object>(16);
 	}
 
 
@@ -68,11 +81,29 @@ public class PListArrayObjectBuilder extends AbstractObjectBuilder<List<?>>
 	public <V> List<?> update(ElementDescriptor<List<?>> descriptor, List<?> object, ElementDescriptor<V> childDescriptor, V child, ParserContext context)
 		throws XmlObjectPullParserException
 	{
+		PListBudget budget = PListParserContext.budget(context);
+		if (budget != null)
+		{
+			budget.checkContainerSize(object.size());
+			budget.addNode();
+		}
 		((List<Object>) object).add(child);
 		return object;
 	}
 
 
+	@Override
+	public List<?> finish(ElementDescriptor<List<?>> descriptor, List<?> object, ParserContext context) throws XmlObjectPullParserException
+	{
+		PListBudget budget = PListParserContext.budget(context);
+		if (budget != null)
+		{
+			budget.leaveContainer();
+		}
+		return object;
+	}
+
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public void writeChildren(ElementDescriptor<List<?>> descriptor, List<?> object, IXmlChildWriter childWriter, SerializerContext context)
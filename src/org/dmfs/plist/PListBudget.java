@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+/**
+ * Keeps track of the resources a single document has consumed so far and checks them against a {@link PListLimits} instance.
+ * <p>
+ * All checks are meant to be performed <em>before</em> the respective memory is allocated.
+ * </p>
+ */
+final class PListBudget
+{
+	private PListLimits mLimits;
+	private int mDepth;
+	private int mNodes;
+	private long mTotalStringLength;
+
+
+	PListBudget(PListLimits limits)
+	{
+		mLimits = limits;
+	}
+
+
+	PListLimits getLimits()
+	{
+		return mLimits;
+	}
+
+
+	/**
+	 * Reset all counters and (optionally) replace the limits, so this instance can be used for another document.
+	 * 
+	 * @param limits
+	 *            The new {@link PListLimits}, or <code>null</code> to keep the current ones.
+	 */
+	void reset(PListLimits limits)
+	{
+		if (limits != null)
+		{
+			mLimits = limits;
+		}
+		mDepth = 0;
+		mNodes = 0;
+		mTotalStringLength = 0;
+	}
+
+
+	/**
+	 * Called before a new array or dict is created.
+	 */
+	void enterContainer() throws PListLimitExceededException
+	{
+		if (mDepth >= mLimits.getMaxDepth())
+		{
+			throw new PListLimitExceededException("plist nesting depth exceeds limit of " + mLimits.getMaxDepth());
+		}
+		++mDepth;
+	}
+
+
+	/**
+	 * Called after an array or dict has been completed.
+	 */
+	void leaveContainer()
+	{
+		if (mDepth > 0)
+		{
+			--mDepth;
+		}
+	}
+
+
+	int getDepth()
+	{
+		return mDepth;
+	}
+
+
+	/**
+	 * Called before a value is added to the document.
+	 */
+	void addNode() throws PListLimitExceededException
+	{
+		if (mNodes >= mLimits.getMaxNodes())
+		{
+			throw new PListLimitExceededException("plist node count exceeds limit of " + mLimits.getMaxNodes());
+		}
+		++mNodes;
+	}
+
+
+	/**
+	 * Called before an element is added to an array or dict that already contains <code>currentSize</code> elements.
+	 */
+	void checkContainerSize(int currentSize) throws PListLimitExceededException
+	{
+		if (currentSize >= mLimits.getMaxContainerSize())
+		{
+			throw new PListLimitExceededException("plist container size exceeds limit of " + mLimits.getMaxContainerSize());
+		}
+	}
+
+
+	/**
+	 * Called before a string, key or data element that already has <code>currentLength</code> characters is extended by <code>additionalLength</code>
+	 * characters.
+	 */
+	void addString(int currentLength, int additionalLength) throws PListLimitExceededException
+	{
+		if ((long) currentLength + additionalLength > mLimits.getMaxStringLength())
+		{
+			throw new PListLimitExceededException("plist string length exceeds limit of " + mLimits.getMaxStringLength());
+		}
+		if (mTotalStringLength + additionalLength > mLimits.getMaxTotalStringLength())
+		{
+			throw new PListLimitExceededException("plist total string length exceeds limit of " + mLimits.getMaxTotalStringLength());
+		}
+		mTotalStringLength += additionalLength;
+	}
+}
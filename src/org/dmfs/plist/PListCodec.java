@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.Deflater;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+
+/**
+ * Reads and writes plists that may be gzip or zlib compressed.
+ * <p>
+ * When reading, the compression and the {@link PListFormat} are detected from the first bytes of the input, so any combination of {@link PListCompression}
+ * and {@link PListFormat} can be read without knowing it in advance. The {@link java.util.zip.Inflater}s, {@link java.util.zip.Deflater}s and I/O buffers
+ * are pooled and reused across calls.
+ * </p>
+ */
+public final class PListCodec
+{
+	/**
+	 * The number of bytes needed to detect compression and format.
+	 */
+	private final static int SNIFF_LENGTH = BinaryPListObjects.MAGIC.length;
+
+
+	private PListCodec()
+	{
+	}
+
+
+	/**
+	 * Read a {@link PList} from the given stream. Compression and format are detected automatically. XML plists may use any encoding that's declared in the
+	 * XML declaration.
+	 * <p>
+	 * <strong>Note:</strong> the stream is not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param in
+	 *            The {@link InputStream} to read from.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @return The {@link PList} or <code>null</code> if the input doesn't contain a plist.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the compressed data or the binary plist is corrupt.
+	 * @throws XmlPullParserException
+	 *             if the input is not a valid XML plist.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 */
+	public static PList read(InputStream in, PListLimits limits) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		PushbackInputStream sniffer = new PushbackInputStream(in, SNIFF_LENGTH);
+		PListCompression compression = PListCompression.detect(sniff(sniffer));
+		if (compression == PListCompression.NONE)
+		{
+			return readPList(sniffer, limits);
+		}
+
+		InflatingInputStream inflater = new InflatingInputStream(sniffer, compression);
+		try
+		{
+			return readPList(new PushbackInputStream(inflater, SNIFF_LENGTH), limits);
+		}
+		finally
+		{
+			inflater.release();
+		}
+	}
+
+
+	/**
+	 * Read a {@link PList} from the given stream without enforcing any limits.
+	 * 
+	 * @see #read(InputStream, PListLimits)
+	 */
+	public static PList read(InputStream in) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		return read(in, PListLimits.UNLIMITED);
+	}
+
+
+	/**
+	 * Read a {@link PList} from the given file. Compression and format are detected automatically.
+	 * 
+	 * @see #read(InputStream, PListLimits)
+	 */
+	public static PList read(File file, PListLimits limits) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		InputStream in = new FileInputStream(file);
+		try
+		{
+			return read(in, limits);
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Returns an {@link InputStream} that returns the decompressed contents of the given stream. If the input is not compressed it's returned as is.
+	 * <p>
+	 * Closing the returned stream closes the given stream and returns the pooled resources.
+	 * </p>
+	 * 
+	 * @param in
+	 *            The {@link InputStream} to read from.
+	 * @return An {@link InputStream} with the decompressed data.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the input has an invalid gzip header.
+	 */
+	public static InputStream decompress(InputStream in) throws IOException
+	{
+		PushbackInputStream sniffer = new PushbackInputStream(in, SNIFF_LENGTH);
+		PListCompression compression = PListCompression.detect(sniff(sniffer));
+		return compression == PListCompression.NONE ? sniffer : new InflatingInputStream(sniffer, compression);
+	}
+
+
+	/**
+	 * Write a {@link PList} in the given format and compression.
+	 * <p>
+	 * <strong>Note:</strong> the output stream is not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param plist
+	 *            The {@link PList} to write.
+	 * @param out
+	 *            The {@link OutputStream} to write to.
+	 * @param format
+	 *            The {@link PListFormat} to write, XML is written in UTF-8.
+	 * @param compression
+	 *            The {@link PListCompression} to apply.
+	 * @param level
+	 *            The compression level from {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION} or {@link Deflater#DEFAULT_COMPRESSION}.
+	 *            Ignored if compression is {@link PListCompression#NONE}.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 *             if no XML serializer is available.
+	 */
+	public static void write(PList plist, OutputStream out, PListFormat format, PListCompression compression, int level) throws IOException,
+		XmlPullParserException
+	{
+		if (compression == PListCompression.NONE)
+		{
+			writePList(plist, out, format);
+			return;
+		}
+
+		DeflatingOutputStream deflater = new DeflatingOutputStream(out, compression, level);
+		try
+		{
+			writePList(plist, deflater, format);
+			deflater.finish();
+		}
+		finally
+		{
+			deflater.release();
+		}
+	}
+
+
+	/**
+	 * Write a {@link PList} in the given format and compression with the default compression level.
+	 * 
+	 * @see #write(PList, OutputStream, PListFormat, PListCompression, int)
+	 */
+	public static void write(PList plist, OutputStream out, PListFormat format, PListCompression compression) throws IOException, XmlPullParserException
+	{
+		write(plist, out, format, compression, Deflater.DEFAULT_COMPRESSION);
+	}
+
+
+	/**
+	 * Write a {@link PList} to the given file in the given format and compression.
+	 * 
+	 * @see #write(PList, OutputStream, PListFormat, PListCompression, int)
+	 */
+	public static void write(PList plist, File file, PListFormat format, PListCompression compression, int level) throws IOException,
+		XmlPullParserException
+	{
+		OutputStream out = new FileOutputStream(file);
+		try
+		{
+			write(plist, out, format, compression, level);
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+
+	/**
+	 * Returns an {@link OutputStream} that compresses everything written to it and writes it to the given stream.
+	 * <p>
+	 * Closing the returned stream finishes the compressed data, closes the given stream and returns the pooled resources.
+	 * </p>
+	 * 
+	 * @param out
+	 *            The {@link OutputStream} to write the compressed data to.
+	 * @param compression
+	 *            The {@link PListCompression} to apply. For {@link PListCompression#NONE} the given stream is returned.
+	 * @param level
+	 *            The compression level.
+	 * @return An {@link OutputStream}.
+	 * @throws IOException
+	 */
+	public static OutputStream compress(OutputStream out, PListCompression compression, int level) throws IOException
+	{
+		return compression == PListCompression.NONE ? out : new DeflatingOutputStream(out, compression, level);
+	}
+
+
+	private static PList readPList(PushbackInputStream in, PListLimits limits) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		if (isBinary(sniff(in)))
+		{
+			// the tree doesn't refer to the buffer, so we can read into a pooled one and return it afterwards
+			byte[] buffer = CompressionPool.obtainBuffer();
+			try
+			{
+				return new BinaryPListReader(BinaryPListReader.readFully(in, buffer, limits), limits).readPList();
+			}
+			finally
+			{
+				CompressionPool.release(buffer);
+			}
+		}
+
+		XmlPullParser parser = XmlPullParserFactory.newInstance().newPullParser();
+		parser.setInput(in, null);
+		PListTreeBuilder builder = new PListTreeBuilder();
+		return new XmlPListEventReader(parser, limits).read(builder) ? builder.getPList() : null;
+	}
+
+
+	private static void writePList(PList plist, OutputStream out, PListFormat format) throws IOException, XmlPullParserException
+	{
+		PListTreeWalker.walk(plist, format == PListFormat.BINARY ? new BinaryPListWriter(out) : new XmlPListWriter(out, "UTF-8"));
+	}
+
+
+	/**
+	 * Returns the first {@link #SNIFF_LENGTH} bytes of the stream and pushes them back. If the stream is shorter the remaining bytes are 0.
+	 */
+	private static byte[] sniff(PushbackInputStream in) throws IOException
+	{
+		byte[] result = new byte[SNIFF_LENGTH];
+		int length = 0;
+		int read;
+		while (length < SNIFF_LENGTH && (read = in.read(result, length, SNIFF_LENGTH - length)) >= 0)
+		{
+			length += read;
+		}
+		in.unread(result, 0, length);
+		return result;
+	}
+
+
+	private static boolean isBinary(byte[] header)
+	{
+		byte[] magic = BinaryPListObjects.MAGIC;
+		for (int i = 0; i < magic.length; ++i)
+		{
+			if (header[i] != magic[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+/**
+ * The compression formats supported by {@link PListCodec}.
+ */
+public enum PListCompression
+{
+	/**
+	 * No compression.
+	 */
+	NONE,
+
+	/**
+	 * gzip (RFC 1952).
+	 */
+	GZIP,
+
+	/**
+	 * zlib (RFC 1950), i.e. what {@link java.util.zip.DeflaterOutputStream} writes.
+	 */
+	ZLIB;
+
+	/**
+	 * Returns the compression of data that starts with the given bytes.
+	 * 
+	 * @param header
+	 *            The first bytes of the data, padded with zeros if the data is shorter.
+	 * @return The {@link PListCompression}, {@link #NONE} if the data doesn't look compressed.
+	 */
+	static PListCompression detect(byte[] header)
+	{
+		if (header.length >= 2)
+		{
+			int b0 = header[0] & 0xff;
+			int b1 = header[1] & 0xff;
+			if (b0 == 0x1f && b1 == 0x8b)
+			{
+				return GZIP;
+			}
+			if ((b0 & 0x0f) == 8 && (b0 >> 4) <= 7 && ((b0 << 8) | b1) % 31 == 0)
+			{
+				// deflate with a valid window size and header checksum
+				return ZLIB;
+			}
+		}
+		return NONE;
+	}
+}
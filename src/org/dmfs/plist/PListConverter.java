@@ -0,0 +1,501 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+
+/**
+ * Converts plists between the XML and the binary format without building a {@link PList} tree, similar to <code>plutil -convert</code>.
+ * <p>
+ * XML to binary is a single streaming pass over the XML, only the encoded object table is buffered because the binary format stores the object count and
+ * offsets after the objects. Binary to XML needs random access to the object table, so files are mapped into memory and streams are read into memory. The
+ * XML is written while the objects are decoded.
+ * </p>
+ * <p>
+ * This class can also be run from the command line:
+ * </p>
+ * 
+ * <pre>
+ * java org.dmfs.plist.PListConverter -convert xml1|binary1 [-o output] [-j threads] file|directory ...
+ * </pre>
+ * <p>
+ * Files are converted in place unless an output file is given. Directories are searched recursively for <code>.plist</code> files, which are converted
+ * in parallel.
+ * </p>
+ */
+public final class PListConverter
+{
+	private final static String ENCODING = "UTF-8";
+	private final static String EXTENSION = ".plist";
+
+
+	private PListConverter()
+	{
+	}
+
+
+	/**
+	 * Convert an XML plist to a binary plist.
+	 * <p>
+	 * <strong>Note:</strong> neither stream is closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param in
+	 *            The {@link InputStream} to read the XML plist from. The encoding is detected from the XML declaration.
+	 * @param out
+	 *            The {@link OutputStream} to write the binary plist to.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce when reading the plist.
+	 * @return <code>false</code> if there was no plist in the input, <code>true</code> otherwise.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 *             if the input is not a valid XML plist.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 */
+	public static boolean xmlToBinary(InputStream in, OutputStream out, PListLimits limits) throws IOException, XmlPullParserException,
+		PListLimitExceededException
+	{
+		return xmlReader(in, limits).read(new BinaryPListWriter(out));
+	}
+
+
+	/**
+	 * Convert an XML plist to a binary plist.
+	 * 
+	 * @see #xmlToBinary(InputStream, OutputStream, PListLimits)
+	 */
+	public static boolean xmlToBinary(InputStream in, OutputStream out) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		return xmlToBinary(in, out, PListLimits.UNLIMITED);
+	}
+
+
+	/**
+	 * Convert a binary plist to an XML plist. The binary plist is read into memory.
+	 * <p>
+	 * <strong>Note:</strong> neither stream is closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param in
+	 *            The {@link InputStream} to read the binary plist from.
+	 * @param out
+	 *            The {@link OutputStream} to write the UTF-8 encoded XML plist to.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce when reading the plist.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 * @throws PListFormatException
+	 *             if the input is not a valid binary plist.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 */
+	public static void binaryToXml(InputStream in, OutputStream out, PListLimits limits) throws IOException, XmlPullParserException,
+		PListLimitExceededException
+	{
+		BinaryPListReader.fromStream(in, limits).read(new XmlPListWriter(out, ENCODING));
+	}
+
+
+	/**
+	 * Convert a binary plist to an XML plist.
+	 * 
+	 * @see #binaryToXml(InputStream, OutputStream, PListLimits)
+	 */
+	public static void binaryToXml(InputStream in, OutputStream out) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		binaryToXml(in, out, PListLimits.UNLIMITED);
+	}
+
+
+	/**
+	 * Convert a binary plist in a {@link ByteBuffer} (e.g. a {@link java.nio.MappedByteBuffer}) to an XML plist.
+	 * <p>
+	 * <strong>Note:</strong> the output stream is not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param in
+	 *            The {@link ByteBuffer} containing the binary plist between its position and its limit.
+	 * @param out
+	 *            The {@link OutputStream} to write the UTF-8 encoded XML plist to.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce when reading the plist.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 * @throws PListFormatException
+	 *             if the input is not a valid binary plist.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 */
+	public static void binaryToXml(ByteBuffer in, OutputStream out, PListLimits limits) throws IOException, XmlPullParserException,
+		PListLimitExceededException
+	{
+		new BinaryPListReader(in, limits).read(new XmlPListWriter(out, ENCODING));
+	}
+
+
+	/**
+	 * Detect the format of the given plist file.
+	 * 
+	 * @param file
+	 *            The plist file.
+	 * @return {@link PListFormat#BINARY} if the file starts with the binary plist header, {@link PListFormat#XML} otherwise.
+	 * @throws IOException
+	 */
+	public static PListFormat formatOf(File file) throws IOException
+	{
+		InputStream in = new FileInputStream(file);
+		try
+		{
+			byte[] magic = BinaryPListObjects.MAGIC;
+			for (int i = 0; i < magic.length; ++i)
+			{
+				if (in.read() != magic[i])
+				{
+					return PListFormat.XML;
+				}
+			}
+			return PListFormat.BINARY;
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Convert a plist file to the given format. The format of the input is detected automatically.
+	 * <p>
+	 * If <code>in</code> and <code>out</code> are the same file, the file is replaced only after the conversion succeeded and only if it's not in the
+	 * target format already.
+	 * </p>
+	 * 
+	 * @param in
+	 *            The plist file to convert.
+	 * @param out
+	 *            The file to write the result to, may be the same as <code>in</code>.
+	 * @param format
+	 *            The {@link PListFormat} to convert to.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce when reading the plist.
+	 * @return <code>true</code> if a file has been written, <code>false</code> if the file has been left untouched.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 *             if an XML plist is invalid.
+	 * @throws PListFormatException
+	 *             if a binary plist is invalid.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 */
+	public static boolean convert(File in, File out, PListFormat format, PListLimits limits) throws IOException, XmlPullParserException,
+		PListLimitExceededException
+	{
+		PListFormat inFormat = formatOf(in);
+		boolean inPlace = in.getCanonicalFile().equals(out.getCanonicalFile());
+		if (inPlace && inFormat == format)
+		{
+			return false;
+		}
+
+		File target = inPlace ? File.createTempFile(in.getName(), ".tmp", in.getAbsoluteFile().getParentFile()) : out;
+		boolean success = false;
+		try
+		{
+			OutputStream output = new BufferedOutputStream(new FileOutputStream(target), 64 * 1024);
+			try
+			{
+				PListHandler handler = format == PListFormat.BINARY ? new BinaryPListWriter(output) : new XmlPListWriter(output, ENCODING);
+				if (inFormat == PListFormat.BINARY)
+				{
+					readBinary(in, handler, limits);
+				}
+				else
+				{
+					InputStream input = new BufferedInputStream(new FileInputStream(in), 64 * 1024);
+					try
+					{
+						if (!xmlReader(input, limits).read(handler))
+						{
+							throw new XmlPullParserException("no plist found in " + in);
+						}
+					}
+					finally
+					{
+						input.close();
+					}
+				}
+			}
+			finally
+			{
+				output.close();
+			}
+
+			if (inPlace)
+			{
+				Files.move(target.toPath(), in.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			success = true;
+		}
+		finally
+		{
+			if (!success)
+			{
+				target.delete();
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Convert all <code>.plist</code> files in the given directory and its sub-directories to the given format in place, using the given number of
+	 * threads.
+	 * <p>
+	 * All files are processed, even if some of them fail. In that case the first failure is thrown after all files have been processed, any other
+	 * failures are added as suppressed exceptions.
+	 * </p>
+	 * 
+	 * @param directory
+	 *            The directory to convert.
+	 * @param format
+	 *            The {@link PListFormat} to convert to.
+	 * @param threads
+	 *            The number of files to convert in parallel.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce when reading the plists.
+	 * @return The number of files that have been converted.
+	 * @throws IOException
+	 *             if any of the files could not be converted.
+	 * @throws InterruptedException
+	 */
+	public static int convertDirectory(File directory, final PListFormat format, int threads, final PListLimits limits) throws IOException,
+		InterruptedException
+	{
+		List<File> files = new ArrayList<File>(256);
+		collectPLists(directory, files);
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+		try
+		{
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(files.size());
+			for (final File file : files)
+			{
+				results.add(executor.submit(new Callable<Boolean>()
+				{
+					@Override
+					public Boolean call() throws Exception
+					{
+						return convert(file, file, format, limits);
+					}
+				}));
+			}
+
+			int converted = 0;
+			IOException failure = null;
+			for (int i = 0, count = results.size(); i < count; ++i)
+			{
+				try
+				{
+					if (results.get(i).get())
+					{
+						++converted;
+					}
+				}
+				catch (ExecutionException e)
+				{
+					IOException error = new IOException("can't convert " + files.get(i) + ": " + e.getCause().getMessage(), e.getCause());
+					if (failure == null)
+					{
+						failure = error;
+					}
+					else
+					{
+						failure.addSuppressed(error);
+					}
+				}
+			}
+			if (failure != null)
+			{
+				throw failure;
+			}
+			return converted;
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+
+	public static void main(String[] args)
+	{
+		PListFormat format = null;
+		File output = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		List<File> inputs = new ArrayList<File>();
+
+		try
+		{
+			for (int i = 0; i < args.length; ++i)
+			{
+				String arg = args[i];
+				if ("-convert".equals(arg) && i + 1 < args.length)
+				{
+					format = PListFormat.forName(args[++i]);
+					if (format == null)
+					{
+						usage("unknown format " + args[i]);
+					}
+				}
+				else if ("-o".equals(arg) && i + 1 < args.length)
+				{
+					output = new File(args[++i]);
+				}
+				else if ("-j".equals(arg) && i + 1 < args.length)
+				{
+					threads = Integer.parseInt(args[++i]);
+				}
+				else if (arg.startsWith("-"))
+				{
+					usage("unknown option " + arg);
+				}
+				else
+				{
+					inputs.add(new File(arg));
+				}
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			usage("invalid number of threads");
+		}
+
+		if (format == null || inputs.isEmpty())
+		{
+			usage(null);
+		}
+		if (output != null && (inputs.size() > 1 || inputs.get(0).isDirectory()))
+		{
+			usage("-o requires a single input file");
+		}
+
+		boolean failed = false;
+		for (File input : inputs)
+		{
+			try
+			{
+				if (input.isDirectory())
+				{
+					convertDirectory(input, format, threads, PListLimits.UNLIMITED);
+				}
+				else
+				{
+					convert(input, output == null ? input : output, format, PListLimits.UNLIMITED);
+				}
+			}
+			catch (Exception e)
+			{
+				failed = true;
+				System.err.println(input + ": " + e.getMessage());
+				for (Throwable suppressed : e.getSuppressed())
+				{
+					System.err.println(input + ": " + suppressed.getMessage());
+				}
+			}
+		}
+		System.exit(failed ? 1 : 0);
+	}
+
+
+	private static void usage(String error)
+	{
+		if (error != null)
+		{
+			System.err.println(error);
+		}
+		System.err.println("usage: java " + PListConverter.class.getName() + " -convert xml1|binary1 [-o output] [-j threads] file|directory ...");
+		System.exit(2);
+	}
+
+
+	private static void collectPLists(File directory, List<File> result) throws IOException
+	{
+		File[] files = directory.listFiles();
+		if (files == null)
+		{
+			throw new IOException("can't list " + directory);
+		}
+		for (File file : files)
+		{
+			if (file.isDirectory())
+			{
+				collectPLists(file, result);
+			}
+			else if (file.getName().endsWith(EXTENSION))
+			{
+				result.add(file);
+			}
+		}
+	}
+
+
+	private static void readBinary(File file, PListHandler handler, PListLimits limits) throws IOException, PListLimitExceededException
+	{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try
+		{
+			new BinaryPListReader(new ByteSource.MappedFileSource(raf.getChannel()), limits).read(handler);
+		}
+		finally
+		{
+			raf.close();
+		}
+	}
+
+
+	private static XmlPListEventReader xmlReader(InputStream in, PListLimits limits) throws XmlPullParserException
+	{
+		XmlPullParser parser = XmlPullParserFactory.newInstance().newPullParser();
+		parser.setInput(in, null);
+		return new XmlPListEventReader(parser, limits);
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+
+/**
+ * Helpers to convert plist dates. Plist dates are ISO 8601 UTC timestamps like <code>2014-04-01T12:00:00Z</code>.
+ */
+final class PListDates
+{
+	/**
+	 * The difference between the Java epoch (1970-01-01) and the Core Foundation epoch (2001-01-01) in milliseconds.
+	 */
+	final static long CF_EPOCH_OFFSET = 978307200000L;
+
+	/**
+	 * {@link SimpleDateFormat} is not thread safe, so each thread gets its own instance.
+	 */
+	private final static ThreadLocal<SimpleDateFormat> FORMAT = new ThreadLocal<SimpleDateFormat>()
+	{
+		@Override
+		protected SimpleDateFormat initialValue()
+		{
+			SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+			format.setTimeZone(TimeZone.getTimeZone("UTC"));
+			format.setLenient(false);
+			return format;
+		}
+	};
+
+
+	private PListDates()
+	{
+	}
+
+
+	static String format(Date date)
+	{
+		return FORMAT.get().format(date);
+	}
+
+
+	static Date parse(String date) throws ParseException
+	{
+		return FORMAT.get().parse(date.trim());
+	}
+}
@@ -56,15 +56,28 @@ public class PListDictObjectBuilder extends AbstractObjectBuilder<Map<String, ?>
 	@Override
 	public Map<String, ?> get(ElementDescriptor<Map<String, ?>> descriptor, Map<String, ?> recycle, ParserContext context) throws XmlObjectPullParserException
 	{
+		PListBudget budget = PListParserContext.budget(context);
+		if (budget != null)
+		{
+			budget.enterContainer();
+		}
+
 		if (recycle != null)
 		{
 			recycle.clear();
 			return recycle;
 		}
-		else
+
+		PListRecycler recycler = PListParserContext.recycler(context);
+		if (recycler != null)
 		{
-			return new HashMap<String, Object>(16);
+			HashMap<String, Object> result = recycler.obtainMap();
+			if (result != null)
+			{
+				return result;
+			}
 		}
+		return new HashMap<String, Object>(16);
 	}
 
 
@@ -82,6 +95,15 @@ public class PListDictObjectBuilder extends AbstractObjectBuilder<Map<String, ?>
 			String key = (String) object.remove(CURRENT_ELEMENT_KEY);
 			if (key != null)
 			{
+				PListBudget budget = PListParserContext.budget(context);
+				if (budget != null)
+				{
+					if (!object.containsKey(key))
+					{
+						budget.checkContainerSize(object.size());
+					}
+					budget.addNode();
+				}
 				((Map<String, Object>) object).put(key, child);
 			}
 			else
@@ -93,6 +115,19 @@ public class PListDictObjectBuilder extends AbstractObjectBuilder<Map<String, ?>
 	}
 
 
+	@Override
+	public Map<String, ?> finish(ElementDescriptor<Map<String, ?>> descriptor, Map<String, ?> object, ParserContext context)
+		throws XmlObjectPullParserException
+	{
+		PListBudget budget = PListParserContext.budget(context);
+		if (budget != null)
+		{
+			budget.leaveContainer();
+		}
+		return object;
+	}
+
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public void writeChildren(ElementDescriptor<Map<String, ?>> descriptor, Map<String, ?> object, IXmlChildWriter childWriter, SerializerContext context)
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+/**
+ * The serialization formats of a plist.
+ */
+public enum PListFormat
+{
+	/**
+	 * XML plists, <code>xml1</code> in terms of <code>plutil</code>.
+	 */
+	XML("xml1"),
+
+	/**
+	 * Binary plists (<code>bplist00</code>), <code>binary1</code> in terms of <code>plutil</code>.
+	 */
+	BINARY("binary1");
+
+	private final String mName;
+
+
+	private PListFormat(String name)
+	{
+		mName = name;
+	}
+
+
+	/**
+	 * Returns the {@link PListFormat} with the given <code>plutil</code> name.
+	 * 
+	 * @param name
+	 *            The name of the format, either <code>xml1</code> or <code>binary1</code>.
+	 * @return The {@link PListFormat} or <code>null</code> if the name is unknown.
+	 */
+	public static PListFormat forName(String name)
+	{
+		for (PListFormat format : values())
+		{
+			if (format.mName.equals(name))
+			{
+				return format;
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Returns the <code>plutil</code> name of this format.
+	 */
+	public String getName()
+	{
+		return mName;
+	}
+}
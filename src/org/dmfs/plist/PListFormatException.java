@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+
+
+/**
+ * Thrown by the non-XML plist parsers if the input is malformed.
+ */
+public class PListFormatException extends IOException
+{
+	private static final long serialVersionUID = 1L;
+
+
+	public PListFormatException(String message)
+	{
+		super(message);
+	}
+
+
+	public PListFormatException(String message, Throwable cause)
+	{
+		super(message, cause);
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.util.Date;
+
+
+/**
+ * Receives the contents of a plist document as a stream of events. This allows to convert between plist formats without building a {@link PList} tree.
+ * <p>
+ * A document starts with {@link #startDocument()}, followed by exactly one value, followed by {@link #endDocument()}. A value is either a scalar or a
+ * container. Containers start with {@link #startDict()} or {@link #startArray()} and end with {@link #endDict()} or {@link #endArray()} respectively. Each
+ * value in a dict is preceded by a call to {@link #key(String)}.
+ * </p>
+ */
+public interface PListHandler
+{
+	public void startDocument() throws IOException;
+
+
+	public void endDocument() throws IOException;
+
+
+	public void startDict() throws IOException;
+
+
+	public void key(String key) throws IOException;
+
+
+	public void endDict() throws IOException;
+
+
+	public void startArray() throws IOException;
+
+
+	public void endArray() throws IOException;
+
+
+	public void string(String value) throws IOException;
+
+
+	public void integer(long value) throws IOException;
+
+
+	public void real(double value) throws IOException;
+
+
+	public void bool(boolean value) throws IOException;
+
+
+	public void data(byte[] value) throws IOException;
+
+
+	public void date(Date value) throws IOException;
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+import org.xmlpull.v1.XmlPullParserException;
+
+
+/**
+ * Converts XML plists to JSON and vice versa in a single streaming pass, without building a {@link PList} tree.
+ * <p>
+ * The mapping is:
+ * </p>
+ * <table>
+ * <tr>
+ * <th>plist</th>
+ * <th>JSON</th>
+ * </tr>
+ * <tr>
+ * <td>dict</td>
+ * <td>object</td>
+ * </tr>
+ * <tr>
+ * <td>array</td>
+ * <td>array</td>
+ * </tr>
+ * <tr>
+ * <td>string</td>
+ * <td>string</td>
+ * </tr>
+ * <tr>
+ * <td>integer</td>
+ * <td>number without fraction and exponent</td>
+ * </tr>
+ * <tr>
+ * <td>real</td>
+ * <td>number with fraction or exponent</td>
+ * </tr>
+ * <tr>
+ * <td>true, false</td>
+ * <td>true, false</td>
+ * </tr>
+ * <tr>
+ * <td>data</td>
+ * <td>base64 string</td>
+ * </tr>
+ * <tr>
+ * <td>date</td>
+ * <td>ISO 8601 string, e.g. <code>"2014-04-01T12:00:00Z"</code></td>
+ * </tr>
+ * </table>
+ * <p>
+ * Since JSON has no data and date types, data and dates become strings when converting JSON back to a plist. <code>null</code> values in JSON are dropped.
+ * </p>
+ */
+public final class PListJsonTranscoder
+{
+
+	private PListJsonTranscoder()
+	{
+	}
+
+
+	/**
+	 * Convert an XML plist to JSON.
+	 * <p>
+	 * <strong>Note:</strong> neither the reader nor the writer is closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param in
+	 *            The {@link Reader} to read the plist from.
+	 * @param out
+	 *            The {@link Writer} to write the JSON text to.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce when reading the plist.
+	 * @return <code>false</code> if there was no plist in the input, <code>true</code> otherwise.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 *             if the input is not a valid XML plist.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 */
+	public static boolean plistToJson(Reader in, Writer out, PListLimits limits) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		return new XmlPListEventReader(in, limits).read(new JsonPListWriter(out));
+	}
+
+
+	/**
+	 * Convert an XML plist to JSON.
+	 * 
+	 * @see #plistToJson(Reader, Writer, PListLimits)
+	 */
+	public static boolean plistToJson(Reader in, Writer out) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		return plistToJson(in, out, PListLimits.UNLIMITED);
+	}
+
+
+	/**
+	 * Convert a JSON document to an XML plist.
+	 * <p>
+	 * <strong>Note:</strong> neither the reader nor the writer is closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param in
+	 *            The {@link Reader} to read the JSON text from.
+	 * @param out
+	 *            The {@link Writer} to write the plist to.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce when reading the JSON document.
+	 * @return <code>false</code> if there was nothing but white space in the input, <code>true</code> otherwise.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 * @throws PListFormatException
+	 *             if the input is not valid JSON.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 */
+	public static boolean jsonToPList(Reader in, Writer out, PListLimits limits) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		return new JsonPListEventReader(in, limits).read(new XmlPListWriter(out));
+	}
+
+
+	/**
+	 * Convert a JSON document to an XML plist.
+	 * 
+	 * @see #jsonToPList(Reader, Writer, PListLimits)
+	 */
+	public static boolean jsonToPList(Reader in, Writer out) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		return jsonToPList(in, out, PListLimits.UNLIMITED);
+	}
+}
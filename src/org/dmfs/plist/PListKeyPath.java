@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Helpers for key paths. A key path is a list of dict keys and array indices separated by <code>/</code>, e.g. <code>Tracks/1234/Name</code> or
+ * <code>Playlists/0/Name</code>. A <code>/</code> or <code>\</code> that's part of a key must be escaped with a <code>\</code>. The empty path refers
+ * to the starting object itself.
+ */
+final class PListKeyPath
+{
+	private final static char SEPARATOR = '/';
+	private final static char ESCAPE = '\\';
+
+	private final static String[] EMPTY = new String[0];
+
+
+	private PListKeyPath()
+	{
+	}
+
+
+	/**
+	 * Split the given key path into its segments.
+	 * 
+	 * @param path
+	 *            The key path.
+	 * @return The unescaped segments.
+	 * @throws IllegalArgumentException
+	 *             if the path ends with an incomplete escape sequence.
+	 */
+	static String[] split(String path)
+	{
+		int len = path.length();
+		if (len == 0)
+		{
+			return EMPTY;
+		}
+
+		List<String> result = new ArrayList<String>(8);
+		StringBuilder segment = new StringBuilder(32);
+		for (int i = 0; i < len; ++i)
+		{
+			char c = path.charAt(i);
+			if (c == ESCAPE)
+			{
+				if (++i == len)
+				{
+					throw new IllegalArgumentException("incomplete escape sequence in key path " + path);
+				}
+				segment.append(path.charAt(i));
+			}
+			else if (c == SEPARATOR)
+			{
+				result.add(segment.toString());
+				segment.setLength(0);
+			}
+			else
+			{
+				segment.append(c);
+			}
+		}
+		result.add(segment.toString());
+		return result.toArray(new String[result.size()]);
+	}
+
+
+	/**
+	 * Join the given segments into a key path, the reverse of {@link #split(String)}.
+	 */
+	static String join(String[] segments)
+	{
+		StringBuilder result = new StringBuilder(segments.length * 16);
+		for (int i = 0; i < segments.length; ++i)
+		{
+			if (i > 0)
+			{
+				result.append(SEPARATOR);
+			}
+			result.append(escape(segments[i]));
+		}
+		return result.toString();
+	}
+
+
+	/**
+	 * Escape a single key, so it can be used as a segment of a key path.
+	 */
+	static String escape(String key)
+	{
+		if (key.indexOf(SEPARATOR) < 0 && key.indexOf(ESCAPE) < 0)
+		{
+			return key;
+		}
+		StringBuilder result = new StringBuilder(key.length() + 8);
+		for (int i = 0, len = key.length(); i < len; ++i)
+		{
+			char c = key.charAt(i);
+			if (c == SEPARATOR || c == ESCAPE)
+			{
+				result.append(ESCAPE);
+			}
+			result.append(c);
+		}
+		return result.toString();
+	}
+
+
+	/**
+	 * Returns the array index the given segment represents.
+	 * 
+	 * @return The index or <code>-1</code> if the segment is not a non-negative decimal integer.
+	 */
+	static int index(String segment)
+	{
+		int len = segment.length();
+		if (len == 0 || len > 10)
+		{
+			return -1;
+		}
+		long result = 0;
+		for (int i = 0; i < len; ++i)
+		{
+			char c = segment.charAt(i);
+			if (c < '0' || c > '9')
+			{
+				return -1;
+			}
+			result = result * 10 + c - '0';
+		}
+		return result > Integer.MAX_VALUE ? -1 : (int) result;
+	}
+}
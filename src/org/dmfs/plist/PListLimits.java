@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+/**
+ * Resource limits for parsing plists from untrusted sources. The limits are checked while the document is being parsed, so a parser fails with a
+ * {@link PListLimitExceededException} as soon as a budget is exceeded and before the offending element is added to the tree.
+ * <p>
+ * Instances are immutable, use the <code>with...</code> methods to derive modified limits, e.g.:
+ * </p>
+ * 
+ * <pre>
+ * PListLimits limits = PListLimits.DEFAULT.withMaxDepth(16).withMaxNodes(10000);
+ * </pre>
+ */
+public final class PListLimits
+{
+	/**
+	 * No limits at all. This is what the parser uses if no limits have been specified.
+	 */
+	public final static PListLimits UNLIMITED = new PListLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE,
+		Long.MAX_VALUE);
+
+	/**
+	 * Reasonable limits for documents from untrusted sources.
+	 */
+	public final static PListLimits DEFAULT = new PListLimits(64, 1000000, 1024 * 1024, 16 * 1024 * 1024, 100000, 64 * 1024 * 1024);
+
+	/**
+	 * An upper bound of the bytes a single value takes in a binary plist, i.e. the marker, the largest payload that's not a string, the offset table entry
+	 * and a key and a value reference.
+	 */
+	private final static int MAX_BINARY_NODE_SIZE = 64;
+
+	private final int mMaxDepth;
+	private final int mMaxNodes;
+	private final int mMaxStringLength;
+	private final long mMaxTotalStringLength;
+	private final int mMaxContainerSize;
+	private final long mMaxDocumentSize;
+
+
+	/**
+	 * Create a new set of limits. The maximum size of a binary document is derived from <code>maxNodes</code> and <code>maxTotalStringLength</code>.
+	 * 
+	 * @param maxDepth
+	 *            The maximum nesting depth of arrays and dicts.
+	 * @param maxNodes
+	 *            The maximum number of values in the entire document.
+	 * @param maxStringLength
+	 *            The maximum number of characters of a single string, key or data element.
+	 * @param maxTotalStringLength
+	 *            The maximum number of characters of all strings, keys and data elements in the document.
+	 * @param maxContainerSize
+	 *            The maximum number of elements in a single array or entries in a single dict.
+	 */
+	public PListLimits(int maxDepth, int maxNodes, int maxStringLength, long maxTotalStringLength, int maxContainerSize)
+	{
+		this(maxDepth, maxNodes, maxStringLength, maxTotalStringLength, maxContainerSize, maxDocumentSize(maxNodes, maxTotalStringLength));
+	}
+
+
+	/**
+	 * Create a new set of limits.
+	 * 
+	 * @param maxDepth
+	 *            The maximum nesting depth of arrays and dicts.
+	 * @param maxNodes
+	 *            The maximum number of values in the entire document.
+	 * @param maxStringLength
+	 *            The maximum number of characters of a single string, key or data element.
+	 * @param maxTotalStringLength
+	 *            The maximum number of characters of all strings, keys and data elements in the document.
+	 * @param maxContainerSize
+	 *            The maximum number of elements in a single array or entries in a single dict.
+	 * @param maxDocumentSize
+	 *            The maximum number of bytes of a binary plist that has to be read into memory, after decompression.
+	 */
+	public PListLimits(int maxDepth, int maxNodes, int maxStringLength, long maxTotalStringLength, int maxContainerSize, long maxDocumentSize)
+	{
+		if (maxDepth < 1 || maxNodes < 1 || maxStringLength < 0 || maxTotalStringLength < 0 || maxContainerSize < 0 || maxDocumentSize < 0)
+		{
+			throw new IllegalArgumentException("invalid plist limits");
+		}
+		mMaxDepth = maxDepth;
+		mMaxNodes = maxNodes;
+		mMaxStringLength = maxStringLength;
+		mMaxTotalStringLength = maxTotalStringLength;
+		mMaxContainerSize = maxContainerSize;
+		mMaxDocumentSize = maxDocumentSize;
+	}
+
+
+	/**
+	 * Returns the size of the largest binary plist that can satisfy the given limits. Strings take at most two bytes per character.
+	 */
+	private static long maxDocumentSize(int maxNodes, long maxTotalStringLength)
+	{
+		if (maxTotalStringLength > (Long.MAX_VALUE - (long) MAX_BINARY_NODE_SIZE * Integer.MAX_VALUE) / 2)
+		{
+			return Long.MAX_VALUE;
+		}
+		return (maxNodes + 1L) * MAX_BINARY_NODE_SIZE + maxTotalStringLength * 2;
+	}
+
+
+	public int getMaxDepth()
+	{
+		return mMaxDepth;
+	}
+
+
+	public int getMaxNodes()
+	{
+		return mMaxNodes;
+	}
+
+
+	public int getMaxStringLength()
+	{
+		return mMaxStringLength;
+	}
+
+
+	public long getMaxTotalStringLength()
+	{
+		return mMaxTotalStringLength;
+	}
+
+
+	public int getMaxContainerSize()
+	{
+		return mMaxContainerSize;
+	}
+
+
+	public long getMaxDocumentSize()
+	{
+		return mMaxDocumentSize;
+	}
+
+
+	public PListLimits withMaxDepth(int maxDepth)
+	{
+		return new PListLimits(maxDepth, mMaxNodes, mMaxStringLength, mMaxTotalStringLength, mMaxContainerSize, mMaxDocumentSize);
+	}
+
+
+	public PListLimits withMaxNodes(int maxNodes)
+	{
+		return new PListLimits(mMaxDepth, maxNodes, mMaxStringLength, mMaxTotalStringLength, mMaxContainerSize, mMaxDocumentSize);
+	}
+
+
+	public PListLimits withMaxStringLength(int maxStringLength)
+	{
+		return new PListLimits(mMaxDepth, mMaxNodes, maxStringLength, mMaxTotalStringLength, mMaxContainerSize, mMaxDocumentSize);
+	}
+
+
+	public PListLimits withMaxTotalStringLength(long maxTotalStringLength)
+	{
+		return new PListLimits(mMaxDepth, mMaxNodes, mMaxStringLength, maxTotalStringLength, mMaxContainerSize, mMaxDocumentSize);
+	}
+
+
+	public PListLimits withMaxContainerSize(int maxContainerSize)
+	{
+		return new PListLimits(mMaxDepth, mMaxNodes, mMaxStringLength, mMaxTotalStringLength, maxContainerSize, mMaxDocumentSize);
+	}
+
+
+	public PListLimits withMaxDocumentSize(long maxDocumentSize)
+	{
+		return new PListLimits(mMaxDepth, mMaxNodes, mMaxStringLength, mMaxTotalStringLength, mMaxContainerSize, maxDocumentSize);
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return "limits:depth=" + mMaxDepth + ",nodes=" + mMaxNodes + ",string=" + mMaxStringLength + ",totalstring=" + mMaxTotalStringLength
+			+ ",container=" + mMaxContainerSize + ",document=" + mMaxDocumentSize;
+	}
+}
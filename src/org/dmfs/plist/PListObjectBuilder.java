@@ -75,6 +75,12 @@ public class PListObjectBuilder extends AbstractObjectBuilder<PList>
 	public <V> PList update(ElementDescriptor<PList> descriptor, PList object, ElementDescriptor<V> childDescriptor, V child, ParserContext context)
 		throws XmlObjectPullParserException
 	{
+		PListBudget budget = PListParserContext.budget(context);
+		if (budget != null)
+		{
+			budget.addNode();
+		}
+
 		if (childDescriptor == PList.DICT)
 		{
 			object.dict = (Map<String, Object>) child;
@@ -0,0 +1,515 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.dmfs.xmlobjects.serializer.SerializerException;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+import org.xmlpull.v1.XmlSerializer;
+
+
+/**
+ * Writes plists with large top level arrays or dicts on a {@link ForkJoinPool}. The elements of the top level container are split into chunks that are
+ * encoded in parallel and written to the output in order.
+ * <p>
+ * In XML each chunk is serialized into its own buffer. In binary each chunk is encoded into its own object table and the tables are merged in order, so
+ * strings, booleans and integers are still written only once. Either way the output is byte-for-byte identical to what
+ * {@link PList#write(OutputStream, PListFormat)} produces for the same plist, including the values the sequential XML serializer skips. Plists with a
+ * scalar top level value or with no more than one chunk of top level elements are written sequentially.
+ * </p>
+ * <p>
+ * The plist must not be modified while it's being written. Instances are immutable and thread-safe.
+ * </p>
+ */
+public final class PListParallelWriter
+{
+	/**
+	 * The default number of top level elements per chunk.
+	 */
+	public final static int DEFAULT_CHUNK_SIZE = 4096;
+
+	private final ForkJoinPool mPool;
+	private final int mChunkSize;
+	private final ByteBufferPool mBuffers;
+
+
+	/**
+	 * Create a writer that runs on the given pool with the default chunk size.
+	 * 
+	 * @param pool
+	 *            The {@link ForkJoinPool} to encode the chunks on, e.g. {@link ForkJoinPool#commonPool()}.
+	 */
+	public PListParallelWriter(ForkJoinPool pool)
+	{
+		this(pool, DEFAULT_CHUNK_SIZE);
+	}
+
+
+	/**
+	 * Create a writer that runs on the given pool.
+	 * 
+	 * @param pool
+	 *            The {@link ForkJoinPool} to encode the chunks on.
+	 * @param chunkSize
+	 *            The number of top level elements per chunk.
+	 */
+	public PListParallelWriter(ForkJoinPool pool, int chunkSize)
+	{
+		this(pool, chunkSize, ByteBufferPool.DEFAULT);
+	}
+
+
+	/**
+	 * Create a writer that runs on the given pool and encodes XML chunks into buffers of the given {@link ByteBufferPool}.
+	 */
+	PListParallelWriter(ForkJoinPool pool, int chunkSize, ByteBufferPool buffers)
+	{
+		if (chunkSize < 1)
+		{
+			throw new IllegalArgumentException("chunk size must be positive");
+		}
+		mPool = pool;
+		mChunkSize = chunkSize;
+		mBuffers = buffers;
+	}
+
+
+	/**
+	 * Write the given {@link PList} to the given {@link OutputStream}.
+	 * <p>
+	 * <strong>Note:</strong> the output stream is flushed, but not closed automatically, so it's up to the caller to do that.
+	 * </p>
+	 * 
+	 * @param plist
+	 *            The {@link PList} to write.
+	 * @param out
+	 *            The {@link OutputStream} to write to.
+	 * @param format
+	 *            The {@link PListFormat} to write.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 *             if no XML serializer is available.
+	 */
+	public void write(PList plist, OutputStream out, PListFormat format) throws IOException, XmlPullParserException
+	{
+		// arrays take precedence, just like in the sequential writers
+		boolean dict = plist.array == null && plist.dict != null;
+		Object[] elements = plist.array != null ? plist.array.toArray() : dict ? plist.dict.entrySet().toArray() : null;
+		if (format == PListFormat.BINARY)
+		{
+			if (elements == null || elements.length <= mChunkSize)
+			{
+				PListTreeWalker.walk(plist, new BinaryPListWriter(out));
+			}
+			else
+			{
+				writeBinary(elements, dict, out);
+			}
+		}
+		else
+		{
+			if (elements == null || elements.length <= mChunkSize)
+			{
+				try
+				{
+					plist.write(out, "UTF-8");
+				}
+				catch (SerializerException e)
+				{
+					throw new IOException("can't serialize plist", e);
+				}
+			}
+			else
+			{
+				writeXml(plist, elements, dict, out);
+			}
+		}
+	}
+
+
+	/**
+	 * Write an XML plist that's identical to the output of {@link PList#write(OutputStream, String)} with UTF-8 encoding.
+	 */
+	private void writeXml(PList plist, final Object[] elements, final boolean dict, OutputStream out) throws IOException, XmlPullParserException
+	{
+		final XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
+		XmlSerializer serializer = factory.newSerializer();
+		serializer.setOutput(out, "UTF-8");
+		final String container = dict ? "dict" : "array";
+		// the sequential serializer doesn't declare the encoding and omits a missing version
+		serializer.startDocument(null, null);
+		serializer.startTag(null, "plist");
+		if (plist.mVersion != null)
+		{
+			serializer.attribute(null, "version", plist.mVersion);
+		}
+		serializer.startTag(null, container);
+		// complete the start tag, the chunks are written directly to the output
+		serializer.flush();
+
+		final WritableByteChannel channel = Channels.newChannel(out);
+		new Chunks<ByteBufferOutputStream>(elements.length)
+		{
+			@Override
+			ByteBufferOutputStream encode(int from, int to) throws IOException, XmlPullParserException
+			{
+				ByteBufferOutputStream buffer = new ByteBufferOutputStream(mBuffers);
+				boolean encoded = false;
+				try
+				{
+					XmlSerializer serializer = factory.newSerializer();
+					serializer.setOutput(buffer, "UTF-8");
+					XmlPListWriter writer = new XmlPListWriter(serializer, null);
+					for (int i = from; i < to; ++i)
+					{
+						if (dict)
+						{
+							xmlDictEntry((Entry<?, ?>) elements[i], writer);
+						}
+						else
+						{
+							xmlArrayElement(elements[i], writer);
+						}
+					}
+					serializer.flush();
+					encoded = true;
+					return buffer;
+				}
+				finally
+				{
+					if (!encoded)
+					{
+						buffer.release();
+					}
+				}
+			}
+
+
+			@Override
+			void discard(ByteBufferOutputStream chunk)
+			{
+				chunk.release();
+			}
+
+
+			@Override
+			void append(ByteBufferOutputStream chunk) throws IOException
+			{
+				try
+				{
+					chunk.writeTo(channel);
+				}
+				finally
+				{
+					chunk.release();
+				}
+			}
+		}.run();
+
+		serializer.endTag(null, container);
+		serializer.endTag(null, "plist");
+		serializer.endDocument();
+		serializer.flush();
+	}
+
+
+	private void writeBinary(final Object[] elements, final boolean dict, OutputStream out) throws IOException
+	{
+		final BinaryPListWriter writer = new BinaryPListWriter(out);
+		writer.startDocument();
+		if (dict)
+		{
+			writer.startDict();
+		}
+		else
+		{
+			writer.startArray();
+		}
+
+		new Chunks<BinaryPListWriter>(elements.length)
+		{
+			@Override
+			BinaryPListWriter encode(int from, int to) throws IOException
+			{
+				BinaryPListWriter fragment = new BinaryPListWriter();
+				walk(elements, from, to, dict, fragment);
+				return fragment;
+			}
+
+
+			@Override
+			void append(BinaryPListWriter chunk)
+			{
+				writer.append(chunk);
+			}
+		}.run();
+
+		if (dict)
+		{
+			writer.endDict();
+		}
+		else
+		{
+			writer.endArray();
+		}
+		writer.endDocument();
+	}
+
+
+	private static void walk(Object[] elements, int from, int to, boolean dict, PListHandler handler) throws IOException
+	{
+		for (int i = from; i < to; ++i)
+		{
+			if (dict)
+			{
+				PListTreeWalker.dictEntry((Entry<?, ?>) elements[i], handler);
+			}
+			else
+			{
+				PListTreeWalker.arrayElement(elements[i], handler);
+			}
+		}
+	}
+
+
+	/**
+	 * Write a dict entry the way the sequential XML serializer does: the key is always written, the value only if it's of a type the serializer supports.
+	 */
+	private static void xmlDictEntry(Entry<?, ?> entry, XmlPListWriter writer) throws IOException
+	{
+		writer.key((String) entry.getKey());
+		Object value = entry.getValue();
+		if (value != null)
+		{
+			xmlArrayElement(value, writer);
+		}
+	}
+
+
+	/**
+	 * Write a value the way the sequential XML serializer does, values of unsupported types are skipped.
+	 */
+	private static void xmlArrayElement(Object value, XmlPListWriter writer) throws IOException
+	{
+		if (value instanceof List)
+		{
+			writer.startArray();
+			for (Object element : (List<?>) value)
+			{
+				xmlArrayElement(element, writer);
+			}
+			writer.endArray();
+		}
+		else if (value instanceof Map)
+		{
+			writer.startDict();
+			for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+			{
+				xmlDictEntry(entry, writer);
+			}
+			writer.endDict();
+		}
+		else if (value instanceof String)
+		{
+			writer.string((String) value);
+		}
+		else if (value instanceof Integer)
+		{
+			writer.integer((Integer) value);
+		}
+		else if (value instanceof Double)
+		{
+			writer.real((Double) value);
+		}
+		else if (value instanceof Boolean)
+		{
+			writer.bool((Boolean) value);
+		}
+	}
+
+
+	/**
+	 * Encodes the chunks of a container on the pool and appends them in order on the calling thread. Only a limited number of chunks is encoded ahead, so
+	 * the memory needed doesn't depend on the size of the container.
+	 * 
+	 * @param <T>
+	 *            The type of the encoded chunks.
+	 */
+	private abstract class Chunks<T>
+	{
+		private final int mElements;
+
+		/**
+		 * The chunks that have been encoded but not been taken by {@link #run()}. Also guards {@link #mAborted}.
+		 */
+		private final Set<Object> mUnclaimed = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+		/**
+		 * Set when {@link #run()} is done, chunks that are encoded afterwards are discarded right away.
+		 */
+		private boolean mAborted;
+
+
+		public Chunks(int elements)
+		{
+			mElements = elements;
+		}
+
+
+		abstract T encode(int from, int to) throws Exception;
+
+
+		/**
+		 * Append the given chunk to the output. This takes ownership of the chunk, even if it fails.
+		 */
+		abstract void append(T chunk) throws IOException;
+
+
+		/**
+		 * Release the resources of a chunk that won't be appended.
+		 */
+		void discard(T chunk)
+		{
+			// nothing to release by default
+		}
+
+
+		@SuppressWarnings("unchecked")
+		void run() throws IOException
+		{
+			int chunkSize = mChunkSize;
+			int chunks = (int) (((long) mElements + chunkSize - 1) / chunkSize);
+			int window = Math.max(2, mPool.getParallelism() * 2);
+			Queue<Future<T>> pending = new ArrayDeque<Future<T>>(window);
+			int next = 0;
+			try
+			{
+				while (next < chunks && pending.size() < window)
+				{
+					pending.add(submit(next++));
+				}
+				while (!pending.isEmpty())
+				{
+					T chunk = pending.remove().get();
+					synchronized (mUnclaimed)
+					{
+						mUnclaimed.remove(chunk);
+					}
+					if (next < chunks)
+					{
+						try
+						{
+							pending.add(submit(next++));
+						}
+						catch (RuntimeException e)
+						{
+							discard(chunk);
+							throw e;
+						}
+					}
+					append(chunk);
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while writing plist");
+			}
+			catch (ExecutionException e)
+			{
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException)
+				{
+					throw (IOException) cause;
+				}
+				if (cause instanceof RuntimeException)
+				{
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error)
+				{
+					throw (Error) cause;
+				}
+				throw new IOException("can't encode plist chunk", cause);
+			}
+			finally
+			{
+				for (Future<T> future : pending)
+				{
+					future.cancel(false);
+				}
+				// chunks that are still being encoded discard themselves, the ones that are done but have not been appended are discarded here
+				List<Object> unclaimed;
+				synchronized (mUnclaimed)
+				{
+					mAborted = true;
+					unclaimed = new ArrayList<Object>(mUnclaimed);
+					mUnclaimed.clear();
+				}
+				for (Object chunk : unclaimed)
+				{
+					discard((T) chunk);
+				}
+			}
+		}
+
+
+		private Future<T> submit(int chunk)
+		{
+			final int from = chunk * mChunkSize;
+			final int to = (int) Math.min(mElements, (long) from + mChunkSize);
+			return mPool.submit(new Callable<T>()
+			{
+				@Override
+				public T call() throws Exception
+				{
+					T chunk = encode(from, to);
+					synchronized (mUnclaimed)
+					{
+						if (!mAborted)
+						{
+							mUnclaimed.add(chunk);
+							return chunk;
+						}
+					}
+					discard(chunk);
+					return null;
+				}
+			});
+		}
+	}
+}
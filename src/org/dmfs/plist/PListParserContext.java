@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import org.dmfs.xmlobjects.pull.ParserContext;
+
+
+/**
+ * A {@link ParserContext} that carries the plist specific parser state, like the {@link PListBudget} of the current document.
+ */
+class PListParserContext extends ParserContext
+{
+	final PListBudget budget;
+
+	/**
+	 * The pool to take dicts and arrays from, may be <code>null</code>.
+	 */
+	final PListRecycler recycler;
+
+
+	PListParserContext(PListLimits limits)
+	{
+		this(limits, null);
+	}
+
+
+	PListParserContext(PListLimits limits, PListRecycler recycler)
+	{
+		budget = new PListBudget(limits);
+		this.recycler = recycler;
+	}
+
+
+	/**
+	 * Returns the {@link PListBudget} of the given context or <code>null</code> if the context is not a {@link PListParserContext}.
+	 */
+	static PListBudget budget(ParserContext context)
+	{
+		return context instanceof PListParserContext ? ((PListParserContext) context).budget : null;
+	}
+
+
+	/**
+	 * Returns the {@link PListRecycler} of the given context or <code>null</code> if the context has none.
+	 */
+	static PListRecycler recycler(ParserContext context)
+	{
+		return context instanceof PListParserContext ? ((PListParserContext) context).recycler : null;
+	}
+}
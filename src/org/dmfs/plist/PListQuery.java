@@ -0,0 +1,934 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A compiled query over a plist tree. Queries extend key paths (see {@link BinaryPListView.Node#get(String)}) with wildcards, predicates and projections:
+ * 
+ * <pre>
+ * Tracks/*[Artist == ? &amp;&amp; Total Time &gt; 180000]{Name, Total Time}
+ * </pre>
+ * <p>
+ * A segment <code>*</code> selects all values of a dict or all elements of an array. A predicate in <code>[]</code> keeps only those selected values for
+ * which it's true. Predicates compare key paths relative to the value (<code>@</code> is the value itself) with other key paths, string literals in single
+ * or double quotes, numbers, <code>true</code>, <code>false</code> or parameters (<code>?</code>) using <code>==</code>, <code>!=</code>, <code>&lt;</code>,
+ * <code>&lt;=</code>, <code>&gt;</code> and <code>&gt;=</code>, combined with <code>&amp;&amp;</code>, <code>||</code>, <code>!</code> and parentheses. A
+ * key path on its own is true if the value exists and is not <code>false</code>. A projection in <code>{}</code> at the end of the query turns every
+ * result into a dict of the given relative key paths.
+ * </p>
+ * <p>
+ * Numbers compare by value regardless of their type, strings compare lexicographically and values of different types are never equal. Characters with a
+ * special meaning (including a key that looks like a number or a boolean in a predicate) must be escaped with a <code>\</code>.
+ * </p>
+ * <p>
+ * A query is parsed once and can be run any number of times. A wildcard followed by an equality predicate on a key path is answered from a hash index
+ * when it runs on an {@link IndexedPList} with a matching index, instead of scanning all values. Instances are immutable and thread-safe.
+ * </p>
+ */
+public final class PListQuery
+{
+	private final String mQuery;
+	private final Step[] mSteps;
+	private final String[] mProjectionNames;
+	private final String[][] mProjection;
+	private final int mParameterCount;
+
+
+	private PListQuery(String query, Step[] steps, String[] projectionNames, String[][] projection, int parameterCount)
+	{
+		mQuery = query;
+		mSteps = steps;
+		mProjectionNames = projectionNames;
+		mProjection = projection;
+		mParameterCount = parameterCount;
+	}
+
+
+	/**
+	 * Compile the given query.
+	 * 
+	 * @param query
+	 *            The query.
+	 * @return A {@link PListQuery}.
+	 * @throws IllegalArgumentException
+	 *             if the query is invalid.
+	 */
+	public static PListQuery compile(String query)
+	{
+		return new Parser(query).parse();
+	}
+
+
+	/**
+	 * Run this query on the given {@link PList}.
+	 * 
+	 * @param plist
+	 *            The {@link PList} to query.
+	 * @param arguments
+	 *            The values of the parameters, in the order of their appearance in the query.
+	 * @return A {@link List} of the selected values or, if the query has a projection, of dicts with the projected values.
+	 * @throws IllegalArgumentException
+	 *             if the number of arguments doesn't match the number of parameters.
+	 */
+	public List<Object> select(PList plist, Object... arguments)
+	{
+		return select(plist.value(), null, arguments);
+	}
+
+
+	/**
+	 * Run this query on the given {@link ImmutablePList}.
+	 * 
+	 * @see #select(PList, Object...)
+	 */
+	public List<Object> select(ImmutablePList plist, Object... arguments)
+	{
+		return select(plist.getRoot(), null, arguments);
+	}
+
+
+	/**
+	 * Run this query on the given {@link IndexedPList}, using its indexes where possible.
+	 * 
+	 * @see #select(PList, Object...)
+	 */
+	public List<Object> select(IndexedPList plist, Object... arguments)
+	{
+		return select(plist.getRoot(), plist, arguments);
+	}
+
+
+	/**
+	 * Returns the number of parameters of this query.
+	 */
+	public int getParameterCount()
+	{
+		return mParameterCount;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return mQuery;
+	}
+
+
+	private List<Object> select(Object root, IndexedPList indexes, Object[] arguments)
+	{
+		if (arguments.length != mParameterCount)
+		{
+			throw new IllegalArgumentException("query takes " + mParameterCount + " arguments, got " + arguments.length);
+		}
+		List<Object> current = Collections.singletonList(root);
+		for (Step step : mSteps)
+		{
+			List<Object> next = new ArrayList<Object>();
+			for (Object node : current)
+			{
+				step.apply(node, indexes, arguments, next);
+			}
+			current = next;
+		}
+
+		String[][] projection = mProjection;
+		if (projection == null)
+		{
+			return current instanceof ArrayList ? current : new ArrayList<Object>(current);
+		}
+		List<Object> result = new ArrayList<Object>(current.size());
+		for (Object node : current)
+		{
+			Map<String, Object> row = new LinkedHashMap<String, Object>(projection.length * 2);
+			for (int i = 0; i < projection.length; ++i)
+			{
+				row.put(mProjectionNames[i], resolve(node, projection[i]));
+			}
+			result.add(row);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Returns the value at the given key path relative to the given value or <code>null</code> if there is no such value.
+	 */
+	static Object resolve(Object value, String[] path)
+	{
+		for (int i = 0; i < path.length && value != null; ++i)
+		{
+			value = child(value, path[i]);
+		}
+		return value;
+	}
+
+
+	static Object child(Object container, String segment)
+	{
+		if (container instanceof Map)
+		{
+			return ((Map<?, ?>) container).get(segment);
+		}
+		if (container instanceof List)
+		{
+			List<?> list = (List<?>) container;
+			int index = PListKeyPath.index(segment);
+			return index >= 0 && index < list.size() ? list.get(index) : null;
+		}
+		return null;
+	}
+
+
+	/**
+	 * Returns the values of a dict or the elements of an array. Any other value has no children.
+	 */
+	static Iterable<?> children(Object container)
+	{
+		if (container instanceof Map)
+		{
+			return ((Map<?, ?>) container).values();
+		}
+		if (container instanceof List)
+		{
+			return (List<?>) container;
+		}
+		return Collections.emptyList();
+	}
+
+
+	/**
+	 * Returns a canonical representation of the given value, so numbers that are equal by value are also {@link Object#equals(Object)}.
+	 */
+	static Object normalize(Object value)
+	{
+		if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+		{
+			return ((Number) value).longValue();
+		}
+		if (value instanceof Number)
+		{
+			double d = ((Number) value).doubleValue();
+			long l = (long) d;
+			// integral doubles are represented like integers
+			return l == d && l != Long.MAX_VALUE && l != Long.MIN_VALUE ? (Object) l : (Object) d;
+		}
+		return value;
+	}
+
+
+	private static boolean isTrue(Object value)
+	{
+		return value != null && !Boolean.FALSE.equals(value);
+	}
+
+
+	/**
+	 * A step of the query plan. It takes a single value and adds the values it selects to a list.
+	 */
+	private static abstract class Step
+	{
+		abstract void apply(Object node, IndexedPList indexes, Object[] arguments, List<Object> result);
+	}
+
+
+	private final static class KeyStep extends Step
+	{
+		private final String mKey;
+
+
+		KeyStep(String key)
+		{
+			mKey = key;
+		}
+
+
+		@Override
+		void apply(Object node, IndexedPList indexes, Object[] arguments, List<Object> result)
+		{
+			Object child = child(node, mKey);
+			if (child != null)
+			{
+				result.add(child);
+			}
+		}
+	}
+
+
+	private final static class WildcardStep extends Step
+	{
+		final static WildcardStep INSTANCE = new WildcardStep();
+
+
+		@Override
+		void apply(Object node, IndexedPList indexes, Object[] arguments, List<Object> result)
+		{
+			for (Object child : children(node))
+			{
+				result.add(child);
+			}
+		}
+	}
+
+
+	private final static class FilterStep extends Step
+	{
+		final Expression mPredicate;
+
+
+		FilterStep(Expression predicate)
+		{
+			mPredicate = predicate;
+		}
+
+
+		@Override
+		void apply(Object node, IndexedPList indexes, Object[] arguments, List<Object> result)
+		{
+			if (isTrue(mPredicate.evaluate(node, arguments)))
+			{
+				result.add(node);
+			}
+		}
+	}
+
+
+	/**
+	 * A wildcard followed by a predicate that requires a key path to equal a constant or a parameter. If an index exists for the container and the key path
+	 * the candidates are looked up, otherwise all children are scanned.
+	 */
+	private final static class IndexedFilterStep extends Step
+	{
+		private final String mKeyPath;
+		private final Expression mValue;
+		private final Expression mPredicate;
+
+
+		IndexedFilterStep(String keyPath, Expression value, Expression predicate)
+		{
+			mKeyPath = keyPath;
+			mValue = value;
+			mPredicate = predicate;
+		}
+
+
+		@Override
+		void apply(Object node, IndexedPList indexes, Object[] arguments, List<Object> result)
+		{
+			Map<Object, List<Object>> table = indexes == null ? null : indexes.table(node, mKeyPath);
+			Iterable<?> candidates;
+			if (table == null)
+			{
+				candidates = children(node);
+			}
+			else
+			{
+				candidates = table.get(normalize(mValue.evaluate(node, arguments)));
+				if (candidates == null)
+				{
+					return;
+				}
+			}
+			for (Object candidate : candidates)
+			{
+				if (isTrue(mPredicate.evaluate(candidate, arguments)))
+				{
+					result.add(candidate);
+				}
+			}
+		}
+	}
+
+
+	private static abstract class Expression
+	{
+		abstract Object evaluate(Object node, Object[] arguments);
+	}
+
+
+	private final static class PathExpression extends Expression
+	{
+		final String[] mPath;
+
+
+		PathExpression(String[] path)
+		{
+			mPath = path;
+		}
+
+
+		@Override
+		Object evaluate(Object node, Object[] arguments)
+		{
+			return resolve(node, mPath);
+		}
+	}
+
+
+	private final static class LiteralExpression extends Expression
+	{
+		private final Object mValue;
+
+
+		LiteralExpression(Object value)
+		{
+			mValue = value;
+		}
+
+
+		@Override
+		Object evaluate(Object node, Object[] arguments)
+		{
+			return mValue;
+		}
+	}
+
+
+	private final static class ParameterExpression extends Expression
+	{
+		private final int mIndex;
+
+
+		ParameterExpression(int index)
+		{
+			mIndex = index;
+		}
+
+
+		@Override
+		Object evaluate(Object node, Object[] arguments)
+		{
+			return arguments[mIndex];
+		}
+	}
+
+
+	private final static class NotExpression extends Expression
+	{
+		private final Expression mOperand;
+
+
+		NotExpression(Expression operand)
+		{
+			mOperand = operand;
+		}
+
+
+		@Override
+		Object evaluate(Object node, Object[] arguments)
+		{
+			return !isTrue(mOperand.evaluate(node, arguments));
+		}
+	}
+
+
+	private final static class LogicalExpression extends Expression
+	{
+		final boolean mAnd;
+		final Expression mLeft;
+		final Expression mRight;
+
+
+		LogicalExpression(boolean and, Expression left, Expression right)
+		{
+			mAnd = and;
+			mLeft = left;
+			mRight = right;
+		}
+
+
+		@Override
+		Object evaluate(Object node, Object[] arguments)
+		{
+			boolean left = isTrue(mLeft.evaluate(node, arguments));
+			if (left != mAnd)
+			{
+				// short circuit
+				return left;
+			}
+			return isTrue(mRight.evaluate(node, arguments));
+		}
+	}
+
+
+	private final static class ComparisonExpression extends Expression
+	{
+		final static int EQ = 0;
+		final static int NE = 1;
+		final static int LT = 2;
+		final static int LE = 3;
+		final static int GT = 4;
+		final static int GE = 5;
+
+		final int mOperator;
+		final Expression mLeft;
+		final Expression mRight;
+
+
+		ComparisonExpression(int operator, Expression left, Expression right)
+		{
+			mOperator = operator;
+			mLeft = left;
+			mRight = right;
+		}
+
+
+		@Override
+		Object evaluate(Object node, Object[] arguments)
+		{
+			Object left = normalize(mLeft.evaluate(node, arguments));
+			Object right = normalize(mRight.evaluate(node, arguments));
+			switch (mOperator)
+			{
+				case EQ:
+					return left != null && left.equals(right);
+				case NE:
+					return left == null ? right != null : !left.equals(right);
+				default:
+					int comparison;
+					if (left instanceof Number && right instanceof Number)
+					{
+						comparison = left instanceof Long && right instanceof Long ? Long.compare((Long) left, (Long) right) : Double.compare(
+							((Number) left).doubleValue(), ((Number) right).doubleValue());
+					}
+					else if (left instanceof String && right instanceof String)
+					{
+						comparison = ((String) left).compareTo((String) right);
+					}
+					else
+					{
+						// values of different types are not ordered
+						return false;
+					}
+					switch (mOperator)
+					{
+						case LT:
+							return comparison < 0;
+						case LE:
+							return comparison <= 0;
+						case GT:
+							return comparison > 0;
+						default:
+							return comparison >= 0;
+					}
+			}
+		}
+	}
+
+
+	/**
+	 * A recursive descent parser for queries.
+	 */
+	private final static class Parser
+	{
+		private final static char ESCAPE = '\\';
+		private final static String PATH_TERMINATORS = "/[{";
+		private final static String OPERAND_TERMINATORS = "=!<>&|()[]{},'\"?";
+		private final static String PROJECTION_TERMINATORS = ",}";
+
+		private final String mQuery;
+		private int mPos;
+		private int mParameterCount;
+
+
+		Parser(String query)
+		{
+			mQuery = query;
+		}
+
+
+		PListQuery parse()
+		{
+			List<Step> steps = new ArrayList<Step>();
+			if (!atEnd() && peek() != '{')
+			{
+				while (true)
+				{
+					String raw = scan(PATH_TERMINATORS);
+					if ("*".equals(raw))
+					{
+						steps.add(WildcardStep.INSTANCE);
+					}
+					else if (raw.length() > 0 || peek() != '[')
+					{
+						steps.add(new KeyStep(unescape(raw)));
+					}
+					while (peek() == '[')
+					{
+						++mPos;
+						Expression predicate = parseOr();
+						skipWhitespace();
+						expect(']');
+						addFilter(steps, predicate);
+					}
+					if (peek() != '/')
+					{
+						break;
+					}
+					++mPos;
+				}
+			}
+
+			String[] projectionNames = null;
+			String[][] projection = null;
+			if (peek() == '{')
+			{
+				++mPos;
+				List<String> names = new ArrayList<String>();
+				List<String[]> paths = new ArrayList<String[]>();
+				while (true)
+				{
+					String raw = scan(PROJECTION_TERMINATORS).trim();
+					if (raw.length() == 0)
+					{
+						throw error("key path expected");
+					}
+					names.add(raw);
+					paths.add(path(raw));
+					if (peek() != ',')
+					{
+						break;
+					}
+					++mPos;
+				}
+				expect('}');
+				projectionNames = names.toArray(new String[names.size()]);
+				projection = paths.toArray(new String[paths.size()][]);
+			}
+			if (!atEnd())
+			{
+				throw error("unexpected '" + peek() + "'");
+			}
+			return new PListQuery(mQuery, steps.toArray(new Step[steps.size()]), projectionNames, projection, mParameterCount);
+		}
+
+
+		/**
+		 * Add a filter to the plan. A filter that follows a wildcard and contains an indexable equality is merged with the wildcard.
+		 */
+		private void addFilter(List<Step> steps, Expression predicate)
+		{
+			int last = steps.size() - 1;
+			if (last >= 0 && steps.get(last) == WildcardStep.INSTANCE)
+			{
+				ComparisonExpression equality = indexable(predicate);
+				if (equality != null)
+				{
+					boolean pathLeft = equality.mLeft instanceof PathExpression;
+					String keyPath = PListKeyPath.join(((PathExpression) (pathLeft ? equality.mLeft : equality.mRight)).mPath);
+					steps.set(last, new IndexedFilterStep(keyPath, pathLeft ? equality.mRight : equality.mLeft, predicate));
+					return;
+				}
+			}
+			steps.add(new FilterStep(predicate));
+		}
+
+
+		/**
+		 * Returns a comparison of a key path with a constant or a parameter that must be true for the given predicate to be true or <code>null</code> if
+		 * there is none.
+		 */
+		private static ComparisonExpression indexable(Expression predicate)
+		{
+			if (predicate instanceof LogicalExpression && ((LogicalExpression) predicate).mAnd)
+			{
+				ComparisonExpression result = indexable(((LogicalExpression) predicate).mLeft);
+				return result != null ? result : indexable(((LogicalExpression) predicate).mRight);
+			}
+			if (predicate instanceof ComparisonExpression && ((ComparisonExpression) predicate).mOperator == ComparisonExpression.EQ)
+			{
+				ComparisonExpression comparison = (ComparisonExpression) predicate;
+				if (comparison.mLeft instanceof PathExpression && !(comparison.mRight instanceof PathExpression)
+					|| comparison.mRight instanceof PathExpression && !(comparison.mLeft instanceof PathExpression))
+				{
+					return comparison;
+				}
+			}
+			return null;
+		}
+
+
+		private Expression parseOr()
+		{
+			Expression result = parseAnd();
+			while (match("||"))
+			{
+				result = new LogicalExpression(false, result, parseAnd());
+			}
+			return result;
+		}
+
+
+		private Expression parseAnd()
+		{
+			Expression result = parseUnary();
+			while (match("&&"))
+			{
+				result = new LogicalExpression(true, result, parseUnary());
+			}
+			return result;
+		}
+
+
+		private Expression parseUnary()
+		{
+			skipWhitespace();
+			if (peek() == '!' && (mPos + 1 >= mQuery.length() || mQuery.charAt(mPos + 1) != '='))
+			{
+				++mPos;
+				return new NotExpression(parseUnary());
+			}
+			if (peek() == '(')
+			{
+				++mPos;
+				Expression result = parseOr();
+				skipWhitespace();
+				expect(')');
+				return result;
+			}
+
+			Expression left = parseOperand();
+			int operator;
+			if (match("=="))
+			{
+				operator = ComparisonExpression.EQ;
+			}
+			else if (match("!="))
+			{
+				operator = ComparisonExpression.NE;
+			}
+			else if (match("<="))
+			{
+				operator = ComparisonExpression.LE;
+			}
+			else if (match("<"))
+			{
+				operator = ComparisonExpression.LT;
+			}
+			else if (match(">="))
+			{
+				operator = ComparisonExpression.GE;
+			}
+			else if (match(">"))
+			{
+				operator = ComparisonExpression.GT;
+			}
+			else
+			{
+				return left;
+			}
+			return new ComparisonExpression(operator, left, parseOperand());
+		}
+
+
+		private Expression parseOperand()
+		{
+			skipWhitespace();
+			char c = peek();
+			if (c == '\'' || c == '"')
+			{
+				return new LiteralExpression(parseString(c));
+			}
+			if (c == '?')
+			{
+				++mPos;
+				return new ParameterExpression(mParameterCount++);
+			}
+
+			String raw = scan(OPERAND_TERMINATORS).trim();
+			if (raw.length() == 0)
+			{
+				throw error("operand expected");
+			}
+			if (raw.indexOf(ESCAPE) < 0)
+			{
+				if ("true".equals(raw) || "false".equals(raw))
+				{
+					return new LiteralExpression(Boolean.valueOf(raw));
+				}
+				Number number = number(raw);
+				if (number != null)
+				{
+					return new LiteralExpression(number);
+				}
+			}
+			return new PathExpression(path(raw));
+		}
+
+
+		private String parseString(char quote)
+		{
+			StringBuilder result = new StringBuilder(32);
+			++mPos;
+			while (true)
+			{
+				if (atEnd())
+				{
+					throw error("unterminated string");
+				}
+				char c = mQuery.charAt(mPos++);
+				if (c == quote)
+				{
+					return result.toString();
+				}
+				if (c == ESCAPE)
+				{
+					if (atEnd())
+					{
+						throw error("incomplete escape sequence");
+					}
+					c = mQuery.charAt(mPos++);
+				}
+				result.append(c);
+			}
+		}
+
+
+		/**
+		 * Returns the number the given token represents or <code>null</code> if it's not a number.
+		 */
+		private static Number number(String token)
+		{
+			char c = token.charAt(0);
+			if (!(c >= '0' && c <= '9') && !(token.length() > 1 && (c == '-' || c == '+' || c == '.')))
+			{
+				return null;
+			}
+			try
+			{
+				return Long.parseLong(token);
+			}
+			catch (NumberFormatException e)
+			{
+				try
+				{
+					return Double.parseDouble(token);
+				}
+				catch (NumberFormatException e2)
+				{
+					return null;
+				}
+			}
+		}
+
+
+		private String[] path(String raw)
+		{
+			try
+			{
+				return "@".equals(raw) ? new String[0] : PListKeyPath.split(raw);
+			}
+			catch (IllegalArgumentException e)
+			{
+				throw error(e.getMessage());
+			}
+		}
+
+
+		private String unescape(String raw)
+		{
+			String[] segments = path(raw);
+			return segments.length == 0 ? "" : segments[0];
+		}
+
+
+		/**
+		 * Returns the raw text up to the next unescaped terminator, including escape characters.
+		 */
+		private String scan(String terminators)
+		{
+			int start = mPos;
+			int len = mQuery.length();
+			while (mPos < len)
+			{
+				char c = mQuery.charAt(mPos);
+				if (c == ESCAPE)
+				{
+					mPos = Math.min(len, mPos + 2);
+				}
+				else if (terminators.indexOf(c) >= 0)
+				{
+					break;
+				}
+				else
+				{
+					++mPos;
+				}
+			}
+			return mQuery.substring(start, mPos);
+		}
+
+
+		private boolean match(String token)
+		{
+			skipWhitespace();
+			if (mQuery.startsWith(token, mPos))
+			{
+				mPos += token.length();
+				return true;
+			}
+			return false;
+		}
+
+
+		private void expect(char c)
+		{
+			if (peek() != c)
+			{
+				throw error("'" + c + "' expected");
+			}
+			++mPos;
+		}
+
+
+		private void skipWhitespace()
+		{
+			while (!atEnd() && Character.isWhitespace(mQuery.charAt(mPos)))
+			{
+				++mPos;
+			}
+		}
+
+
+		private boolean atEnd()
+		{
+			return mPos >= mQuery.length();
+		}
+
+
+		/**
+		 * Returns the current character or <code>0</code> at the end of the query.
+		 */
+		private char peek()
+		{
+			return atEnd() ? 0 : mQuery.charAt(mPos);
+		}
+
+
+		private IllegalArgumentException error(String message)
+		{
+			return new IllegalArgumentException(message + " at position " + mPos + " in query " + mQuery);
+		}
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dmfs.xmlobjects.pull.XmlObjectPull;
+import org.dmfs.xmlobjects.pull.XmlObjectPullParserException;
+import org.dmfs.xmlobjects.pull.XmlPath;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+
+/**
+ * A reusable XML plist reader that recycles {@link PList} trees. It keeps one {@link XmlPullParser} and one parser context for all documents, and a pool
+ * of the dicts, arrays and {@link PList}s of recycled trees. Parsing documents of the same shape over and over again allocates almost nothing but the
+ * values once the pool is warm.
+ * <p>
+ * A tree is handed back with {@link #recycle(PList)} or by passing it to {@link #read(Reader, PListLimits, PList)}. Either way, the tree and all its
+ * dicts and arrays must not be used anymore afterwards.
+ * </p>
+ * 
+ * <pre>
+ * PListReader reader = PListReader.forCurrentThread();
+ * PList plist = reader.read(in);
+ * ...
+ * reader.recycle(plist);
+ * </pre>
+ * <p>
+ * Instances are not thread-safe, use {@link #forCurrentThread()} to get a reader that's confined to the current thread.
+ * </p>
+ */
+public final class PListReader
+{
+	private final static XmlPath EMPTY_PATH = new XmlPath();
+
+	/**
+	 * The maximum number of recycled {@link PList}s to keep.
+	 */
+	private final static int MAX_POOLED = 16;
+
+	private final static ThreadLocal<PListReader> THREAD_READER = new ThreadLocal<PListReader>()
+	{
+		@Override
+		protected PListReader initialValue()
+		{
+			return new PListReader();
+		}
+	};
+
+	private final PListRecycler mRecycler = new PListRecycler();
+	private final PListParserContext mContext = new PListParserContext(PListLimits.UNLIMITED, mRecycler);
+	private final List<PList> mPLists = new ArrayList<PList>(MAX_POOLED);
+	private XmlPullParser mParser;
+
+
+	/**
+	 * Returns the {@link PListReader} of the current thread. Its pool lives as long as the thread does, so it only keeps a limited number of small
+	 * containers.
+	 */
+	public static PListReader forCurrentThread()
+	{
+		return THREAD_READER.get();
+	}
+
+
+	/**
+	 * Read a {@link PList} from the given {@link Reader}, reusing a recycled {@link PList} if there is one.
+	 * 
+	 * @param in
+	 *            The {@link Reader} to read from.
+	 * @return A {@link PList} or <code>null</code> if there was no plist in the stream.
+	 * @throws XmlPullParserException
+	 * @throws IOException
+	 * @throws XmlObjectPullParserException
+	 */
+	public PList read(Reader in) throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		return read(in, PListLimits.UNLIMITED);
+	}
+
+
+	/**
+	 * Read a {@link PList} from the given {@link Reader}, enforcing the given {@link PListLimits} and reusing a recycled {@link PList} if there is one.
+	 * 
+	 * @param in
+	 *            The {@link Reader} to read from.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @return A {@link PList} or <code>null</code> if there was no plist in the stream.
+	 * @throws XmlPullParserException
+	 * @throws IOException
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 * @throws XmlObjectPullParserException
+	 */
+	public PList read(Reader in, PListLimits limits) throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		int pooled = mPLists.size();
+		return read(in, limits, pooled == 0 ? null : mPLists.remove(pooled - 1));
+	}
+
+
+	/**
+	 * Read a {@link PList} from the given {@link Reader} into the given {@link PList}. All dicts and arrays of the given tree are recycled.
+	 * 
+	 * @param in
+	 *            The {@link Reader} to read from.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 * @param recycle
+	 *            A {@link PList} that's no longer used or <code>null</code>.
+	 * @return A {@link PList} or <code>null</code> if there was no plist in the stream.
+	 * @throws XmlPullParserException
+	 * @throws IOException
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the given limits.
+	 * @throws XmlObjectPullParserException
+	 */
+	public PList read(Reader in, PListLimits limits, PList recycle) throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		if (recycle != null)
+		{
+			mRecycler.recycle(recycle);
+		}
+		if (mParser == null)
+		{
+			mParser = XmlPullParserFactory.newInstance().newPullParser();
+		}
+		mParser.setInput(in);
+		mContext.budget.reset(limits);
+
+		XmlObjectPull op = new XmlObjectPull(mParser, mContext);
+		if (op.moveToNext(PList.PLIST, EMPTY_PATH))
+		{
+			return op.pull(PList.PLIST, recycle, EMPTY_PATH);
+		}
+		if (recycle != null)
+		{
+			recycle(recycle);
+		}
+		return null;
+	}
+
+
+	/**
+	 * Hand the given {@link PList} back to this reader. Its dicts and arrays are cleared and reused by subsequent reads.
+	 * 
+	 * @param plist
+	 *            The {@link PList} to recycle, must not be used anymore.
+	 */
+	public void recycle(PList plist)
+	{
+		mRecycler.recycle(plist);
+		if (mPLists.size() < MAX_POOLED)
+		{
+			for (PList pooled : mPLists)
+			{
+				if (pooled == plist)
+				{
+					// already recycled
+					return;
+				}
+			}
+			mPLists.add(plist);
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * A pool of the {@link HashMap}s and {@link ArrayList}s of recycled {@link PList} trees. The dict and array builders take their containers from here
+ * before allocating new ones, so parsing documents of the same shape over and over again doesn't allocate any containers once the pool is warm.
+ * <p>
+ * Only containers of exactly the types the builders create are pooled, everything else is left to the garbage collector. Containers are pooled at most
+ * once, even if they occur more than once in a tree. Pools usually live as long as their thread, so both the number of pooled containers and the size of
+ * the containers that are pooled are limited. Instances are not thread-safe.
+ * </p>
+ */
+final class PListRecycler
+{
+	/**
+	 * The maximum number of maps and lists to keep, each.
+	 */
+	private final static int MAX_POOLED = 1024;
+
+	/**
+	 * The maximum number of elements a container may have to be pooled. Cleared containers keep their capacity, so pooling large ones would retain a lot
+	 * of memory.
+	 */
+	private final static int MAX_POOLED_SIZE = 256;
+
+	private final List<HashMap<String, Object>> mMaps = new ArrayList<HashMap<String, Object>>(64);
+	private final List<ArrayList<Object>> mLists = new ArrayList<ArrayList<Object>>(64);
+
+	/**
+	 * The containers that have been visited by the current {@link #recycle(PList)} call.
+	 */
+	private final Set<Object> mVisited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+
+	/**
+	 * Take all containers of the given {@link PList} and clear it.
+	 */
+	void recycle(PList plist)
+	{
+		try
+		{
+			recycleValue(plist.dict);
+			recycleValue(plist.array);
+		}
+		finally
+		{
+			mVisited.clear();
+		}
+		plist.dict = null;
+		plist.array = null;
+		plist.recycle();
+	}
+
+
+	/**
+	 * Returns an empty {@link HashMap} from the pool or <code>null</code> if the pool is empty.
+	 */
+	HashMap<String, Object> obtainMap()
+	{
+		int size = mMaps.size();
+		return size == 0 ? null : mMaps.remove(size - 1);
+	}
+
+
+	/**
+	 * Returns an empty {@link ArrayList} from the pool or <code>null</code> if the pool is empty.
+	 */
+	ArrayList<Object> obtainList()
+	{
+		int size = mLists.size();
+		return size == 0 ? null : mLists.remove(size - 1);
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private void recycleValue(Object value)
+	{
+		if ((value instanceof Map || value instanceof List) && !mVisited.add(value))
+		{
+			// shared or self-referencing container, it has already been taken care of
+			return;
+		}
+		if (value instanceof Map)
+		{
+			Map<String, ?> map = (Map<String, ?>) value;
+			for (Object element : map.values())
+			{
+				recycleValue(element);
+			}
+			if (map.getClass() == HashMap.class && map.size() <= MAX_POOLED_SIZE && mMaps.size() < MAX_POOLED)
+			{
+				map.clear();
+				mMaps.add((HashMap<String, Object>) map);
+			}
+		}
+		else if (value instanceof List)
+		{
+			List<?> list = (List<?>) value;
+			for (Object element : list)
+			{
+				recycleValue(element);
+			}
+			if (list.getClass() == ArrayList.class && list.size() <= MAX_POOLED_SIZE && mLists.size() < MAX_POOLED)
+			{
+				list.clear();
+				mLists.add((ArrayList<Object>) list);
+			}
+		}
+	}
+}
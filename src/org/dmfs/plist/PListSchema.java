@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A compiled description of the expected shape of a plist. Parsing with a schema keeps only the declared dict keys and skips all other values without
+ * decoding them. Values are type checked as soon as they are read and declared keys are stored in the fixed slots of a {@link SchemaDict}.
+ * 
+ * <pre>
+ * PListSchema schema = PListSchema.dict()
+ * 	.required(&quot;Name&quot;, PListSchema.STRING)
+ * 	.optional(&quot;Port&quot;, PListSchema.INTEGER)
+ * 	.optional(&quot;Tags&quot;, PListSchema.arrayOf(PListSchema.STRING))
+ * 	.build();
+ * PList plist = PList.read(reader, schema, PListLimits.DEFAULT);
+ * </pre>
+ * <p>
+ * Instances are immutable and thread-safe.
+ * </p>
+ */
+public final class PListSchema
+{
+	/**
+	 * The value types of a schema.
+	 */
+	public enum Type
+	{
+		STRING("string"), INTEGER("integer"), REAL("real"), BOOLEAN("boolean"), DATA("data"), DATE("date"), ARRAY("array"), DICT("dict"), ANY("any value");
+
+		private final String mName;
+
+
+		private Type(String name)
+		{
+			mName = name;
+		}
+
+
+		@Override
+		public String toString()
+		{
+			return mName;
+		}
+	}
+
+	public final static PListSchema STRING = new PListSchema(Type.STRING);
+	public final static PListSchema INTEGER = new PListSchema(Type.INTEGER);
+	public final static PListSchema REAL = new PListSchema(Type.REAL);
+	public final static PListSchema BOOLEAN = new PListSchema(Type.BOOLEAN);
+
+	/**
+	 * Data is stored as a base64 string, just like {@link PList} does.
+	 */
+	public final static PListSchema DATA = new PListSchema(Type.DATA);
+
+	/**
+	 * Dates are stored as ISO 8601 strings, just like {@link PList} does.
+	 */
+	public final static PListSchema DATE = new PListSchema(Type.DATE);
+
+	/**
+	 * Accepts any value, containers are read into {@link java.util.HashMap}s and {@link java.util.ArrayList}s without any filtering.
+	 */
+	public final static PListSchema ANY = new PListSchema(Type.ANY);
+
+	private final Type mType;
+	private final PListSchema mElement;
+	private final String[] mKeys;
+	private final PListSchema[] mValues;
+	private final boolean[] mRequired;
+	private final Map<String, Integer> mSlots;
+
+
+	private PListSchema(Type type)
+	{
+		this(type, null, null, null, null);
+	}
+
+
+	private PListSchema(Type type, PListSchema element, String[] keys, PListSchema[] values, boolean[] required)
+	{
+		mType = type;
+		mElement = element;
+		mKeys = keys;
+		mValues = values;
+		mRequired = required;
+		if (keys != null)
+		{
+			mSlots = new HashMap<String, Integer>(keys.length * 4 / 3 + 1);
+			for (int i = 0; i < keys.length; ++i)
+			{
+				mSlots.put(keys[i], i);
+			}
+		}
+		else
+		{
+			mSlots = null;
+		}
+	}
+
+
+	/**
+	 * Returns a schema for arrays of elements of the given schema.
+	 * 
+	 * @param element
+	 *            The {@link PListSchema} of the array elements.
+	 * @return A {@link PListSchema}.
+	 */
+	public static PListSchema arrayOf(PListSchema element)
+	{
+		if (element == null)
+		{
+			throw new IllegalArgumentException("element schema must not be null");
+		}
+		return new PListSchema(Type.ARRAY, element, null, null, null);
+	}
+
+
+	/**
+	 * Returns a {@link Builder} for a dict schema.
+	 */
+	public static Builder dict()
+	{
+		return new Builder();
+	}
+
+
+	public Type getType()
+	{
+		return mType;
+	}
+
+
+	/**
+	 * Returns the schema of the elements of an array schema or <code>null</code> if this is not an array schema.
+	 */
+	public PListSchema getElement()
+	{
+		return mElement;
+	}
+
+
+	/**
+	 * Returns the number of keys of a dict schema or <code>0</code> if this is not a dict schema.
+	 */
+	public int getSlotCount()
+	{
+		return mKeys == null ? 0 : mKeys.length;
+	}
+
+
+	/**
+	 * Returns the slot of the given key in a dict schema.
+	 * 
+	 * @param key
+	 *            The key.
+	 * @return The slot or <code>-1</code> if the key is not declared.
+	 */
+	public int slot(String key)
+	{
+		if (mSlots == null)
+		{
+			return -1;
+		}
+		Integer result = mSlots.get(key);
+		return result == null ? -1 : result;
+	}
+
+
+	/**
+	 * Returns the key of the given slot in a dict schema.
+	 */
+	public String getKey(int slot)
+	{
+		return mKeys[slot];
+	}
+
+
+	/**
+	 * Returns the schema of the value in the given slot of a dict schema.
+	 */
+	public PListSchema getSchema(int slot)
+	{
+		return mValues[slot];
+	}
+
+
+	/**
+	 * Returns whether the key of the given slot of a dict schema is required.
+	 */
+	public boolean isRequired(int slot)
+	{
+		return mRequired[slot];
+	}
+
+
+	@Override
+	public String toString()
+	{
+		if (mType == Type.ARRAY)
+		{
+			return "array of " + mElement;
+		}
+		return mType.toString();
+	}
+
+
+	/**
+	 * A builder for dict schemas. The slots are assigned in the order the keys are added.
+	 */
+	public static final class Builder
+	{
+		private final List<String> mKeys = new ArrayList<String>();
+		private final List<PListSchema> mValues = new ArrayList<PListSchema>();
+		private final List<Boolean> mRequired = new ArrayList<Boolean>();
+
+
+		private Builder()
+		{
+		}
+
+
+		/**
+		 * Declare a key that must be present.
+		 * 
+		 * @param key
+		 *            The key.
+		 * @param schema
+		 *            The {@link PListSchema} of the value.
+		 * @return This {@link Builder}.
+		 */
+		public Builder required(String key, PListSchema schema)
+		{
+			return add(key, schema, true);
+		}
+
+
+		/**
+		 * Declare a key that may be missing.
+		 * 
+		 * @param key
+		 *            The key.
+		 * @param schema
+		 *            The {@link PListSchema} of the value.
+		 * @return This {@link Builder}.
+		 */
+		public Builder optional(String key, PListSchema schema)
+		{
+			return add(key, schema, false);
+		}
+
+
+		/**
+		 * Returns the compiled dict schema.
+		 */
+		public PListSchema build()
+		{
+			int count = mKeys.size();
+			boolean[] required = new boolean[count];
+			for (int i = 0; i < count; ++i)
+			{
+				required[i] = mRequired.get(i);
+			}
+			return new PListSchema(Type.DICT, null, mKeys.toArray(new String[count]), mValues.toArray(new PListSchema[count]), required);
+		}
+
+
+		private Builder add(String key, PListSchema schema, boolean required)
+		{
+			if (key == null || schema == null)
+			{
+				throw new IllegalArgumentException("key and schema must not be null");
+			}
+			if (mKeys.contains(key))
+			{
+				throw new IllegalArgumentException("duplicate key " + key);
+			}
+			mKeys.add(key);
+			mValues.add(schema);
+			mRequired.add(required);
+			return this;
+		}
+	}
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A {@link PListHandler} that builds a {@link PList} tree according to a {@link PListSchema}. Values of undeclared dict keys are skipped by the reader,
+ * declared ones are type checked before they are stored.
+ * <p>
+ * Dicts with a dict schema are stored in {@link SchemaDict}s, values with schema {@link PListSchema#ANY} are stored just like {@link PListTreeBuilder}
+ * does.
+ * </p>
+ */
+final class PListSchemaHandler implements PListHandler, PListValueFilter
+{
+	private final PListSchema mRoot;
+	private PListSchema[] mSchemas = new PListSchema[16];
+	private Object[] mContainers = new Object[16];
+	private String[] mKeys = new String[16];
+	private int[] mSlots = new int[16];
+
+	/**
+	 * The number of values of each container that have been started so far.
+	 */
+	private int[] mCounts = new int[16];
+	private int mDepth;
+	private PList mResult;
+
+
+	PListSchemaHandler(PListSchema root)
+	{
+		mRoot = root;
+	}
+
+
+	/**
+	 * Returns the {@link PList} of the last document.
+	 */
+	PList getPList()
+	{
+		return mResult;
+	}
+
+
+	@Override
+	public boolean acceptValue()
+	{
+		return mDepth == 0 || mSchemas[mDepth - 1].getType() != PListSchema.Type.DICT || mSlots[mDepth - 1] >= 0;
+	}
+
+
+	@Override
+	public void startDocument() throws IOException
+	{
+		mResult = new PList();
+		mResult.mVersion = "1.0";
+		mDepth = 0;
+	}
+
+
+	@Override
+	public void endDocument() throws IOException
+	{
+	}
+
+
+	@Override
+	public void startDict() throws IOException
+	{
+		PListSchema schema = check(PListSchema.Type.DICT);
+		push(schema.getType() == PListSchema.Type.DICT ? new SchemaDict(schema) : new HashMap<String, Object>(16), schema);
+	}
+
+
+	@Override
+	public void key(String key) throws IOException
+	{
+		mKeys[mDepth - 1] = key;
+		mSlots[mDepth - 1] = mSchemas[mDepth - 1].slot(key);
+	}
+
+
+	@Override
+	public void endDict() throws IOException
+	{
+		Object container = mContainers[mDepth - 1];
+		if (container instanceof SchemaDict)
+		{
+			SchemaDict dict = (SchemaDict) container;
+			PListSchema schema = dict.getSchema();
+			for (int i = 0, count = schema.getSlotCount(); i < count; ++i)
+			{
+				if (schema.isRequired(i) && dict.get(i) == null)
+				{
+					throw new PListSchemaException("missing required key " + schema.getKey(i) + " in dict at " + path(mDepth - 1));
+				}
+			}
+		}
+		pop();
+	}
+
+
+	@Override
+	public void startArray() throws IOException
+	{
+		PListSchema schema = check(PListSchema.Type.ARRAY);
+		push(new ArrayList<Object>(16), schema);
+	}
+
+
+	@Override
+	public void endArray() throws IOException
+	{
+		pop();
+	}
+
+
+	@Override
+	public void string(String value) throws IOException
+	{
+		check(PListSchema.Type.STRING);
+		if (mDepth == 0)
+		{
+			mResult.string = value;
+		}
+		else
+		{
+			add(value);
+		}
+	}
+
+
+	@Override
+	public void integer(long value) throws IOException
+	{
+		check(PListSchema.Type.INTEGER);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+		{
+			throw new PListFormatException("integer " + value + " at " + path(mDepth) + " is out of range");
+		}
+		if (mDepth == 0)
+		{
+			mResult.integer = (int) value;
+		}
+		else
+		{
+			add((int) value);
+		}
+	}
+
+
+	@Override
+	public void real(double value) throws IOException
+	{
+		check(PListSchema.Type.REAL);
+		if (mDepth == 0)
+		{
+			mResult.real = value;
+		}
+		else
+		{
+			add(value);
+		}
+	}
+
+
+	@Override
+	public void bool(boolean value) throws IOException
+	{
+		check(PListSchema.Type.BOOLEAN);
+		if (mDepth == 0)
+		{
+			mResult.bool = value;
+		}
+		else
+		{
+			add(value);
+		}
+	}
+
+
+	@Override
+	public void data(byte[] value) throws IOException
+	{
+		check(PListSchema.Type.DATA);
+		String base64 = Base64.getEncoder().encodeToString(value);
+		if (mDepth == 0)
+		{
+			mResult.data = base64;
+		}
+		else
+		{
+			add(base64);
+		}
+	}
+
+
+	@Override
+	public void date(Date value) throws IOException
+	{
+		check(PListSchema.Type.DATE);
+		String iso = PListDates.format(value);
+		if (mDepth == 0)
+		{
+			mResult.string = iso;
+		}
+		else
+		{
+			add(iso);
+		}
+	}
+
+
+	/**
+	 * Check that a value of the given type is expected at the current position.
+	 * 
+	 * @return The {@link PListSchema} of the value.
+	 */
+	private PListSchema check(PListSchema.Type type) throws PListSchemaException
+	{
+		PListSchema expected;
+		if (mDepth == 0)
+		{
+			expected = mRoot;
+		}
+		else
+		{
+			++mCounts[mDepth - 1];
+			PListSchema container = mSchemas[mDepth - 1];
+			if (container.getType() == PListSchema.Type.ARRAY)
+			{
+				expected = container.getElement();
+			}
+			else if (container.getType() == PListSchema.Type.DICT)
+			{
+				expected = container.getSchema(mSlots[mDepth - 1]);
+			}
+			else
+			{
+				expected = PListSchema.ANY;
+			}
+		}
+
+		if (expected.getType() != type && expected.getType() != PListSchema.Type.ANY)
+		{
+			throw new PListSchemaException("expected " + expected + " but found " + type + " at " + path(mDepth));
+		}
+		return expected;
+	}
+
+
+	/**
+	 * Returns the key path of the current value of the given nesting level for error messages.
+	 */
+	private String path(int depth)
+	{
+		if (depth == 0)
+		{
+			return "the top level";
+		}
+		StringBuilder result = new StringBuilder(64);
+		for (int i = 0; i < depth; ++i)
+		{
+			if (i > 0)
+			{
+				result.append('/');
+			}
+			if (mContainers[i] instanceof Map)
+			{
+				result.append(PListKeyPath.escape(mKeys[i]));
+			}
+			else
+			{
+				result.append(mCounts[i] - 1);
+			}
+		}
+		return result.toString();
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private void add(Object value)
+	{
+		Object container = mContainers[mDepth - 1];
+		if (container instanceof SchemaDict)
+		{
+			((SchemaDict) container).set(mSlots[mDepth - 1], value);
+		}
+		else if (container instanceof Map)
+		{
+			((Map<String, Object>) container).put(mKeys[mDepth - 1], value);
+		}
+		else
+		{
+			((List<Object>) container).add(value);
+		}
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private void push(Object container, PListSchema schema)
+	{
+		if (mDepth == 0)
+		{
+			if (container instanceof Map)
+			{
+				mResult.dict = (Map<String, ?>) container;
+			}
+			else
+			{
+				mResult.array = (List<?>) container;
+			}
+		}
+		else
+		{
+			add(container);
+		}
+
+		if (mDepth == mContainers.length)
+		{
+			int size = mDepth * 2;
+			Object[] containers = new Object[size];
+			System.arraycopy(mContainers, 0, containers, 0, mDepth);
+			mContainers = containers;
+			PListSchema[] schemas = new PListSchema[size];
+			System.arraycopy(mSchemas, 0, schemas, 0, mDepth);
+			mSchemas = schemas;
+			String[] keys = new String[size];
+			System.arraycopy(mKeys, 0, keys, 0, mDepth);
+			mKeys = keys;
+			int[] slots = new int[size];
+			System.arraycopy(mSlots, 0, slots, 0, mDepth);
+			mSlots = slots;
+			int[] counts = new int[size];
+			System.arraycopy(mCounts, 0, counts, 0, mDepth);
+			mCounts = counts;
+		}
+		mContainers[mDepth] = container;
+		mSchemas[mDepth] = schema;
+		mSlots[mDepth] = -1;
+		mCounts[mDepth] = 0;
+		++mDepth;
+	}
+
+
+	private void pop()
+	{
+		--mDepth;
+		mContainers[mDepth] = null;
+		mSchemas[mDepth] = null;
+		mKeys[mDepth] = null;
+	}
+}
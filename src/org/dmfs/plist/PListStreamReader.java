@@ -0,0 +1,757 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.BufferedInputStream;
+import java.io.CharArrayReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+
+/**
+ * Reads a sequence of plist documents from a single {@link InputStream} or {@link ReadableByteChannel}. One parser and one set of buffers is used for all
+ * documents.
+ * <p>
+ * In {@link PListFormat#XML} mode the input contains UTF-8 encoded XML plists back to back, optionally separated by whitespace. Each document ends with its
+ * closing <code>&lt;/plist&gt;</code> tag. In {@link PListFormat#BINARY} mode each binary plist is preceded by its length in bytes as a 4 byte big endian
+ * unsigned integer.
+ * </p>
+ * 
+ * <pre>
+ * PListStreamReader reader = new PListStreamReader(in, PListFormat.XML, PListLimits.DEFAULT);
+ * try (Stream&lt;PList&gt; documents = reader.stream(64))
+ * {
+ * 	documents.forEach(...);
+ * }
+ * </pre>
+ * <p>
+ * Instances are not thread-safe. While a prefetching iterator or stream is active, documents must not be read by any other means.
+ * </p>
+ * <p>
+ * Closing a prefetching stream stops the background thread and waits for it to finish the document it's currently reading, so it blocks on a stalled
+ * input. The documents that have been read ahead but not consumed yet, including a pending error, are handed back to the reader, so reading continues
+ * exactly where the stream stopped. Closing the reader closes the input before it waits for the background thread.
+ * </p>
+ */
+public final class PListStreamReader implements Closeable, Iterable<PList>
+{
+	private final static String PLIST_END = "</plist";
+
+	/**
+	 * Marks the end of the input in the prefetch queue.
+	 */
+	private final static Object END = new Object();
+
+	/**
+	 * The maximum time in milliseconds {@link #close()} waits for the background thread.
+	 */
+	final static long CLOSE_TIMEOUT = 1000;
+
+	private final PListFormat mFormat;
+	private final PListLimits mLimits;
+	private final InputStream mIn;
+
+	/**
+	 * The {@link InputStream} this has been created with.
+	 */
+	private final InputStream mSource;
+
+	/**
+	 * XML mode state.
+	 */
+	private final Reader mReader;
+	private XmlPListEventReader mXmlReader;
+	private XmlPullParser mParser;
+	private char[] mChars;
+	private int mStart;
+	private int mEnd;
+	private boolean mEof;
+
+	/**
+	 * Binary mode state.
+	 */
+	private byte[] mBytes;
+
+	private PrefetchIterator mPrefetch;
+
+	/**
+	 * The {@link PList}s and errors that have been read ahead by a stopped {@link PrefetchIterator} and not been consumed.
+	 */
+	private final Deque<Object> mPending = new ArrayDeque<Object>();
+
+
+	/**
+	 * Create a reader for the documents in the given {@link InputStream}.
+	 * 
+	 * @param in
+	 *            The {@link InputStream} to read from.
+	 * @param format
+	 *            The {@link PListFormat} of the documents.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce for each document.
+	 */
+	public PListStreamReader(InputStream in, PListFormat format, PListLimits limits)
+	{
+		mFormat = format;
+		mLimits = limits;
+		mSource = in;
+		if (format == PListFormat.XML)
+		{
+			mIn = in;
+			mReader = new InputStreamReader(in, StandardCharsets.UTF_8);
+			mChars = new char[16 * 1024];
+		}
+		else
+		{
+			mIn = new BufferedInputStream(in, 64 * 1024);
+			mReader = null;
+			mBytes = new byte[64 * 1024];
+		}
+	}
+
+
+	/**
+	 * Create a reader for the documents in the given {@link ReadableByteChannel}.
+	 * 
+	 * @param channel
+	 *            The {@link ReadableByteChannel} to read from.
+	 * @param format
+	 *            The {@link PListFormat} of the documents.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce for each document.
+	 */
+	public PListStreamReader(ReadableByteChannel channel, PListFormat format, PListLimits limits)
+	{
+		this(Channels.newInputStream(channel), format, limits);
+	}
+
+
+	/**
+	 * Pass the next document to the given {@link PListHandler}.
+	 * 
+	 * @param handler
+	 *            The {@link PListHandler} to receive the events.
+	 * @return <code>false</code> if there are no more documents, <code>true</code> otherwise.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the input is truncated or a binary document is corrupt.
+	 * @throws XmlPullParserException
+	 *             if an XML document is malformed.
+	 * @throws PListLimitExceededException
+	 *             if a document exceeds any of the {@link PListLimits}.
+	 */
+	public boolean read(PListHandler handler) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		if (!mPending.isEmpty())
+		{
+			PListTreeWalker.walk(pending(), handler);
+			return true;
+		}
+		return readInput(handler);
+	}
+
+
+	/**
+	 * Read the next document into a {@link PList} tree.
+	 * 
+	 * @return The {@link PList} or <code>null</code> if there are no more documents.
+	 * @throws IOException
+	 * @throws PListFormatException
+	 *             if the input is truncated, a binary document is corrupt or a document contains values that can't be represented by {@link PList}.
+	 * @throws XmlPullParserException
+	 *             if an XML document is malformed.
+	 * @throws PListLimitExceededException
+	 *             if a document exceeds any of the {@link PListLimits}.
+	 */
+	public PList readPList() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		if (!mPending.isEmpty())
+		{
+			return pending();
+		}
+		return readInputPList();
+	}
+
+
+	/**
+	 * Returns an {@link Iterator} of the remaining documents. Errors are thrown as {@link UncheckedIOException}s.
+	 */
+	@Override
+	public Iterator<PList> iterator()
+	{
+		return new Iterator<PList>()
+		{
+			private PList mNext;
+
+
+			@Override
+			public boolean hasNext()
+			{
+				if (mNext == null)
+				{
+					try
+					{
+						mNext = readPList();
+					}
+					catch (Exception e)
+					{
+						throw unchecked(e);
+					}
+				}
+				return mNext != null;
+			}
+
+
+			@Override
+			public PList next()
+			{
+				if (!hasNext())
+				{
+					throw new NoSuchElementException();
+				}
+				PList result = mNext;
+				mNext = null;
+				return result;
+			}
+
+
+			@Override
+			public void remove()
+			{
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+
+	/**
+	 * Returns an {@link Iterator} of the remaining documents that are read ahead on a background thread. Errors are thrown as
+	 * {@link UncheckedIOException}s once the iterator gets to the failing document.
+	 * 
+	 * @param prefetch
+	 *            The maximum number of documents to read ahead, <code>0</code> to read on the calling thread.
+	 * @return An {@link Iterator}.
+	 */
+	public Iterator<PList> iterator(int prefetch)
+	{
+		if (prefetch < 0)
+		{
+			throw new IllegalArgumentException("prefetch must not be negative");
+		}
+		if (prefetch == 0)
+		{
+			return iterator();
+		}
+		if (mPrefetch != null)
+		{
+			throw new IllegalStateException("already prefetching");
+		}
+		mPrefetch = new PrefetchIterator(prefetch, mPending);
+		return mPrefetch;
+	}
+
+
+	/**
+	 * Returns a sequential {@link Stream} of the remaining documents.
+	 */
+	public Stream<PList> stream()
+	{
+		return stream(0);
+	}
+
+
+	/**
+	 * Returns a sequential {@link Stream} of the remaining documents, optionally read ahead on a background thread. Closing the stream stops the background
+	 * thread and hands the documents that have not been consumed back to this reader. It doesn't close the input, so the reader can be used to continue
+	 * reading afterwards.
+	 * <p>
+	 * <strong>Note:</strong> closing the stream blocks until the background thread has finished the document it's currently reading, i.e. until the rest of
+	 * that document has arrived. Use {@link #close()} to stop reading from an input that may stall.
+	 * </p>
+	 * 
+	 * @param prefetch
+	 *            The maximum number of documents to read ahead, <code>0</code> to read on the thread that consumes the stream.
+	 * @return A {@link Stream}.
+	 */
+	public Stream<PList> stream(int prefetch)
+	{
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(prefetch), Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(
+			new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					stopPrefetch();
+				}
+			});
+	}
+
+
+	/**
+	 * Close the input and stop prefetching, if active. The input is closed first, which releases a background thread that's blocked on a socket or a channel.
+	 * Inputs that keep blocking after they have been closed (like pipes) are given up after {@value #CLOSE_TIMEOUT} milliseconds, so this never hangs on a
+	 * stalled input.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			// only close the source, mReader and mIn would block until a read in progress returns
+			mSource.close();
+		}
+		finally
+		{
+			if (mPrefetch != null)
+			{
+				mPrefetch.stop(mPending, CLOSE_TIMEOUT);
+				mPrefetch = null;
+			}
+		}
+	}
+
+
+	private void stopPrefetch()
+	{
+		if (mPrefetch != null)
+		{
+			mPrefetch.stop(mPending, 0);
+			mPrefetch = null;
+		}
+	}
+
+
+	/**
+	 * Returns the next pending {@link PList} or throws the next pending error.
+	 */
+	private PList pending() throws IOException, XmlPullParserException
+	{
+		Object next = mPending.poll();
+		if (next instanceof IOException)
+		{
+			throw (IOException) next;
+		}
+		if (next instanceof XmlPullParserException)
+		{
+			throw (XmlPullParserException) next;
+		}
+		if (next instanceof Throwable)
+		{
+			throw unchecked((Throwable) next);
+		}
+		return (PList) next;
+	}
+
+
+	/**
+	 * Read the next document from the input, ignoring any pending documents. This is the only read method the background thread uses.
+	 */
+	private boolean readInput(PListHandler handler) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		return mFormat == PListFormat.XML ? readXml(handler) : readBinary(handler);
+	}
+
+
+	private PList readInputPList() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		PListTreeBuilder builder = new PListTreeBuilder();
+		return readInput(builder) ? builder.getPList() : null;
+	}
+
+
+	private boolean readXml(PListHandler handler) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		int end = findXmlEnd();
+		if (end < 0)
+		{
+			return false;
+		}
+		if (mParser == null)
+		{
+			mParser = XmlPullParserFactory.newInstance().newPullParser();
+			mXmlReader = new XmlPListEventReader(mParser, mLimits);
+		}
+		mParser.setInput(new CharArrayReader(mChars, mStart, end - mStart));
+		mStart = end;
+		if (!mXmlReader.read(handler))
+		{
+			throw new PListFormatException("document without plist value");
+		}
+		return true;
+	}
+
+
+	/**
+	 * Skip any whitespace and find the end of the next XML document in the buffer, reading more input as necessary.
+	 * 
+	 * @return The index after the end of the next document or <code>-1</code> if there are no more documents.
+	 */
+	private int findXmlEnd() throws IOException
+	{
+		char[] chars = mChars;
+		int pos = mStart;
+		int close = -1;
+		while (true)
+		{
+			while (close < 0 && pos < mEnd)
+			{
+				if (mStart == pos && Character.isWhitespace(chars[pos]))
+				{
+					mStart = ++pos;
+				}
+				else if (chars[pos] == '<' && pos + PLIST_END.length() <= mEnd && startsWith(chars, pos, PLIST_END))
+				{
+					close = pos + PLIST_END.length();
+					pos = close;
+				}
+				else if (chars[pos] == '<' && pos + PLIST_END.length() > mEnd)
+				{
+					// might be the start of the closing tag, read more input
+					break;
+				}
+				else
+				{
+					++pos;
+				}
+			}
+			while (close >= 0 && pos < mEnd)
+			{
+				if (chars[pos++] == '>')
+				{
+					return pos;
+				}
+			}
+
+			if (mEof)
+			{
+				if (mStart == mEnd)
+				{
+					return -1;
+				}
+				throw new PListFormatException("truncated plist document");
+			}
+
+			// make room and read more input
+			int offset = mStart;
+			if (offset > 0)
+			{
+				System.arraycopy(chars, offset, chars, 0, mEnd - offset);
+				mEnd -= offset;
+				mStart = 0;
+				pos -= offset;
+				if (close >= 0)
+				{
+					close -= offset;
+				}
+			}
+			if (mEnd == chars.length)
+			{
+				char[] grown = new char[chars.length * 2];
+				System.arraycopy(chars, 0, grown, 0, mEnd);
+				mChars = chars = grown;
+			}
+			int read = mReader.read(chars, mEnd, chars.length - mEnd);
+			if (read < 0)
+			{
+				mEof = true;
+			}
+			else
+			{
+				mEnd += read;
+			}
+		}
+	}
+
+
+	private boolean readBinary(PListHandler handler) throws IOException, PListLimitExceededException
+	{
+		InputStream in = mIn;
+		long length = 0;
+		for (int i = 0; i < 4; ++i)
+		{
+			int b = in.read();
+			if (b < 0)
+			{
+				if (i == 0)
+				{
+					return false;
+				}
+				throw new PListFormatException("truncated length prefix");
+			}
+			length = (length << 8) | b;
+		}
+		if (length > Integer.MAX_VALUE - 8)
+		{
+			throw new PListFormatException("document length " + length + " is too large");
+		}
+
+		// grow the buffer as the data arrives, so a corrupt length can't make us allocate a huge buffer
+		int size = (int) length;
+		int filled = 0;
+		while (filled < size)
+		{
+			if (filled == mBytes.length)
+			{
+				byte[] grown = new byte[(int) Math.min(size, mBytes.length * 2L)];
+				System.arraycopy(mBytes, 0, grown, 0, filled);
+				mBytes = grown;
+			}
+			int read = in.read(mBytes, filled, Math.min(size, mBytes.length) - filled);
+			if (read < 0)
+			{
+				throw new PListFormatException("truncated plist document");
+			}
+			filled += read;
+		}
+		new BinaryPListReader(ByteBuffer.wrap(mBytes, 0, size), mLimits).read(handler);
+		return true;
+	}
+
+
+	private static boolean startsWith(char[] chars, int pos, String prefix)
+	{
+		for (int i = 0, len = prefix.length(); i < len; ++i)
+		{
+			if (chars[pos + i] != prefix.charAt(i))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	private static RuntimeException unchecked(Throwable e)
+	{
+		if (e instanceof RuntimeException)
+		{
+			return (RuntimeException) e;
+		}
+		if (e instanceof Error)
+		{
+			throw (Error) e;
+		}
+		if (e instanceof IOException)
+		{
+			return new UncheckedIOException((IOException) e);
+		}
+		return new UncheckedIOException(new PListFormatException(e.getMessage(), e));
+	}
+
+
+	/**
+	 * An {@link Iterator} that takes the documents from a queue that's filled by a background thread.
+	 */
+	private final class PrefetchIterator implements Iterator<PList>, Runnable
+	{
+		private final BlockingQueue<Object> mQueue;
+		private final Thread mThread;
+		private Object mNext;
+
+		/**
+		 * The documents that were pending when prefetching started. They are returned before the ones in the queue.
+		 */
+		private final Deque<Object> mHead;
+
+		/**
+		 * Set by {@link #stop(Deque)}. The thread is not interrupted, because interrupting a read from an interruptible channel would close it.
+		 */
+		private volatile boolean mStopped;
+
+		/**
+		 * The end marker or error of a stopped thread.
+		 */
+		private volatile Object mLast;
+
+
+		public PrefetchIterator(int prefetch, Deque<Object> pending)
+		{
+			// the background thread never touches the pending documents, so move them over
+			mHead = new ArrayDeque<Object>(pending);
+			pending.clear();
+			mQueue = new ArrayBlockingQueue<Object>(prefetch);
+			mThread = new Thread(this, "PListStreamReader prefetch");
+			mThread.setDaemon(true);
+			mThread.start();
+		}
+
+
+		@Override
+		public void run()
+		{
+			Object last;
+			try
+			{
+				PList plist;
+				while (!mStopped && (plist = readInputPList()) != null)
+				{
+					mQueue.put(plist);
+				}
+				last = END;
+			}
+			catch (InterruptedException e)
+			{
+				// stopped
+				return;
+			}
+			catch (Throwable e)
+			{
+				last = e;
+			}
+
+			if (mStopped)
+			{
+				mLast = last;
+				return;
+			}
+			try
+			{
+				mQueue.put(last);
+			}
+			catch (InterruptedException e)
+			{
+				// stopped
+			}
+		}
+
+
+		@Override
+		public boolean hasNext()
+		{
+			if (mNext == null)
+			{
+				try
+				{
+					mNext = mHead.isEmpty() ? mQueue.take() : mHead.poll();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw new UncheckedIOException(new InterruptedIOException("interrupted while waiting for the next plist"));
+				}
+			}
+			if (mNext instanceof Throwable)
+			{
+				// keep failing
+				throw unchecked((Throwable) mNext);
+			}
+			return mNext != END;
+		}
+
+
+		@Override
+		public PList next()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			PList result = (PList) mNext;
+			mNext = null;
+			return result;
+		}
+
+
+		@Override
+		public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+
+		/**
+		 * Stop the thread, wait for it to finish and move all documents and errors that have not been consumed to the given {@link Deque}. This blocks until the
+		 * thread has finished the document it's currently reading.
+		 * 
+		 * @param timeout
+		 *            The maximum time to wait in milliseconds, <code>0</code> to wait forever. If the thread doesn't finish in time it's left behind, it won't
+		 *            block on the queue and ends as soon as its read returns.
+		 */
+		void stop(Deque<Object> pending, long timeout)
+		{
+			mStopped = true;
+			// collect locally and in order, the given deque belongs to the calling thread
+			Deque<Object> unconsumed = new ArrayDeque<Object>();
+			if (mNext != null)
+			{
+				unconsumed.add(mNext);
+			}
+			unconsumed.addAll(mHead);
+			// make room in case the thread is waiting for the queue, it checks mStopped before it puts another document
+			mQueue.drainTo(unconsumed);
+			long deadline = System.currentTimeMillis() + timeout;
+			boolean interrupted = false;
+			while (mThread.isAlive())
+			{
+				long wait = timeout == 0 ? 0 : deadline - System.currentTimeMillis();
+				if (timeout != 0 && wait <= 0)
+				{
+					break;
+				}
+				try
+				{
+					mThread.join(wait);
+				}
+				catch (InterruptedException e)
+				{
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+			if (mThread.isAlive())
+			{
+				// given up, the documents it may still add are lost, but so is the input
+				pending.addAll(unconsumed);
+				return;
+			}
+			mQueue.drainTo(unconsumed);
+			if (mLast != null)
+			{
+				unconsumed.add(mLast);
+			}
+			unconsumed.remove(END);
+			pending.addAll(unconsumed);
+		}
+	}
+}
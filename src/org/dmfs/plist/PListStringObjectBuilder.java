@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+
+import org.dmfs.xmlobjects.ElementDescriptor;
+import org.dmfs.xmlobjects.builder.AbstractObjectBuilder;
+import org.dmfs.xmlobjects.builder.StringObjectBuilder;
+import org.dmfs.xmlobjects.pull.ParserContext;
+import org.dmfs.xmlobjects.pull.XmlObjectPullParserException;
+import org.dmfs.xmlobjects.serializer.SerializerContext;
+import org.dmfs.xmlobjects.serializer.SerializerException;
+import org.dmfs.xmlobjects.serializer.XmlObjectSerializer.IXmlChildWriter;
+
+
+/**
+ * A builder for plist string, key & data elements. In contrast to {@link StringObjectBuilder} it checks the length of the string against the
+ * {@link PListLimits} of the current document before any text is appended.
+ */
+public class PListStringObjectBuilder extends AbstractObjectBuilder<String>
+{
+
+	public final static PListStringObjectBuilder INSTANCE = new PListStringObjectBuilder();
+
+	private final static String EMPTY = "";
+
+
+	private PListStringObjectBuilder()
+	{
+	}
+
+
+	@Override
+	public String get(ElementDescriptor<String> descriptor, String recycle, ParserContext context) throws XmlObjectPullParserException
+	{
+		return EMPTY;
+	}
+
+
+	@Override
+	public String update(ElementDescriptor<String> descriptor, String object, String text, ParserContext context) throws XmlObjectPullParserException
+	{
+		PListBudget budget = PListParserContext.budget(context);
+		if (budget != null)
+		{
+			budget.addString(object.length(), text.length());
+		}
+		return object.length() == 0 ? text : object.concat(text);
+	}
+
+
+	@Override
+	public void writeChildren(ElementDescriptor<String> descriptor, String object, IXmlChildWriter childWriter, SerializerContext context)
+		throws SerializerException, IOException
+	{
+		childWriter.writeText(object, context);
+	}
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A {@link PListHandler} that builds a {@link PList} tree, using the same model as {@link PList#read(java.io.Reader)}.
+ * <p>
+ * The model has no data and date types, so data is stored as a base64 string and dates are stored as ISO 8601 strings. Integers that don't fit into an
+ * {@link Integer} result in a {@link PListFormatException}.
+ * </p>
+ */
+final class PListTreeBuilder implements PListHandler
+{
+	private Object[] mContainers = new Object[16];
+	private String[] mKeys = new String[16];
+	private int mDepth;
+	private PList mResult;
+
+
+	/**
+	 * Returns the {@link PList} of the last document.
+	 */
+	PList getPList()
+	{
+		return mResult;
+	}
+
+
+	@Override
+	public void startDocument() throws IOException
+	{
+		mResult = new PList();
+		mResult.mVersion = "1.0";
+		mDepth = 0;
+	}
+
+
+	@Override
+	public void endDocument() throws IOException
+	{
+	}
+
+
+	@Override
+	public void startDict() throws IOException
+	{
+		push(new HashMap<String, Object>(16));
+	}
+
+
+	@Override
+	public void key(String key) throws IOException
+	{
+		mKeys[mDepth - 1] = key;
+	}
+
+
+	@Override
+	public void endDict() throws IOException
+	{
+		pop();
+	}
+
+
+	@Override
+	public void startArray() throws IOException
+	{
+		push(new ArrayList<Object>(16));
+	}
+
+
+	@Override
+	public void endArray() throws IOException
+	{
+		pop();
+	}
+
+
+	@Override
+	public void string(String value) throws IOException
+	{
+		if (mDepth == 0)
+		{
+			mResult.string = value;
+		}
+		else
+		{
+			add(value);
+		}
+	}
+
+
+	@Override
+	public void integer(long value) throws IOException
+	{
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+		{
+			throw new PListFormatException("integer " + value + " is out of range");
+		}
+		if (mDepth == 0)
+		{
+			mResult.integer = (int) value;
+		}
+		else
+		{
+			add((int) value);
+		}
+	}
+
+
+	@Override
+	public void real(double value) throws IOException
+	{
+		if (mDepth == 0)
+		{
+			mResult.real = value;
+		}
+		else
+		{
+			add(value);
+		}
+	}
+
+
+	@Override
+	public void bool(boolean value) throws IOException
+	{
+		if (mDepth == 0)
+		{
+			mResult.bool = value;
+		}
+		else
+		{
+			add(value);
+		}
+	}
+
+
+	@Override
+	public void data(byte[] value) throws IOException
+	{
+		String base64 = Base64.getEncoder().encodeToString(value);
+		if (mDepth == 0)
+		{
+			mResult.data = base64;
+		}
+		else
+		{
+			add(base64);
+		}
+	}
+
+
+	@Override
+	public void date(Date value) throws IOException
+	{
+		string(PListDates.format(value));
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private void add(Object value)
+	{
+		Object container = mContainers[mDepth - 1];
+		if (container instanceof Map)
+		{
+			((Map<String, Object>) container).put(mKeys[mDepth - 1], value);
+		}
+		else
+		{
+			((List<Object>) container).add(value);
+		}
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private void push(Object container)
+	{
+		if (mDepth == 0)
+		{
+			if (container instanceof Map)
+			{
+				mResult.dict = (Map<String, ?>) container;
+			}
+			else
+			{
+				mResult.array = (List<?>) container;
+			}
+		}
+		else
+		{
+			add(container);
+		}
+
+		if (mDepth == mContainers.length)
+		{
+			Object[] containers = new Object[mDepth * 2];
+			System.arraycopy(mContainers, 0, containers, 0, mDepth);
+			mContainers = containers;
+			String[] keys = new String[mDepth * 2];
+			System.arraycopy(mKeys, 0, keys, 0, mDepth);
+			mKeys = keys;
+		}
+		mContainers[mDepth++] = container;
+	}
+
+
+	private void pop()
+	{
+		mContainers[--mDepth] = null;
+		mKeys[mDepth] = null;
+	}
+}
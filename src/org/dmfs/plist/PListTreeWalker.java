@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+
+/**
+ * Passes the contents of a {@link PList} tree to a {@link PListHandler}.
+ * <p>
+ * In addition to the types {@link PList} supports, {@link Long}s (and other integral {@link Number}s), {@link Float}s, <code>byte[]</code>s and
+ * {@link Date}s are reported as integers, reals, data and dates respectively. <code>null</code> values and values of any other type are skipped, just like
+ * the XML serializer does.
+ * </p>
+ */
+final class PListTreeWalker
+{
+
+	private PListTreeWalker()
+	{
+	}
+
+
+	static void walk(PList plist, PListHandler handler) throws IOException
+	{
+		handler.startDocument();
+		if (plist.array != null)
+		{
+			value(plist.array, handler);
+		}
+		else if (plist.dict != null)
+		{
+			value(plist.dict, handler);
+		}
+		else if (plist.string != null)
+		{
+			handler.string(plist.string);
+		}
+		else if (plist.data != null)
+		{
+			try
+			{
+				handler.data(Base64.getMimeDecoder().decode(plist.data));
+			}
+			catch (IllegalArgumentException e)
+			{
+				throw new PListFormatException("invalid base64 data", e);
+			}
+		}
+		else if (plist.integer != null)
+		{
+			handler.integer(plist.integer);
+		}
+		else if (plist.real != null)
+		{
+			handler.real(plist.real);
+		}
+		else if (plist.bool != null)
+		{
+			handler.bool(plist.bool);
+		}
+		handler.endDocument();
+	}
+
+
+	/**
+	 * Returns whether the given value is of a type that {@link #value(Object, PListHandler)} supports.
+	 */
+	static boolean isSupported(Object value)
+	{
+		return value instanceof Map || value instanceof List || value instanceof String || value instanceof Number || value instanceof Boolean
+			|| value instanceof byte[] || value instanceof Date;
+	}
+
+
+	/**
+	 * Pass the given dict entry to the given {@link PListHandler}, unless it has no key or a value of an unsupported type.
+	 */
+	static void dictEntry(Entry<?, ?> entry, PListHandler handler) throws IOException
+	{
+		Object element = entry.getValue();
+		if (entry.getKey() != null && isSupported(element))
+		{
+			handler.key(entry.getKey().toString());
+			value(element, handler);
+		}
+	}
+
+
+	/**
+	 * Pass the given array element to the given {@link PListHandler}, unless it's of an unsupported type.
+	 */
+	static void arrayElement(Object element, PListHandler handler) throws IOException
+	{
+		if (isSupported(element))
+		{
+			value(element, handler);
+		}
+	}
+
+
+	static void value(Object value, PListHandler handler) throws IOException
+	{
+		if (value instanceof Map)
+		{
+			handler.startDict();
+			for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+			{
+				dictEntry(entry, handler);
+			}
+			handler.endDict();
+		}
+		else if (value instanceof List)
+		{
+			handler.startArray();
+			for (Object element : (List<?>) value)
+			{
+				arrayElement(element, handler);
+			}
+			handler.endArray();
+		}
+		else if (value instanceof String)
+		{
+			handler.string((String) value);
+		}
+		else if (value instanceof Double || value instanceof Float)
+		{
+			handler.real(((Number) value).doubleValue());
+		}
+		else if (value instanceof Number)
+		{
+			handler.integer(((Number) value).longValue());
+		}
+		else if (value instanceof Boolean)
+		{
+			handler.bool((Boolean) value);
+		}
+		else if (value instanceof byte[])
+		{
+			handler.data((byte[]) value);
+		}
+		else if (value instanceof Date)
+		{
+			handler.date((Date) value);
+		}
+	}
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+/**
+ * Implemented by {@link PListHandler}s that want to skip values. The event readers ask the handler before each value in a dict or array and skip the
+ * entire value without decoding it if the handler doesn't accept it. No events are sent for skipped values.
+ */
+interface PListValueFilter
+{
+	/**
+	 * Called before a value in a dict (after its key) or an array is read.
+	 * 
+	 * @return <code>true</code> to receive the value, <code>false</code> to skip it.
+	 */
+	public boolean acceptValue();
+}
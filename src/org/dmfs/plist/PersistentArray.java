@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+
+/**
+ * An immutable array, implemented as a trie with a branching factor of 32. {@link #with(int, Object)} and {@link #append(Object)} return a new array that
+ * shares everything but the path to the modified element with this one, so updates take O(log n) time and space.
+ * <p>
+ * This implements {@link List}, so it can be used wherever a {@link PList} array is expected, but all mutators of {@link List} throw an
+ * {@link UnsupportedOperationException}. Instances are thread-safe.
+ * </p>
+ */
+public final class PersistentArray extends AbstractList<Object> implements RandomAccess
+{
+	private final static int BITS = 5;
+	private final static int WIDTH = 1 << BITS;
+	private final static int MASK = WIDTH - 1;
+
+	/**
+	 * The empty array.
+	 */
+	public final static PersistentArray EMPTY = new PersistentArray(new Object[0], 0, 0);
+
+	/**
+	 * The nodes of the trie. Inner nodes contain child nodes, the nodes at level 0 contain the elements. Nodes are only as long as needed, so only the
+	 * nodes on the path to the last element may have less than 32 slots.
+	 */
+	private final Object[] mRoot;
+	private final int mShift;
+	private final int mSize;
+
+
+	private PersistentArray(Object[] root, int shift, int size)
+	{
+		mRoot = root;
+		mShift = shift;
+		mSize = size;
+	}
+
+
+	/**
+	 * Create an array containing the elements of the given {@link List}. The trie is built bottom up, which takes linear time.
+	 * 
+	 * @param elements
+	 *            The elements, none of them must be <code>null</code>.
+	 * @return A {@link PersistentArray}.
+	 */
+	public static PersistentArray of(List<?> elements)
+	{
+		if (elements instanceof PersistentArray)
+		{
+			return (PersistentArray) elements;
+		}
+		int size = elements.size();
+		if (size == 0)
+		{
+			return EMPTY;
+		}
+
+		Object[] level = elements.toArray();
+		for (Object element : level)
+		{
+			if (element == null)
+			{
+				throw new NullPointerException("arrays can't contain null elements");
+			}
+		}
+		int shift = 0;
+		while (level.length > WIDTH)
+		{
+			Object[] parents = new Object[(level.length + MASK) >>> BITS];
+			for (int i = 0; i < parents.length; ++i)
+			{
+				Object[] node = new Object[Math.min(WIDTH, level.length - i * WIDTH)];
+				System.arraycopy(level, i * WIDTH, node, 0, node.length);
+				parents[i] = node;
+			}
+			level = parents;
+			shift += BITS;
+		}
+		return new PersistentArray(level, shift, size);
+	}
+
+
+	@Override
+	public Object get(int index)
+	{
+		if (index < 0 || index >= mSize)
+		{
+			throw new IndexOutOfBoundsException("index " + index + " out of bounds, size is " + mSize);
+		}
+		Object[] node = mRoot;
+		for (int shift = mShift; shift > 0; shift -= BITS)
+		{
+			node = (Object[]) node[(index >>> shift) & MASK];
+		}
+		return node[index & MASK];
+	}
+
+
+	@Override
+	public int size()
+	{
+		return mSize;
+	}
+
+
+	/**
+	 * Returns an array with the element at the given position replaced.
+	 * 
+	 * @param index
+	 *            The position of the element to replace.
+	 * @param value
+	 *            The new element, must not be <code>null</code>.
+	 * @return A new {@link PersistentArray} or this instance if it already contains the given value at the given position.
+	 */
+	public PersistentArray with(int index, Object value)
+	{
+		if (value == null)
+		{
+			throw new NullPointerException("arrays can't contain null elements");
+		}
+		if (get(index) == value)
+		{
+			return this;
+		}
+		return new PersistentArray(replace(mRoot, mShift, index, value), mShift, mSize);
+	}
+
+
+	/**
+	 * Returns an array with the given element appended.
+	 * 
+	 * @param value
+	 *            The new element, must not be <code>null</code>.
+	 * @return A new {@link PersistentArray}.
+	 */
+	public PersistentArray append(Object value)
+	{
+		if (value == null)
+		{
+			throw new NullPointerException("arrays can't contain null elements");
+		}
+		if (mSize == 1 << (mShift + BITS))
+		{
+			// the trie is full, add another level
+			return new PersistentArray(new Object[] { mRoot, append(new Object[0], mShift, mSize, value) }, mShift + BITS, mSize + 1);
+		}
+		return new PersistentArray(append(mRoot, mShift, mSize, value), mShift, mSize + 1);
+	}
+
+
+	/**
+	 * Returns an array without the element at the given position. Unlike the other updates this takes linear time.
+	 * 
+	 * @param index
+	 *            The position of the element to remove.
+	 * @return A new {@link PersistentArray}.
+	 */
+	public PersistentArray without(int index)
+	{
+		if (index < 0 || index >= mSize)
+		{
+			throw new IndexOutOfBoundsException("index " + index + " out of bounds, size is " + mSize);
+		}
+		Object[] elements = toArray();
+		Object[] result = new Object[mSize - 1];
+		System.arraycopy(elements, 0, result, 0, index);
+		System.arraycopy(elements, index + 1, result, index, mSize - index - 1);
+		return of(Arrays.asList(result));
+	}
+
+
+	private static Object[] replace(Object[] node, int shift, int index, Object value)
+	{
+		Object[] result = node.clone();
+		int slot = (index >>> shift) & MASK;
+		result[slot] = shift == 0 ? value : replace((Object[]) node[slot], shift - BITS, index, value);
+		return result;
+	}
+
+
+	private static Object[] append(Object[] node, int shift, int index, Object value)
+	{
+		int slot = (index >>> shift) & MASK;
+		Object[] result = new Object[slot + 1];
+		System.arraycopy(node, 0, result, 0, Math.min(node.length, slot + 1));
+		if (shift == 0)
+		{
+			result[slot] = value;
+		}
+		else
+		{
+			result[slot] = append(slot < node.length ? (Object[]) node[slot] : new Object[0], shift - BITS, index, value);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+/**
+ * An immutable dict, implemented as a hash array mapped trie. {@link #with(String, Object)} and {@link #without(String)} return a new dict that shares
+ * everything but the path to the modified entry with this one, so updates take O(log n) time and space.
+ * <p>
+ * This implements {@link Map}, so it can be used wherever a {@link PList} dict is expected, but all mutators of {@link Map} throw an
+ * {@link UnsupportedOperationException}. The iteration order is unspecified. Instances are thread-safe.
+ * </p>
+ */
+public final class PersistentDict extends AbstractMap<String, Object>
+{
+	/**
+	 * The empty dict.
+	 */
+	public final static PersistentDict EMPTY = new PersistentDict(null, 0);
+
+	private final static int BITS = 5;
+	private final static int MASK = (1 << BITS) - 1;
+
+	/**
+	 * A value that's never stored in a dict.
+	 */
+	private final static Object NOT_FOUND = new Object();
+
+	private final Node mRoot;
+	private final int mSize;
+
+
+	private PersistentDict(Node root, int size)
+	{
+		mRoot = root;
+		mSize = size;
+	}
+
+
+	/**
+	 * Returns a dict with the given entry added or replaced.
+	 * 
+	 * @param key
+	 *            The key.
+	 * @param value
+	 *            The value, must not be <code>null</code>.
+	 * @return A new {@link PersistentDict} or this instance if it already contains the given value under the given key.
+	 */
+	public PersistentDict with(String key, Object value)
+	{
+		if (key == null || value == null)
+		{
+			throw new NullPointerException("dicts can't contain null keys or values");
+		}
+		boolean[] added = new boolean[1];
+		Node root = (mRoot == null ? BitmapNode.EMPTY : mRoot).with(0, hash(key), key, value, added);
+		return root == mRoot ? this : new PersistentDict(root, added[0] ? mSize + 1 : mSize);
+	}
+
+
+	/**
+	 * Returns a dict without the given key.
+	 * 
+	 * @param key
+	 *            The key to remove.
+	 * @return A new {@link PersistentDict} or this instance if it doesn't contain the given key.
+	 */
+	public PersistentDict without(String key)
+	{
+		if (mRoot == null || key == null)
+		{
+			return this;
+		}
+		Node root = mRoot.without(0, hash(key), key);
+		return root == mRoot ? this : root == null ? EMPTY : new PersistentDict(root, mSize - 1);
+	}
+
+
+	@Override
+	public Object get(Object key)
+	{
+		Object result = find(key);
+		return result == NOT_FOUND ? null : result;
+	}
+
+
+	@Override
+	public boolean containsKey(Object key)
+	{
+		return find(key) != NOT_FOUND;
+	}
+
+
+	@Override
+	public int size()
+	{
+		return mSize;
+	}
+
+
+	@Override
+	public Set<Entry<String, Object>> entrySet()
+	{
+		return new AbstractSet<Entry<String, Object>>()
+		{
+			@Override
+			public Iterator<Entry<String, Object>> iterator()
+			{
+				return new EntryIterator(mRoot);
+			}
+
+
+			@Override
+			public int size()
+			{
+				return mSize;
+			}
+		};
+	}
+
+
+	private Object find(Object key)
+	{
+		if (mRoot == null || !(key instanceof String))
+		{
+			return NOT_FOUND;
+		}
+		return mRoot.find(0, hash(key), (String) key);
+	}
+
+
+	private static int hash(Object key)
+	{
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+
+	/**
+	 * A node of the trie.
+	 */
+	private static abstract class Node
+	{
+		/**
+		 * Returns the value of the given key or {@link PersistentDict#NOT_FOUND}.
+		 */
+		abstract Object find(int shift, int hash, String key);
+
+
+		/**
+		 * Returns a node with the given entry added or replaced or this node if nothing has changed. <code>added[0]</code> is set if the key was not
+		 * present before.
+		 */
+		abstract Node with(int shift, int hash, String key, Object value, boolean[] added);
+
+
+		/**
+		 * Returns a node without the given key, this node if the key is not present or <code>null</code> if the resulting node would be empty.
+		 */
+		abstract Node without(int shift, int hash, String key);
+	}
+
+
+	/**
+	 * A node that contains up to 32 entries or child nodes, selected by 5 bits of the hash. The array contains two slots per set bit of the bitmap,
+	 * either a key and its value or <code>null</code> and a child node.
+	 */
+	private final static class BitmapNode extends Node
+	{
+		final static BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+		final int bitmap;
+		final Object[] array;
+
+
+		BitmapNode(int bitmap, Object[] array)
+		{
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+
+		@Override
+		Object find(int shift, int hash, String key)
+		{
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((bitmap & bit) == 0)
+			{
+				return NOT_FOUND;
+			}
+			int idx = index(bit);
+			Object k = array[idx];
+			if (k == null)
+			{
+				return ((Node) array[idx + 1]).find(shift + BITS, hash, key);
+			}
+			return key.equals(k) ? array[idx + 1] : NOT_FOUND;
+		}
+
+
+		@Override
+		Node with(int shift, int hash, String key, Object value, boolean[] added)
+		{
+			int bit = 1 << ((hash >>> shift) & MASK);
+			int idx = index(bit);
+			if ((bitmap & bit) == 0)
+			{
+				added[0] = true;
+				Object[] result = new Object[array.length + 2];
+				System.arraycopy(array, 0, result, 0, idx);
+				result[idx] = key;
+				result[idx + 1] = value;
+				System.arraycopy(array, idx, result, idx + 2, array.length - idx);
+				return new BitmapNode(bitmap | bit, result);
+			}
+
+			Object k = array[idx];
+			Object v = array[idx + 1];
+			if (k == null)
+			{
+				Node child = ((Node) v).with(shift + BITS, hash, key, value, added);
+				return child == v ? this : replace(idx, null, child);
+			}
+			if (key.equals(k))
+			{
+				return value == v ? this : replace(idx, k, value);
+			}
+			added[0] = true;
+			return replace(idx, null, pair(shift + BITS, (String) k, v, hash, key, value));
+		}
+
+
+		@Override
+		Node without(int shift, int hash, String key)
+		{
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((bitmap & bit) == 0)
+			{
+				return this;
+			}
+			int idx = index(bit);
+			Object k = array[idx];
+			Object v = array[idx + 1];
+			if (k == null)
+			{
+				Node child = ((Node) v).without(shift + BITS, hash, key);
+				if (child == v)
+				{
+					return this;
+				}
+				if (child != null)
+				{
+					return replace(idx, null, child);
+				}
+			}
+			else if (!key.equals(k))
+			{
+				return this;
+			}
+
+			if (bitmap == bit)
+			{
+				return null;
+			}
+			Object[] result = new Object[array.length - 2];
+			System.arraycopy(array, 0, result, 0, idx);
+			System.arraycopy(array, idx + 2, result, idx, array.length - idx - 2);
+			return new BitmapNode(bitmap & ~bit, result);
+		}
+
+
+		private int index(int bit)
+		{
+			return 2 * Integer.bitCount(bitmap & (bit - 1));
+		}
+
+
+		private BitmapNode replace(int idx, Object key, Object value)
+		{
+			Object[] result = array.clone();
+			result[idx] = key;
+			result[idx + 1] = value;
+			return new BitmapNode(bitmap, result);
+		}
+
+
+		/**
+		 * Create a node containing two entries.
+		 */
+		private static Node pair(int shift, String key1, Object value1, int hash2, String key2, Object value2)
+		{
+			int hash1 = hash(key1);
+			if (hash1 == hash2)
+			{
+				return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+			}
+			boolean[] added = new boolean[1];
+			return EMPTY.with(shift, hash1, key1, value1, added).with(shift, hash2, key2, value2, added);
+		}
+	}
+
+
+	/**
+	 * A node that contains entries whose keys have the same hash.
+	 */
+	private final static class CollisionNode extends Node
+	{
+		final int hash;
+		final Object[] array;
+
+
+		CollisionNode(int hash, Object[] array)
+		{
+			this.hash = hash;
+			this.array = array;
+		}
+
+
+		@Override
+		Object find(int shift, int hash, String key)
+		{
+			int idx = indexOf(hash, key);
+			return idx < 0 ? NOT_FOUND : array[idx + 1];
+		}
+
+
+		@Override
+		Node with(int shift, int hash, String key, Object value, boolean[] added)
+		{
+			if (hash != this.hash)
+			{
+				// nest this node in a bitmap node and add the new entry there
+				return new BitmapNode(1 << ((this.hash >>> shift) & MASK), new Object[] { null, this }).with(shift, hash, key, value, added);
+			}
+			int idx = indexOf(hash, key);
+			if (idx >= 0)
+			{
+				if (array[idx + 1] == value)
+				{
+					return this;
+				}
+				Object[] result = array.clone();
+				result[idx + 1] = value;
+				return new CollisionNode(hash, result);
+			}
+			added[0] = true;
+			Object[] result = new Object[array.length + 2];
+			System.arraycopy(array, 0, result, 0, array.length);
+			result[array.length] = key;
+			result[array.length + 1] = value;
+			return new CollisionNode(hash, result);
+		}
+
+
+		@Override
+		Node without(int shift, int hash, String key)
+		{
+			int idx = indexOf(hash, key);
+			if (idx < 0)
+			{
+				return this;
+			}
+			if (array.length == 2)
+			{
+				return null;
+			}
+			Object[] result = new Object[array.length - 2];
+			System.arraycopy(array, 0, result, 0, idx);
+			System.arraycopy(array, idx + 2, result, idx, array.length - idx - 2);
+			return new CollisionNode(hash, result);
+		}
+
+
+		private int indexOf(int hash, String key)
+		{
+			if (hash == this.hash)
+			{
+				for (int i = 0; i < array.length; i += 2)
+				{
+					if (key.equals(array[i]))
+					{
+						return i;
+					}
+				}
+			}
+			return -1;
+		}
+	}
+
+
+	/**
+	 * Iterates the entries of a trie depth first.
+	 */
+	private final static class EntryIterator implements Iterator<Entry<String, Object>>
+	{
+		/**
+		 * The arrays of the nodes on the current path and the current position in each of them. A 32 bit hash results in at most 7 levels of bitmap nodes
+		 * plus a collision node.
+		 */
+		private final Object[][] mArrays = new Object[8][];
+		private final int[] mPositions = new int[8];
+		private int mDepth = -1;
+		private String mNextKey;
+		private Object mNextValue;
+
+
+		EntryIterator(Node root)
+		{
+			if (root != null)
+			{
+				push(root);
+				advance();
+			}
+		}
+
+
+		@Override
+		public boolean hasNext()
+		{
+			return mNextKey != null;
+		}
+
+
+		@Override
+		public Entry<String, Object> next()
+		{
+			if (mNextKey == null)
+			{
+				throw new NoSuchElementException();
+			}
+			Entry<String, Object> result = new AbstractMap.SimpleImmutableEntry<String, Object>(mNextKey, mNextValue);
+			advance();
+			return result;
+		}
+
+
+		@Override
+		public void remove()
+		{
+			throw new UnsupportedOperationException("PersistentDict is immutable");
+		}
+
+
+		private void push(Node node)
+		{
+			mArrays[++mDepth] = node instanceof BitmapNode ? ((BitmapNode) node).array : ((CollisionNode) node).array;
+			mPositions[mDepth] = 0;
+		}
+
+
+		private void advance()
+		{
+			while (mDepth >= 0)
+			{
+				Object[] array = mArrays[mDepth];
+				int pos = mPositions[mDepth];
+				if (pos == array.length)
+				{
+					mArrays[mDepth--] = null;
+					continue;
+				}
+				mPositions[mDepth] = pos + 2;
+				if (array[pos] == null)
+				{
+					push((Node) array[pos + 1]);
+				}
+				else
+				{
+					mNextKey = (String) array[pos];
+					mNextValue = array[pos + 1];
+					return;
+				}
+			}
+			mNextKey = null;
+			mNextValue = null;
+		}
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+/**
+ * A dict that stores the values of the keys of a dict {@link PListSchema} in fixed slots. Use {@link #get(int)} with the slot returned by
+ * {@link PListSchema#slot(String)} to access a value without any lookup.
+ * <p>
+ * Only keys that are declared in the schema can be stored. Entries are iterated in slot order.
+ * </p>
+ */
+public final class SchemaDict extends AbstractMap<String, Object>
+{
+	private final PListSchema mSchema;
+	private final Object[] mValues;
+	private int mSize;
+
+
+	/**
+	 * Create an empty {@link SchemaDict} for the given dict schema.
+	 * 
+	 * @param schema
+	 *            A {@link PListSchema} of type {@link PListSchema.Type#DICT}.
+	 */
+	public SchemaDict(PListSchema schema)
+	{
+		if (schema.getType() != PListSchema.Type.DICT)
+		{
+			throw new IllegalArgumentException("not a dict schema: " + schema);
+		}
+		mSchema = schema;
+		mValues = new Object[schema.getSlotCount()];
+	}
+
+
+	public PListSchema getSchema()
+	{
+		return mSchema;
+	}
+
+
+	/**
+	 * Returns the value in the given slot or <code>null</code> if the slot is empty.
+	 */
+	public Object get(int slot)
+	{
+		return mValues[slot];
+	}
+
+
+	/**
+	 * Store a value in the given slot.
+	 * 
+	 * @param slot
+	 *            The slot.
+	 * @param value
+	 *            The value or <code>null</code> to clear the slot.
+	 * @return The previous value or <code>null</code> if the slot was empty.
+	 */
+	public Object set(int slot, Object value)
+	{
+		Object old = mValues[slot];
+		if (old == null && value != null)
+		{
+			++mSize;
+		}
+		else if (old != null && value == null)
+		{
+			--mSize;
+		}
+		mValues[slot] = value;
+		return old;
+	}
+
+
+	@Override
+	public Object get(Object key)
+	{
+		int slot = slot(key);
+		return slot < 0 ? null : mValues[slot];
+	}
+
+
+	@Override
+	public boolean containsKey(Object key)
+	{
+		return get(key) != null;
+	}
+
+
+	/**
+	 * Store a value for the given key.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the key is not declared in the schema.
+	 */
+	@Override
+	public Object put(String key, Object value)
+	{
+		int slot = mSchema.slot(key);
+		if (slot < 0)
+		{
+			throw new IllegalArgumentException("key " + key + " is not declared in the schema");
+		}
+		return set(slot, value);
+	}
+
+
+	@Override
+	public Object remove(Object key)
+	{
+		int slot = slot(key);
+		return slot < 0 ? null : set(slot, null);
+	}
+
+
+	@Override
+	public int size()
+	{
+		return mSize;
+	}
+
+
+	@Override
+	public void clear()
+	{
+		for (int i = 0; i < mValues.length; ++i)
+		{
+			mValues[i] = null;
+		}
+		mSize = 0;
+	}
+
+
+	@Override
+	public Set<Entry<String, Object>> entrySet()
+	{
+		return new AbstractSet<Entry<String, Object>>()
+		{
+			@Override
+			public Iterator<Entry<String, Object>> iterator()
+			{
+				return new EntryIterator();
+			}
+
+
+			@Override
+			public int size()
+			{
+				return mSize;
+			}
+		};
+	}
+
+
+	private int slot(Object key)
+	{
+		return key instanceof String ? mSchema.slot((String) key) : -1;
+	}
+
+
+	/**
+	 * Iterates the non-empty slots.
+	 */
+	private final class EntryIterator implements Iterator<Entry<String, Object>>
+	{
+		private int mNext = -1;
+		private int mCurrent = -1;
+
+
+		public EntryIterator()
+		{
+			advance();
+		}
+
+
+		@Override
+		public boolean hasNext()
+		{
+			return mNext < mValues.length;
+		}
+
+
+		@Override
+		public Entry<String, Object> next()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			mCurrent = mNext;
+			advance();
+			return new SimpleImmutableEntry<String, Object>(mSchema.getKey(mCurrent), mValues[mCurrent]);
+		}
+
+
+		@Override
+		public void remove()
+		{
+			if (mCurrent < 0)
+			{
+				throw new IllegalStateException();
+			}
+			set(mCurrent, null);
+			mCurrent = -1;
+		}
+
+
+		private void advance()
+		{
+			do
+			{
+				++mNext;
+			}
+			while (mNext < mValues.length && mValues[mNext] == null);
+		}
+	}
+}
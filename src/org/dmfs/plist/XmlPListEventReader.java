@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.Base64;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+
+/**
+ * Reads an XML plist and passes its contents to a {@link PListHandler}, without building a {@link PList} tree.
+ * <p>
+ * Apart from the text of the current element, the reader only keeps a small amount of state per nesting level, so memory usage doesn't depend on the size
+ * of the document.
+ * </p>
+ * <p>
+ * When reading with a {@link PListSchema}, values of undeclared dict keys are skipped without reading their text. Skipped values are not validated.
+ * </p>
+ */
+public final class XmlPListEventReader
+{
+	private final static String PLIST = "plist";
+	private final static String DICT = "dict";
+	private final static String ARRAY = "array";
+	private final static String KEY = "key";
+	private final static String STRING = "string";
+	private final static String INTEGER = "integer";
+	private final static String REAL = "real";
+	private final static String TRUE = "true";
+	private final static String FALSE = "false";
+	private final static String DATA = "data";
+	private final static String DATE = "date";
+
+	/**
+	 * States of a nesting level.
+	 */
+	private final static int STATE_ARRAY = 0;
+	private final static int STATE_DICT_KEY = 1;
+	private final static int STATE_DICT_VALUE = 2;
+
+	private final XmlPullParser mParser;
+	private final PListBudget mBudget;
+	private int[] mStates = new int[16];
+	private int[] mSizes = new int[16];
+
+
+	public XmlPListEventReader(Reader in) throws XmlPullParserException
+	{
+		this(in, PListLimits.UNLIMITED);
+	}
+
+
+	public XmlPListEventReader(Reader in, PListLimits limits) throws XmlPullParserException
+	{
+		this(XmlPullParserFactory.newInstance().newPullParser(), limits);
+		mParser.setInput(in);
+	}
+
+
+	/**
+	 * Create a reader that reads from the given {@link XmlPullParser}. The parser must already have an input.
+	 * 
+	 * @param parser
+	 *            The {@link XmlPullParser} to read from.
+	 * @param limits
+	 *            The {@link PListLimits} to enforce.
+	 */
+	public XmlPListEventReader(XmlPullParser parser, PListLimits limits)
+	{
+		mParser = parser;
+		mBudget = new PListBudget(limits);
+	}
+
+
+	/**
+	 * Read the next plist from the input and pass it to the given {@link PListHandler}.
+	 * 
+	 * @param handler
+	 *            The {@link PListHandler} to receive the events.
+	 * @return <code>false</code> if the input didn't contain any plist, <code>true</code> otherwise.
+	 * @throws IOException
+	 * @throws XmlPullParserException
+	 *             if the input is not a valid XML plist.
+	 * @throws PListLimitExceededException
+	 *             if the document exceeds any of the {@link PListLimits}.
+	 */
+	public boolean read(PListHandler handler) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		XmlPullParser parser = mParser;
+		mBudget.reset(null);
+
+		// find the root element
+		int event;
+		while ((event = parser.next()) != XmlPullParser.START_TAG)
+		{
+			if (event == XmlPullParser.END_DOCUMENT)
+			{
+				return false;
+			}
+		}
+
+		boolean wrapped = PLIST.equals(parser.getName());
+		if (wrapped)
+		{
+			while ((event = parser.next()) != XmlPullParser.START_TAG)
+			{
+				if (event == XmlPullParser.END_TAG || event == XmlPullParser.END_DOCUMENT)
+				{
+					// empty plist element
+					return false;
+				}
+				checkText(event);
+			}
+		}
+
+		PListValueFilter filter = handler instanceof PListValueFilter ? (PListValueFilter) handler : null;
+		handler.startDocument();
+		int depth = 0;
+		do
+		{
+			if (event == XmlPullParser.START_TAG)
+			{
+				String name = parser.getName();
+				if (KEY.equals(name))
+				{
+					if (depth == 0 || mStates[depth - 1] != STATE_DICT_KEY)
+					{
+						throw error("unexpected key element");
+					}
+					String key = readText();
+					mBudget.addString(0, key.length());
+					handler.key(key);
+					mStates[depth - 1] = STATE_DICT_VALUE;
+				}
+				else
+				{
+					beforeValue(depth);
+					if (depth > 0 && filter != null && !filter.acceptValue())
+					{
+						skipElement();
+					}
+					else if (DICT.equals(name) || ARRAY.equals(name))
+					{
+						mBudget.enterContainer();
+						if (depth == mStates.length)
+						{
+							mStates = grow(mStates);
+							mSizes = grow(mSizes);
+						}
+						mSizes[depth] = 0;
+						if (name.equals(DICT))
+						{
+							mStates[depth++] = STATE_DICT_KEY;
+							handler.startDict();
+						}
+						else
+						{
+							mStates[depth++] = STATE_ARRAY;
+							handler.startArray();
+						}
+					}
+					else
+					{
+						readScalar(name, handler);
+					}
+				}
+			}
+			else if (event == XmlPullParser.END_TAG)
+			{
+				if (mStates[--depth] == STATE_ARRAY)
+				{
+					handler.endArray();
+				}
+				else if (mStates[depth] == STATE_DICT_KEY)
+				{
+					handler.endDict();
+				}
+				else
+				{
+					throw error("dict key without value");
+				}
+				mBudget.leaveContainer();
+			}
+			else
+			{
+				checkText(event);
+			}
+		}
+		while (depth > 0 && (event = parser.next()) != XmlPullParser.END_DOCUMENT);
+
+		if (depth > 0)
+		{
+			throw error("unexpected end of document");
+		}
+
+		if (wrapped)
+		{
+			// consume the closing plist tag
+			while ((event = parser.next()) != XmlPullParser.END_TAG)
+			{
+				if (event == XmlPullParser.START_TAG || event == XmlPullParser.END_DOCUMENT)
+				{
+					throw error("plist element must contain exactly one value");
+				}
+				checkText(event);
+			}
+		}
+		handler.endDocument();
+		return true;
+	}
+
+
+	/**
+	 * Update the state of the enclosing container before a value is read.
+	 */
+	private void beforeValue(int depth) throws XmlPullParserException, PListLimitExceededException
+	{
+		if (depth > 0)
+		{
+			int state = mStates[depth - 1];
+			if (state == STATE_DICT_KEY)
+			{
+				throw error("dict value without key");
+			}
+			else if (state == STATE_DICT_VALUE)
+			{
+				mStates[depth - 1] = STATE_DICT_KEY;
+			}
+			mBudget.checkContainerSize(mSizes[depth - 1]++);
+		}
+		mBudget.addNode();
+	}
+
+
+	private void readScalar(String name, PListHandler handler) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		if (TRUE.equals(name) || FALSE.equals(name))
+		{
+			if (mParser.next() != XmlPullParser.END_TAG)
+			{
+				throw error("boolean elements must be empty");
+			}
+			handler.bool(TRUE.equals(name));
+			return;
+		}
+
+		String text = readText();
+		mBudget.addString(0, text.length());
+		try
+		{
+			if (STRING.equals(name))
+			{
+				handler.string(text);
+			}
+			else if (INTEGER.equals(name))
+			{
+				handler.integer(Long.parseLong(text.trim()));
+			}
+			else if (REAL.equals(name))
+			{
+				handler.real(Double.parseDouble(text.trim()));
+			}
+			else if (DATA.equals(name))
+			{
+				handler.data(Base64.getMimeDecoder().decode(text));
+			}
+			else if (DATE.equals(name))
+			{
+				handler.date(PListDates.parse(text));
+			}
+			else
+			{
+				throw error("unknown plist element " + name);
+			}
+		}
+		catch (IllegalArgumentException e)
+		{
+			// includes NumberFormatException
+			throw error("invalid " + name + " value " + text);
+		}
+		catch (ParseException e)
+		{
+			throw error("invalid " + name + " value " + text);
+		}
+	}
+
+
+	/**
+	 * Skip the current element including all its children, without reading any text.
+	 */
+	private void skipElement() throws IOException, XmlPullParserException
+	{
+		int depth = 1;
+		while (depth > 0)
+		{
+			int event = mParser.next();
+			if (event == XmlPullParser.START_TAG)
+			{
+				++depth;
+			}
+			else if (event == XmlPullParser.END_TAG)
+			{
+				--depth;
+			}
+			else if (event == XmlPullParser.END_DOCUMENT)
+			{
+				throw error("unexpected end of document");
+			}
+		}
+	}
+
+
+	private String readText() throws IOException, XmlPullParserException
+	{
+		String text = mParser.nextText();
+		return text == null ? "" : text;
+	}
+
+
+	private void checkText(int event) throws XmlPullParserException
+	{
+		if (event == XmlPullParser.TEXT && !mParser.isWhitespace())
+		{
+			throw error("unexpected text");
+		}
+	}
+
+
+	private XmlPullParserException error(String message)
+	{
+		return new XmlPullParserException(message + " at " + mParser.getPositionDescription());
+	}
+
+
+	private static int[] grow(int[] array)
+	{
+		int[] result = new int[array.length * 2];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Base64;
+import java.util.Date;
+
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+import org.xmlpull.v1.XmlSerializer;
+
+
+/**
+ * A {@link PListHandler} that writes an XML plist to an {@link XmlSerializer}.
+ */
+public final class XmlPListWriter implements PListHandler
+{
+	private final static String VERSION_1_0 = "1.0";
+
+	private final XmlSerializer mSerializer;
+	private final String mEncoding;
+
+
+	public XmlPListWriter(Writer out) throws XmlPullParserException, IOException
+	{
+		this(XmlPullParserFactory.newInstance().newSerializer(), null);
+		mSerializer.setOutput(out);
+	}
+
+
+	public XmlPListWriter(OutputStream out, String charset) throws XmlPullParserException, IOException
+	{
+		this(XmlPullParserFactory.newInstance().newSerializer(), charset);
+		mSerializer.setOutput(out, charset);
+	}
+
+
+	/**
+	 * Create an {@link XmlPListWriter} that writes to the given {@link XmlSerializer}. The serializer must already have an output.
+	 * 
+	 * @param serializer
+	 *            The {@link XmlSerializer} to write to.
+	 * @param encoding
+	 *            The encoding to declare in the XML declaration or <code>null</code> to omit it.
+	 */
+	public XmlPListWriter(XmlSerializer serializer, String encoding)
+	{
+		mSerializer = serializer;
+		mEncoding = encoding;
+	}
+
+
+	@Override
+	public void startDocument() throws IOException
+	{
+		mSerializer.startDocument(mEncoding, null);
+		mSerializer.startTag(null, "plist").attribute(null, "version", VERSION_1_0);
+	}
+
+
+	/**
+	 * Ends the document and flushes the output. The output is not closed.
+	 */
+	@Override
+	public void endDocument() throws IOException
+	{
+		mSerializer.endTag(null, "plist");
+		mSerializer.endDocument();
+		mSerializer.flush();
+	}
+
+
+	@Override
+	public void startDict() throws IOException
+	{
+		mSerializer.startTag(null, "dict");
+	}
+
+
+	@Override
+	public void key(String key) throws IOException
+	{
+		element("key", key);
+	}
+
+
+	@Override
+	public void endDict() throws IOException
+	{
+		mSerializer.endTag(null, "dict");
+	}
+
+
+	@Override
+	public void startArray() throws IOException
+	{
+		mSerializer.startTag(null, "array");
+	}
+
+
+	@Override
+	public void endArray() throws IOException
+	{
+		mSerializer.endTag(null, "array");
+	}
+
+
+	@Override
+	public void string(String value) throws IOException
+	{
+		element("string", value);
+	}
+
+
+	@Override
+	public void integer(long value) throws IOException
+	{
+		element("integer", Long.toString(value));
+	}
+
+
+	@Override
+	public void real(double value) throws IOException
+	{
+		element("real", Double.toString(value));
+	}
+
+
+	@Override
+	public void bool(boolean value) throws IOException
+	{
+		String name = value ? "true" : "false";
+		mSerializer.startTag(null, name);
+		mSerializer.endTag(null, name);
+	}
+
+
+	@Override
+	public void data(byte[] value) throws IOException
+	{
+		element("data", Base64.getEncoder().encodeToString(value));
+	}
+
+
+	@Override
+	public void date(Date value) throws IOException
+	{
+		element("date", PListDates.format(value));
+	}
+
+
+	private void element(String name, String text) throws IOException
+	{
+		XmlSerializer serializer = mSerializer;
+		serializer.startTag(null, name);
+		serializer.text(text);
+		serializer.endTag(null, name);
+	}
+}
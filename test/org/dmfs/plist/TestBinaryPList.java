@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+
+public class TestBinaryPList
+{
+
+	@Test
+	public void testWrite() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		// same output as plutil -convert binary1
+		assertArrayEquals(new byte[] { 'b', 'p', 'l', 'i', 's', 't', '0', '0', 0x51, 'a', 0x08, 0, 0, 0, 0, 0, 0, 1, 1, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0,
+			0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 10 }, xmlToBinary("<?xml version='1.0' ?><plist version=\"1.0\"><string>a</string></plist>"));
+	}
+
+
+	@Test
+	public void testRoundTrip() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		String xml = "<?xml version='1.0' encoding='UTF-8' ?><plist version=\"1.0\"><dict><key>a</key><array><string>x</string><string>\u00e4\u00f6\u00fc</string>"
+			+ "<integer>1</integer><integer>-1</integer><integer>4294967296</integer><real>1.5</real><true /><false /><string>x</string></array>"
+			+ "<key>b</key><dict /><key>c</key><data>AQID</data><key>d</key><date>2014-04-01T12:00:00Z</date><key>long string key</key>"
+			+ "<string>a string with more than 15 characters</string></dict></plist>";
+		assertEquals(xml, binaryToXml(xmlToBinary(xml)));
+	}
+
+
+	@Test
+	public void testLargeRoundTrip() throws IOException, PListLimitExceededException
+	{
+		// enough objects to require 2 byte references
+		Map<String, Object> dict = new HashMap<String, Object>();
+		List<Object> array = new ArrayList<Object>();
+		for (int i = 0; i < 1000; ++i)
+		{
+			array.add("value " + i);
+			array.add(i);
+		}
+		dict.put("array", array);
+		dict.put("nested", new HashMap<String, Object>());
+		PList plist = new PList(dict);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		plist.writeBinary(out);
+		PList result = PList.readBinary(new ByteArrayInputStream(out.toByteArray()), PListLimits.UNLIMITED);
+		assertEquals(dict, result.getDict());
+	}
+
+
+	@Test(expected = PListFormatException.class)
+	public void testInvalid() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		byte[] binary = xmlToBinary("<?xml version='1.0' ?><plist version=\"1.0\"><array><string>a</string></array></plist>");
+		// let the array refer to itself
+		binary[11] = 1;
+		binaryToXml(binary);
+	}
+
+
+	@Test(expected = PListLimitExceededException.class)
+	public void testLimits() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		byte[] binary = xmlToBinary("<?xml version='1.0' ?><plist version=\"1.0\"><array><array><array /></array></array></plist>");
+		PListConverter.binaryToXml(new ByteArrayInputStream(binary), new ByteArrayOutputStream(), PListLimits.DEFAULT.withMaxDepth(2));
+	}
+
+
+	@Test(expected = PListFormatException.class)
+	public void testLargeCycle() throws IOException, PListLimitExceededException
+	{
+		List<Object> array = new ArrayList<Object>();
+		for (int i = 0; i < 100000; ++i)
+		{
+			array.add("value " + i);
+		}
+		byte[] binary = toBinary(new PList(array));
+		long top = trailer(binary, 16, 8);
+		int offset = (int) objectOffset(binary, top);
+		int refSize = binary[binary.length - 25];
+		// let the first element refer to the array itself
+		int refs = offset + 2 + (1 << (binary[offset + 1] & 0x0f));
+		for (int i = 0; i < refSize; ++i)
+		{
+			binary[refs + i] = (byte) (top >>> ((refSize - 1 - i) * 8));
+		}
+		PList.readBinary(new ByteArrayInputStream(binary), PListLimits.UNLIMITED);
+	}
+
+
+	@Test
+	public void testInvalidMarkers() throws IOException, PListLimitExceededException
+	{
+		byte[] integer = toBinary(new PList(5));
+		integer[(int) objectOffset(integer, trailer(integer, 16, 8))] = 0x1f;
+		assertFormatException(integer);
+
+		byte[] real = toBinary(new PList(1.5));
+		real[(int) objectOffset(real, trailer(real, 16, 8))] = 0x21;
+		assertFormatException(real);
+
+		List<Object> array = new ArrayList<Object>();
+		for (int i = 0; i < 20; ++i)
+		{
+			array.add(i);
+		}
+		byte[] length = toBinary(new PList(array));
+		length[(int) objectOffset(length, trailer(length, 16, 8)) + 1] = 0x1f;
+		assertFormatException(length);
+	}
+
+
+	private static void assertFormatException(byte[] binary) throws IOException, PListLimitExceededException
+	{
+		try
+		{
+			PList.readBinary(new ByteArrayInputStream(binary), PListLimits.UNLIMITED);
+			fail("invalid marker not detected");
+		}
+		catch (PListFormatException e)
+		{
+			// expected
+		}
+	}
+
+
+	private static byte[] toBinary(PList plist) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		plist.writeBinary(out);
+		return out.toByteArray();
+	}
+
+
+	/**
+	 * Returns the big endian value of the given size that starts the given number of bytes before the end of the binary plist.
+	 */
+	private static long trailer(byte[] binary, int fromEnd, int size)
+	{
+		long result = 0;
+		for (int i = 0; i < size; ++i)
+		{
+			result = (result << 8) | (binary[binary.length - fromEnd + i] & 0xff);
+		}
+		return result;
+	}
+
+
+	private static long objectOffset(byte[] binary, long index)
+	{
+		int offsetSize = binary[binary.length - 26];
+		int start = (int) (trailer(binary, 8, 8) + index * offsetSize);
+		long result = 0;
+		for (int i = 0; i < offsetSize; ++i)
+		{
+			result = (result << 8) | (binary[start + i] & 0xff);
+		}
+		return result;
+	}
+
+
+	private byte[] xmlToBinary(String xml) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PListConverter.xmlToBinary(new ByteArrayInputStream(xml.getBytes("UTF-8")), out);
+		return out.toByteArray();
+	}
+
+
+	private String binaryToXml(byte[] binary) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PListConverter.binaryToXml(new ByteArrayInputStream(binary), out);
+		return new String(out.toByteArray(), "UTF-8");
+	}
+}
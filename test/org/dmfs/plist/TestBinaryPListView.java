@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+
+public class TestBinaryPListView
+{
+	private final static String LIBRARY = "<?xml version='1.0' ?><plist version=\"1.0\"><dict><key>Major Version</key><integer>1</integer>"
+		+ "<key>Tracks</key><dict><key>1233</key><dict><key>Name</key><string>Other</string></dict>"
+		+ "<key>1234</key><dict><key>Name</key><string>Caf\u00e9</string><key>Total Time</key><integer>215000</integer><key>Rating</key><real>4.5</real>"
+		+ "<key>Explicit</key><true /><key>Artwork</key><data>AQID</data></dict></dict>"
+		+ "<key>Playlists</key><array><dict><key>Name</key><string>Library</string></dict></array>"
+		+ "<key>a/b</key><string>slash</string><key>K\u00fcnstler</key><string>unicode key</string></dict></plist>";
+
+
+	@Test
+	public void testFile() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		File file = File.createTempFile("test", ".plist");
+		try
+		{
+			FileOutputStream out = new FileOutputStream(file);
+			try
+			{
+				PListConverter.xmlToBinary(new ByteArrayInputStream(LIBRARY.getBytes("UTF-8")), out);
+			}
+			finally
+			{
+				out.close();
+			}
+
+			BinaryPListView view = BinaryPListView.open(file);
+			try
+			{
+				assertEquals(BinaryPListView.Type.DICT, view.getRoot().getType());
+				assertEquals(5, view.getRoot().size());
+				assertEquals("Caf\u00e9", view.get("Tracks/1234/Name").getString());
+				assertEquals(Long.valueOf(215000), view.get("Tracks/1234/Total Time").getInteger());
+				assertEquals(Double.valueOf(4.5), view.get("Tracks/1234/Rating").getReal());
+				assertEquals(Boolean.TRUE, view.get("Tracks/1234/Explicit").getBoolean());
+				assertArrayEquals(new byte[] { 1, 2, 3 }, view.get("Tracks/1234/Artwork").getData());
+				assertEquals("Library", view.get("Playlists/0/Name").getString());
+				assertEquals("slash", view.get("a\\/b").getString());
+				assertEquals("unicode key", view.get("K\u00fcnstler").getString());
+				assertEquals("Tracks", view.getRoot().getKey(1));
+				assertEquals("1233", view.get("Tracks").getKey(0));
+				assertEquals("Other", view.get("Tracks").getValue(0).get("Name").getString());
+			}
+			finally
+			{
+				view.close();
+			}
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+
+	@Test
+	public void testMissing() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		BinaryPListView view = view(LIBRARY);
+		assertNull(view.get("Tracks/1235"));
+		assertNull(view.get("Tracks/1234/Name/x"));
+		assertNull(view.get("Playlists/1"));
+		assertNull(view.get("Playlists/x"));
+		assertNull(view.get("Major Version").getString());
+		assertNull(view.get("Tracks").get(0));
+		assertNull(view.get("Playlists").getKey(0));
+	}
+
+
+	@Test
+	public void testLargeDict() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		StringBuilder xml = new StringBuilder("<?xml version='1.0' ?><plist version=\"1.0\"><dict>");
+		for (int i = 0; i < 100; ++i)
+		{
+			xml.append("<key>key ").append(i).append("</key><integer>").append(i).append("</integer>");
+		}
+		// "Aa" and "BB" have the same hash code
+		xml.append("<key>Aa</key><string>Aa</string><key>BB</key><string>BB</string><key>K\u00fcnstler</key><string>unicode key</string></dict></plist>");
+
+		BinaryPListView view = view(xml.toString());
+		// look up twice to use the hash table that has been built by the first lookup
+		for (int run = 0; run < 2; ++run)
+		{
+			for (int i = 0; i < 100; ++i)
+			{
+				assertEquals(Long.valueOf(i), view.get("key " + i).getInteger());
+			}
+			assertEquals("Aa", view.get("Aa").getString());
+			assertEquals("BB", view.get("BB").getString());
+			assertEquals("unicode key", view.get("K\u00fcnstler").getString());
+			assertNull(view.get("key 100"));
+			assertNull(view.get("C#"));
+		}
+	}
+
+
+	@Test
+	public void testKeyIndexBudget() throws IOException
+	{
+		// more than fits into the key index budget, plus one dict that's too large to be indexed
+		Map<String, Object> root = new HashMap<String, Object>();
+		for (int d = 0; d <= 5; ++d)
+		{
+			Map<String, Object> dict = new HashMap<String, Object>();
+			for (int i = 0, size = BinaryPListView.MAX_INDEXED_SIZE + (d == 5 ? 1 : 0); i < size; ++i)
+			{
+				dict.put("k" + i, i);
+			}
+			root.put("d" + d, dict);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new PList(root).writeBinary(out);
+		BinaryPListView view = new BinaryPListView(ByteBuffer.wrap(out.toByteArray()));
+
+		for (int run = 0; run < 2; ++run)
+		{
+			for (int d = 0; d <= 5; ++d)
+			{
+				BinaryPListView.Node dict = view.get("d" + d);
+				assertEquals(Long.valueOf(12345), dict.get("k12345").getInteger());
+				assertEquals(Long.valueOf(0), dict.get("k0").getInteger());
+				assertNull(dict.get("k-1"));
+			}
+		}
+	}
+
+
+	@Test
+	public void testToPList() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		PList playlists = view(LIBRARY).get("Playlists").toPList(PListLimits.UNLIMITED);
+		assertEquals(1, playlists.getArray().size());
+	}
+
+
+	@Test
+	public void testKeyPath()
+	{
+		assertArrayEquals(new String[0], PListKeyPath.split(""));
+		assertEquals(Arrays.asList("a", "", "b/c\\"), Arrays.asList(PListKeyPath.split("a//b\\/c\\\\")));
+		assertEquals("b\\/c\\\\", PListKeyPath.escape("b/c\\"));
+		assertEquals(12, PListKeyPath.index("12"));
+		assertEquals(-1, PListKeyPath.index("-1"));
+		assertEquals(-1, PListKeyPath.index("99999999999"));
+	}
+
+
+	private BinaryPListView view(String xml) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PListConverter.xmlToBinary(new ByteArrayInputStream(xml.getBytes("UTF-8")), out);
+		return new BinaryPListView(ByteBuffer.wrap(out.toByteArray()));
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dmfs.xmlobjects.serializer.SerializerException;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+
+public class TestByteBufferOutputStream
+{
+
+	@Test
+	public void testChain() throws IOException
+	{
+		ByteBufferOutputStream out = new ByteBufferOutputStream(new ByteBufferPool(16, 4));
+		byte[] data = bytes(100);
+		out.write(data, 0, 50);
+		for (int i = 50; i < 100; ++i)
+		{
+			out.write(data[i]);
+		}
+		assertEquals(100, out.size());
+		assertEquals(7, out.getBuffers().length);
+
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		out.writeTo(Channels.newChannel(result));
+		assertArrayEquals(data, result.toByteArray());
+		out.release();
+		assertEquals(0, out.size());
+	}
+
+
+	@Test
+	public void testInitialBuffer() throws IOException
+	{
+		ByteBuffer initial = ByteBuffer.allocate(32);
+		initial.position(10);
+		ByteBufferOutputStream out = new ByteBufferOutputStream(initial, new ByteBufferPool(16, 4));
+		byte[] data = bytes(40);
+		out.write(data);
+		assertEquals(40, out.size());
+
+		ByteBuffer[] buffers = out.getBuffers();
+		assertEquals(3, buffers.length);
+		assertEquals(10, buffers[0].position());
+		assertEquals(22, buffers[0].remaining());
+
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		out.writeTo(Channels.newChannel(result));
+		assertArrayEquals(data, result.toByteArray());
+
+		out.release();
+		assertEquals(10, initial.position());
+		assertEquals(0, out.size());
+	}
+
+
+	@Test
+	public void testChannel() throws IOException
+	{
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		WritableByteChannel channel = Channels.newChannel(result);
+		ByteBufferOutputStream out = new ByteBufferOutputStream(channel, new ByteBufferPool(16, 4));
+
+		// more than 16 buffers, so the chain is written to the channel in between
+		byte[] data = bytes(1000);
+		out.write(data);
+		assertEquals(1000, out.size());
+		out.close();
+		assertArrayEquals(data, result.toByteArray());
+	}
+
+
+	@Test
+	public void testWriteBinary() throws IOException, XmlPullParserException, SerializerException
+	{
+		Map<String, Object> dict = new HashMap<String, Object>();
+		List<Object> array = new ArrayList<Object>();
+		for (int i = 0; i < 1000; ++i)
+		{
+			array.add("value " + i);
+		}
+		dict.put("array", array);
+		PList plist = new PList(dict);
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		plist.writeBinary(expected);
+
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		plist.write(Channels.newChannel(result), PListFormat.BINARY, new ByteBufferPool(256, 4));
+		assertArrayEquals(expected.toByteArray(), result.toByteArray());
+	}
+
+
+	private static byte[] bytes(int count)
+	{
+		byte[] result = new byte[count];
+		for (int i = 0; i < count; ++i)
+		{
+			result[i] = (byte) i;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+
+public class TestImmutablePList
+{
+
+	@Test
+	public void testDict()
+	{
+		Map<String, Object> expected = new HashMap<String, Object>();
+		PersistentDict dict = PersistentDict.EMPTY;
+		for (int i = 0; i < 5000; ++i)
+		{
+			expected.put("key" + i, i);
+			dict = dict.with("key" + i, i);
+		}
+		// "Aa" and "BB" have the same hash code
+		expected.put("Aa", 1);
+		expected.put("BB", 2);
+		dict = dict.with("Aa", 1).with("BB", 2);
+		assertEquals(expected, dict);
+		assertEquals(expected.hashCode(), dict.hashCode());
+
+		PersistentDict removed = dict;
+		for (int i = 0; i < 5000; i += 2)
+		{
+			expected.remove("key" + i);
+			removed = removed.without("key" + i);
+		}
+		expected.remove("Aa");
+		removed = removed.without("Aa").without("missing");
+		assertEquals(expected, removed);
+		assertEquals(2, removed.get("BB"));
+		assertFalse(removed.containsKey("Aa"));
+
+		// the original is untouched
+		assertEquals(5002, dict.size());
+		assertEquals(0, dict.get("key0"));
+		assertSame(dict, dict.with("key1", dict.get("key1")));
+	}
+
+
+	@Test
+	public void testArray()
+	{
+		List<Object> expected = new ArrayList<Object>();
+		PersistentArray array = PersistentArray.EMPTY;
+		for (int i = 0; i < 40000; ++i)
+		{
+			expected.add(i);
+			array = array.append(i);
+		}
+		assertEquals(expected, array);
+		assertEquals(expected, PersistentArray.of(expected));
+
+		PersistentArray modified = array.with(1234, "x").without(0);
+		expected.set(1234, "x");
+		expected.remove(0);
+		assertEquals(expected, modified);
+		assertEquals(1234, array.get(1234));
+		assertEquals(40000, array.size());
+	}
+
+
+	@Test
+	public void testKeyPaths()
+	{
+		Map<String, Object> tracks = new HashMap<String, Object>();
+		tracks.put("1234", new HashMap<String, Object>(Collections.singletonMap("Name", "Song")));
+		Map<String, Object> root = new HashMap<String, Object>();
+		root.put("Tracks", tracks);
+		root.put("Playlists", Arrays.asList("a", "b"));
+		ImmutablePList plist = ImmutablePList.of(new PList(root));
+
+		assertEquals("Song", plist.get("Tracks/1234/Name"));
+		assertEquals("b", plist.get("Playlists/1"));
+		assertNull(plist.get("Playlists/2"));
+		assertNull(plist.get("Tracks/1234/Name/x"));
+
+		ImmutablePList updated = plist.with("Tracks/1234/Name", "Other").with("Tracks/1235/Name", "New").with("Playlists/2", "c");
+		assertEquals("Other", updated.get("Tracks/1234/Name"));
+		assertEquals("New", updated.get("Tracks/1235/Name"));
+		assertEquals(Arrays.asList("a", "b", "c"), updated.get("Playlists"));
+		// the original is untouched
+		assertEquals("Song", plist.get("Tracks/1234/Name"));
+		assertNull(plist.get("Tracks/1235"));
+
+		// untouched subtrees are shared
+		ImmutablePList renamed = plist.with("Tracks/1234/Name", "Other");
+		assertSame(plist.get("Playlists"), renamed.get("Playlists"));
+
+		ImmutablePList removed = updated.without("Tracks/1234").without("Playlists/0");
+		assertNull(removed.get("Tracks/1234"));
+		assertEquals(Arrays.asList("b", "c"), removed.get("Playlists"));
+		assertSame(removed, removed.without("Tracks/9999/Name"));
+
+		PList copy = updated.toPList();
+		assertTrue(copy.getDict() instanceof HashMap);
+		assertEquals(updated.getDict(), copy.getDict());
+	}
+
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPath()
+	{
+		ImmutablePList.of(Arrays.asList("a")).with("0/x", "b");
+	}
+
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testImmutable()
+	{
+		ImmutablePList.of(new HashMap<String, Object>()).getDict().put("a", "b");
+	}
+}
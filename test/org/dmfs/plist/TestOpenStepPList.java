@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+
+public class TestOpenStepPList
+{
+
+	@Test
+	public void testRead() throws IOException, PListLimitExceededException
+	{
+		assertEquals("abc", parsePList("abc").getString());
+		assertEquals("a b\n\"c\"\u00e4", parsePList("\"a b\\n\\\"c\\\"\\U00e4\"").getString());
+		assertEquals("AQID", parsePList("<010203>").getBase64Data());
+		assertNull(parsePList("  // nothing here\n /* at all */ "));
+
+		assertArrayEquals(new Object[] { "a", "b", "c" }, parsePList("(a, b, c)").getArray().toArray());
+		assertArrayEquals(new Object[] { "a", "b" }, parsePList("( a, /* comment */ b, )").getArray().toArray());
+
+		Map<String, ?> map = parsePList(
+			"// !$*UTF8*$!\n{\n\tarchiveVersion = 1;\n\tclasses = {\n\t};\n\t\"key 2\" = ( x, \"y z\" );\n\tdata = <0001 02ff>;\n\tpath = ../some/path.m;\n}\n")
+			.getDict();
+		assertEquals(5, map.size());
+		assertEquals("1", map.get("archiveVersion"));
+		assertEquals(new HashMap<String, Object>(), map.get("classes"));
+		assertEquals(Arrays.asList("x", "y z"), map.get("key 2"));
+		assertEquals("AAEC/w==", map.get("data"));
+		assertEquals("../some/path.m", map.get("path"));
+
+		Map<String, ?> strings = parsePList("\"hello\" = \"Hallo\";\nbye = \"Tsch\\U00fcss\";").getDict();
+		assertEquals(2, strings.size());
+		assertEquals("Hallo", strings.get("hello"));
+		assertEquals("Tsch\u00fcss", strings.get("bye"));
+	}
+
+
+	@Test(expected = PListFormatException.class)
+	public void testMissingSemicolon() throws IOException, PListLimitExceededException
+	{
+		parsePList("{ a = b }");
+	}
+
+
+	@Test(expected = PListFormatException.class)
+	public void testUnterminatedArray() throws IOException, PListLimitExceededException
+	{
+		parsePList("( a, b");
+	}
+
+
+	@Test(expected = PListLimitExceededException.class)
+	public void testLimits() throws IOException, PListLimitExceededException
+	{
+		new OpenStepPListReader(new StringReader("( ( ( a ) ) )"), PListLimits.DEFAULT.withMaxDepth(2)).read();
+	}
+
+
+	@Test
+	public void testWrite() throws IOException, PListLimitExceededException
+	{
+		assertEquals("abc\n", serializePList(new PList("abc")));
+		assertEquals("\"\"\n", serializePList(new PList("")));
+		assertEquals("\"a b\\n//\"\n", serializePList(new PList("a b\n//")));
+		assertEquals("YES\n", serializePList(new PList(true)));
+
+		List<?> array = Arrays.asList(new Object[] { "a", "b c", 1, 1.5 });
+		assertEquals("(\n\ta,\n\t\"b c\",\n\t1,\n\t1.5\n)\n", serializePList(new PList(array)));
+
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("key1", "abc");
+		map.put("key 2", Arrays.asList("x", "y"));
+		map.put("key3", new HashMap<String, Object>());
+
+		// the order of the entries is undefined, so parse the result again
+		assertEquals(map, parsePList(serializePList(new PList(map))).getDict());
+
+		StringWriter compact = new StringWriter();
+		new OpenStepPListWriter(compact, false).write(new PList(Arrays.asList(new Object[] { "a", "b" })));
+		assertEquals("( a, b )", compact.toString());
+	}
+
+
+	private PList parsePList(String string) throws IOException, PListLimitExceededException
+	{
+		return PList.readOpenStep(new StringReader(string));
+	}
+
+
+	private String serializePList(PList plist) throws IOException
+	{
+		StringWriter result = new StringWriter(4096);
+		plist.writeOpenStep(result);
+		result.close();
+		return result.toString();
+	}
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+
+public class TestPListCodec
+{
+
+	@Test
+	public void testBinaryRoundTrip() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		PList plist = plist();
+		for (PListCompression compression : PListCompression.values())
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			PListCodec.write(plist, out, PListFormat.BINARY, compression, Deflater.BEST_COMPRESSION);
+			assertEquals(plist.getDict(), PListCodec.read(new ByteArrayInputStream(out.toByteArray()), PListLimits.DEFAULT).getDict());
+		}
+	}
+
+
+	@Test
+	public void testCompatibility() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		PList plist = plist();
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		plist.writeBinary(binary);
+
+		// data compressed by the JDK streams
+		ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+		GZIPOutputStream gzipOut = new GZIPOutputStream(gzip);
+		binary.writeTo(gzipOut);
+		gzipOut.close();
+		assertEquals(plist.getDict(), PListCodec.read(new ByteArrayInputStream(gzip.toByteArray())).getDict());
+
+		ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+		DeflaterOutputStream zlibOut = new DeflaterOutputStream(zlib);
+		binary.writeTo(zlibOut);
+		zlibOut.close();
+		assertEquals(plist.getDict(), PListCodec.read(new ByteArrayInputStream(zlib.toByteArray())).getDict());
+
+		// data compressed by PListCodec
+		ByteArrayOutputStream xml = new ByteArrayOutputStream();
+		PListTreeWalker.walk(plist, new XmlPListWriter(xml, "UTF-8"));
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		PListCodec.write(plist, compressed, PListFormat.XML, PListCompression.GZIP);
+		assertArrayEquals(xml.toByteArray(), readFully(new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))));
+	}
+
+
+	@Test
+	public void testDecompress() throws IOException
+	{
+		byte[] data = new byte[200000];
+		for (int i = 0; i < data.length; ++i)
+		{
+			data[i] = (byte) (i * 7 / 1000);
+		}
+
+		// two concatenated gzip members
+		ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+		for (int i = 0; i < 2; ++i)
+		{
+			GZIPOutputStream out = new GZIPOutputStream(gzip);
+			out.write(data);
+			out.finish();
+		}
+		byte[] result = readFully(PListCodec.decompress(new ByteArrayInputStream(gzip.toByteArray())));
+		assertEquals(data.length * 2, result.length);
+		for (int i = 0; i < result.length; ++i)
+		{
+			assertEquals(data[i % data.length], result[i]);
+		}
+
+		// uncompressed data is returned unchanged
+		byte[] plain = "<?xml version=\"1.0\"?><plist/>".getBytes("UTF-8");
+		assertArrayEquals(plain, readFully(PListCodec.decompress(new ByteArrayInputStream(plain))));
+	}
+
+
+	@Test
+	public void testDocumentSizeLimit() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		// a binary plist larger than a pooled buffer
+		Map<String, Object> dict = new HashMap<String, Object>();
+		List<Object> array = new ArrayList<Object>();
+		for (int i = 0; i < 20000; ++i)
+		{
+			array.add("value " + i);
+		}
+		dict.put("array", array);
+		PList plist = new PList(dict);
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		plist.writeBinary(binary);
+		ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+		PListCodec.write(plist, gzip, PListFormat.BINARY, PListCompression.GZIP);
+
+		PListLimits limits = PListLimits.DEFAULT.withMaxDocumentSize(binary.size());
+		assertEquals(dict, PListCodec.read(new ByteArrayInputStream(gzip.toByteArray()), limits).getDict());
+		assertLimitExceeded(gzip.toByteArray(), limits.withMaxDocumentSize(binary.size() - 1));
+
+		// a small stream that inflates to 64 MiB
+		ByteArrayOutputStream bomb = new ByteArrayOutputStream();
+		GZIPOutputStream bombOut = new GZIPOutputStream(bomb);
+		bombOut.write("bplist00".getBytes("US-ASCII"));
+		byte[] zeros = new byte[1024 * 1024];
+		for (int i = 0; i < 64; ++i)
+		{
+			bombOut.write(zeros);
+		}
+		bombOut.close();
+		assertLimitExceeded(bomb.toByteArray(), PListLimits.DEFAULT.withMaxDocumentSize(1024 * 1024));
+	}
+
+
+	@Test
+	public void testCorrupt() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PListCodec.write(plist(), out, PListFormat.BINARY, PListCompression.GZIP);
+		byte[] data = out.toByteArray();
+
+		byte[] truncated = new byte[data.length - 4];
+		System.arraycopy(data, 0, truncated, 0, truncated.length);
+		assertFormatException(truncated);
+
+		byte[] damaged = data.clone();
+		// flip a bit in the CRC
+		damaged[data.length - 6] ^= 1;
+		assertFormatException(damaged);
+	}
+
+
+	private static void assertFormatException(byte[] data) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		try
+		{
+			PListCodec.read(new ByteArrayInputStream(data));
+			fail("corrupt data not detected");
+		}
+		catch (PListFormatException e)
+		{
+			// expected
+		}
+	}
+
+
+	private static void assertLimitExceeded(byte[] data, PListLimits limits) throws IOException, XmlPullParserException
+	{
+		try
+		{
+			PListCodec.read(new ByteArrayInputStream(data), limits);
+			fail("document size limit not enforced");
+		}
+		catch (PListLimitExceededException e)
+		{
+			// expected
+		}
+	}
+
+
+	private static PList plist()
+	{
+		Map<String, Object> dict = new HashMap<String, Object>();
+		List<Object> array = new ArrayList<Object>();
+		for (int i = 0; i < 2000; ++i)
+		{
+			array.add("value " + (i % 100));
+			array.add(i);
+		}
+		dict.put("array", array);
+		dict.put("name", "\u00e4\u00f6\u00fc");
+		dict.put("flag", true);
+		return new PList(dict);
+	}
+
+
+	private static byte[] readFully(InputStream in) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1000];
+		int read;
+		while ((read = in.read(buffer)) >= 0)
+		{
+			out.write(buffer, 0, read);
+		}
+		in.close();
+		return out.toByteArray();
+	}
+}
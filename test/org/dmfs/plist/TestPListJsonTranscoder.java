@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+
+public class TestPListJsonTranscoder
+{
+
+	@Test
+	public void testPListToJson() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		assertEquals("\"abc\"", plistToJson("<?xml version='1.0' ?><plist version=\"1.0\"><string>abc</string></plist>"));
+		assertEquals("123", plistToJson("<?xml version='1.0' ?><plist version=\"1.0\"><integer>123</integer></plist>"));
+		assertEquals("1.0", plistToJson("<?xml version='1.0' ?><plist version=\"1.0\"><real>1</real></plist>"));
+		assertEquals(
+			"{\"a\":[\"x\",1,1.5,true,false],\"b\":{},\"c\":\"AQID\",\"d\":\"2014-04-01T12:00:00Z\"}",
+			plistToJson("<?xml version='1.0' ?><plist version=\"1.0\"><dict><key>a</key><array><string>x</string><integer>1</integer><real>1.5</real><true /><false /></array>"
+				+ "<key>b</key><dict/><key>c</key><data>AQID</data><key>d</key><date>2014-04-01T12:00:00Z</date></dict></plist>"));
+	}
+
+
+	@Test
+	public void testJsonToPList() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		assertEquals("<?xml version='1.0' ?><plist version=\"1.0\"><array><string>a\"b</string><integer>1</integer><real>1.0</real><true /></array></plist>",
+			jsonToPList("[\"a\\\"b\", 1, 1.0, true, null]"));
+		assertEquals("<?xml version='1.0' ?><plist version=\"1.0\"><dict><key>a</key><dict><key>b</key><real>2.5E10</real></dict></dict></plist>",
+			jsonToPList("{\"a\": {\"b\": 2.5e10, \"c\": null}}"));
+	}
+
+
+	@Test
+	public void testJsonRoundTrip() throws IOException, PListLimitExceededException
+	{
+		String json = "{\"a\":[\"x\\n\\u2028\",-1,1.5,true,false,[],{}],\"b\":{\"c\":9223372036854775807}}";
+		StringWriter out = new StringWriter();
+		new JsonPListEventReader(new StringReader(json)).read(new JsonPListWriter(out));
+		assertEquals(json, out.toString());
+	}
+
+
+	@Test(expected = PListFormatException.class)
+	public void testInvalidJson() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		jsonToPList("{\"a\": 1,}");
+	}
+
+
+	@Test
+	public void testNumbers() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		assertEquals(jsonToPList("[-0]"), jsonToPList("[0]"));
+		assertEquals(jsonToPList("[1.5]"), jsonToPList("[15e-1]"));
+		assertEquals(jsonToPList("[1.5]"), jsonToPList("[0.15E+1]"));
+
+		for (String number : new String[] { "01", "-01", "1.", ".5", "-", "+1", "1e", "1e+", "1-2", "1.5.2", "1e5e5", "--1", "0x10", "1.e5" })
+		{
+			assertInvalid("[" + number + "]");
+			assertInvalid(number);
+		}
+	}
+
+
+	@Test
+	public void testTrailingInput() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		jsonToPList("{} \n\t");
+		assertInvalid("{} garbage");
+		assertInvalid("[1] [2]");
+		assertInvalid("\"a\"\"b\"");
+		assertInvalid("1 2");
+	}
+
+
+	@Test(expected = PListLimitExceededException.class)
+	public void testLimits() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		PListJsonTranscoder.jsonToPList(new StringReader("[[[1]]]"), new StringWriter(), PListLimits.DEFAULT.withMaxDepth(2));
+	}
+
+
+	private void assertInvalid(String json) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		try
+		{
+			jsonToPList(json);
+			fail("invalid JSON accepted: " + json);
+		}
+		catch (PListFormatException e)
+		{
+			// expected
+		}
+	}
+
+
+	private String plistToJson(String plist) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		StringWriter out = new StringWriter();
+		PListJsonTranscoder.plistToJson(new StringReader(plist), out);
+		return out.toString();
+	}
+
+
+	private String jsonToPList(String json) throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		StringWriter out = new StringWriter();
+		PListJsonTranscoder.jsonToPList(new StringReader(json), out);
+		return out.toString();
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.dmfs.xmlobjects.pull.XmlObjectPullParserException;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+
+public class TestPListLimits
+{
+
+	private final static String NESTED = "<?xml version='1.0' ?><plist version=\"1.0\"><array><array><array><string>abc</string></array></array></array></plist>";
+
+	private final static String DICT = "<?xml version='1.0' ?><plist version=\"1.0\"><dict><key>key1</key><string>abc</string><key>key2</key><integer>123</integer><key>key3</key><real>123.456</real></dict></plist>";
+
+
+	@Test
+	public void testWithinLimits() throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		PListLimits limits = PListLimits.DEFAULT.withMaxDepth(3).withMaxNodes(4).withMaxStringLength(4).withMaxContainerSize(3);
+		assertEquals(1, parsePList(NESTED, limits).getArray().size());
+		assertEquals(3, parsePList(DICT, limits).getDict().size());
+	}
+
+
+	@Test(expected = PListLimitExceededException.class)
+	public void testDepth() throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		parsePList(NESTED, PListLimits.DEFAULT.withMaxDepth(2));
+	}
+
+
+	@Test(expected = PListLimitExceededException.class)
+	public void testNodes() throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		parsePList(DICT, PListLimits.DEFAULT.withMaxNodes(3));
+	}
+
+
+	@Test(expected = PListLimitExceededException.class)
+	public void testStringLength() throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		parsePList(DICT, PListLimits.DEFAULT.withMaxStringLength(2));
+	}
+
+
+	@Test(expected = PListLimitExceededException.class)
+	public void testTotalStringLength() throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		// three keys with 4 characters each and one string with 3 characters
+		parsePList(DICT, PListLimits.DEFAULT.withMaxTotalStringLength(14));
+	}
+
+
+	@Test(expected = PListLimitExceededException.class)
+	public void testContainerSize() throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		parsePList(DICT, PListLimits.DEFAULT.withMaxContainerSize(2));
+	}
+
+
+	private PList parsePList(String string, PListLimits limits) throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		return PList.read(new StringReader(string), limits);
+	}
+}
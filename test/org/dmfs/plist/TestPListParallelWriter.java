@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.dmfs.xmlobjects.serializer.SerializerException;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+
+public class TestPListParallelWriter
+{
+	private final static ForkJoinPool POOL = new ForkJoinPool(4);
+
+
+	@Test
+	public void testArray() throws IOException, XmlPullParserException, SerializerException
+	{
+		List<Object> array = new ArrayList<Object>();
+		for (int i = 0; i < 10000; ++i)
+		{
+			array.add(element(i));
+		}
+		assertIdentical(new PList(array));
+	}
+
+
+	@Test
+	public void testDict() throws IOException, XmlPullParserException, SerializerException
+	{
+		Map<String, Object> dict = new HashMap<String, Object>();
+		for (int i = 0; i < 10000; ++i)
+		{
+			dict.put("key " + i, element(i));
+		}
+		assertIdentical(new PList(dict));
+	}
+
+
+	@Test
+	public void testSmall() throws IOException, XmlPullParserException, SerializerException
+	{
+		assertIdentical(new PList("scalar"));
+		List<Object> array = new ArrayList<Object>();
+		array.add(1);
+		assertIdentical(new PList(array));
+	}
+
+
+	@Test
+	public void testReadBack() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		List<Object> array = new ArrayList<Object>();
+		for (int i = 0; i < 1000; ++i)
+		{
+			array.add("value " + (i % 10));
+			array.add(i % 3 == 0);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new PList(array).write(out, PListFormat.BINARY, POOL);
+		assertEquals(array, PList.readBinary(new ByteArrayInputStream(out.toByteArray()), PListLimits.UNLIMITED).getArray());
+	}
+
+
+	@Test
+	public void testFailureReleasesBuffers() throws IOException, XmlPullParserException
+	{
+		ByteBufferPool buffers = new ByteBufferPool(64 * 1024, 64);
+		ByteBuffer[] warm = new ByteBuffer[64];
+		for (int i = 0; i < warm.length; ++i)
+		{
+			warm[i] = buffers.acquire();
+		}
+		for (ByteBuffer buffer : warm)
+		{
+			buffers.release(buffer);
+		}
+
+		List<Object> array = new ArrayList<Object>();
+		for (int i = 0; i < 10000; ++i)
+		{
+			array.add(i == 5000 ? new ArrayList<Object>()
+			{
+				private static final long serialVersionUID = 1L;
+
+
+				@Override
+				public Iterator<Object> iterator()
+				{
+					throw new IllegalStateException("broken element");
+				}
+			} : element(i));
+		}
+		try
+		{
+			new PListParallelWriter(POOL, 100, buffers).write(new PList(array), new ByteArrayOutputStream(), PListFormat.XML);
+			fail("broken element not detected");
+		}
+		catch (IllegalStateException e)
+		{
+			// expected
+		}
+		// give chunks that were still being encoded a chance to discard themselves
+		POOL.awaitQuiescence(10, TimeUnit.SECONDS);
+		assertEquals(64, buffers.pooled());
+	}
+
+
+	/**
+	 * Returns an element with lots of duplicates across chunks.
+	 */
+	private static Object element(int i)
+	{
+		switch (i % 6)
+		{
+			case 0:
+				return "string " + (i % 1000);
+			case 1:
+				return i % 500;
+			case 2:
+				return i % 4 == 1;
+			case 3:
+				return i / 3.0;
+			case 4:
+			{
+				Map<String, Object> dict = new HashMap<String, Object>();
+				dict.put("name", "string " + (i % 700));
+				dict.put("id", i);
+				List<Object> nested = new ArrayList<Object>();
+				nested.add(true);
+				nested.add("\u00e4\u00f6\u00fc " + (i % 50));
+				dict.put("nested", nested);
+				// values the sequential XML serializer doesn't write
+				dict.put("missing", null);
+				dict.put("long", (long) i);
+				nested.add(null);
+				return dict;
+			}
+			default:
+				return new ArrayList<Object>();
+		}
+	}
+
+
+	private static void assertIdentical(PList plist) throws IOException, XmlPullParserException, SerializerException
+	{
+		PListParallelWriter writer = new PListParallelWriter(POOL, 100);
+
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		plist.write(expected, PListFormat.XML);
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		writer.write(plist, result, PListFormat.XML);
+		assertArrayEquals(expected.toByteArray(), result.toByteArray());
+
+		expected.reset();
+		plist.writeBinary(expected);
+		result.reset();
+		writer.write(plist, result, PListFormat.BINARY);
+		assertArrayEquals(expected.toByteArray(), result.toByteArray());
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+
+public class TestPListQuery
+{
+
+	@Test
+	public void testPath()
+	{
+		PList library = library();
+		assertEquals(Arrays.asList((Object) "Track 7"), PListQuery.compile("Tracks/7/Name").select(library));
+		assertEquals(Arrays.asList((Object) "Music"), PListQuery.compile("Playlists/0/Name").select(library));
+		assertEquals(Arrays.asList(), PListQuery.compile("Tracks/1000/Name").select(library));
+		assertEquals(Arrays.asList((Object) "a/b"), PListQuery.compile("Odd Keys/a\\/b").select(library));
+	}
+
+
+	@Test
+	public void testPredicates()
+	{
+		PList library = library();
+		assertEquals(names(3, 13, 23, 33, 43), PListQuery.compile("Playlists/0/Items/*[Artist == 'Artist 3']/Name").select(library));
+		assertEquals(names(3, 13), PListQuery.compile("Playlists/0/Items/*[Artist == ? && Total Time < 200000]/Name").select(library, "Artist 3"));
+		assertEquals(names(0, 1, 2), PListQuery.compile("Playlists/0/Items/*[Track ID <= 2]/Name").select(library));
+		assertEquals(names(0, 1, 49), PListQuery.compile("Playlists/0/Items/*[Track ID < 2 || (Track ID >= 49)]/Name").select(library));
+		assertEquals(names(1, 3), PListQuery.compile("Playlists/0/Items/*[!Compilation && Track ID != 5 && Track ID < 7]/Name").select(library));
+		assertEquals(names(4, 8), PListQuery.compile("Playlists/0/Items/*[Total Time == 140000.0 && Track ID < 9]/Name").select(library));
+		assertEquals(Arrays.asList((Object) "Music"), PListQuery.compile("Playlists/*[Items/0/Track ID == 0]/Name").select(library));
+		assertEquals(Arrays.asList((Object) "rock"), PListQuery.compile("Playlists/0/Tags/*[@ == \"rock\"]").select(library));
+	}
+
+
+	@Test
+	public void testProjection()
+	{
+		PList library = library();
+		Map<String, Object> expected = new LinkedHashMap<String, Object>();
+		expected.put("Name", "Track 42");
+		expected.put("Total Time", 310000);
+		expected.put("Missing", null);
+		assertEquals(Arrays.asList((Object) expected),
+			PListQuery.compile("Tracks/*[Track ID == 42]{Name, Total Time, Missing}").select(ImmutablePList.of(library)));
+	}
+
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testIndex()
+	{
+		PList library = library();
+		IndexedPList indexed = new IndexedPList(library).index("Playlists/0/Items", "Artist").index("Tracks", "Track ID");
+		PListQuery byArtist = PListQuery.compile("Playlists/0/Items/*[Artist == ?]/Name");
+		PListQuery byId = PListQuery.compile("Tracks/*[Track ID == ?]/Name");
+
+		for (int i = 0; i < 10; ++i)
+		{
+			assertEquals(byArtist.select(library, "Artist " + i), byArtist.select(indexed, "Artist " + i));
+		}
+		assertEquals(names(4), byId.select(indexed, 4));
+		assertEquals(names(4), byId.select(indexed, 4.0));
+		assertEquals(Arrays.asList(), byId.select(indexed, "4"));
+
+		// changes through the IndexedPList
+		indexed.put("Playlists/0/Items/3/Artist", "Artist 4");
+		assertEquals(names(3, 4, 14, 24, 34, 44), byArtist.select(indexed, "Artist 4"));
+		assertEquals(names(13, 23, 33, 43), byArtist.select(indexed, "Artist 3"));
+		indexed.remove("Playlists/0/Items/0");
+		assertEquals(names(1, 11, 21, 31, 41), byArtist.select(indexed, "Artist 1"));
+
+		// direct changes require invalidation
+		Map<String, Object> oldTracks = (Map<String, Object>) library.getDict().get("Tracks");
+		((Map<String, Object>) oldTracks.get("5")).put("Track ID", 1005);
+		indexed.invalidate();
+		assertEquals(names(5), byId.select(indexed, 1005));
+
+		// replaced containers are detected
+		Map<String, Object> tracks = new HashMap<String, Object>();
+		tracks.put("1", track(1));
+		((Map<String, Object>) library.getDict()).put("Tracks", tracks);
+		assertEquals(names(1), byId.select(indexed, 1));
+		assertEquals(Arrays.asList(), byId.select(indexed, 2));
+	}
+
+
+	@Test
+	public void testImmutableIndex()
+	{
+		IndexedPList indexed = new IndexedPList(ImmutablePList.of(library())).index("Tracks", "Artist");
+		PListQuery query = PListQuery.compile("Tracks/*[Artist == ?]/Name");
+		assertEquals(5, query.select(indexed, "Artist 7").size());
+
+		indexed.put("Tracks/100", track(100));
+		indexed.put("Tracks/100/Artist", "Artist 7");
+		assertEquals(6, query.select(indexed, "Artist 7").size());
+		indexed.remove("Tracks/7");
+		assertEquals(5, query.select(indexed, "Artist 7").size());
+		assertEquals(5, query.select(indexed.getImmutablePList(), "Artist 7").size());
+	}
+
+
+	@Test
+	public void testInvalid()
+	{
+		for (String query : new String[] { "Tracks/*[Artist == ]", "Tracks/*[Artist", "Tracks/*[(Artist == 'a']", "Tracks{Name", "Tracks{}", "Tracks/*['a]",
+			"Tracks/*[Artist == 'a'] x", "Tracks/*[Artist = 'a']" })
+		{
+			try
+			{
+				PListQuery.compile(query);
+				fail("invalid query " + query + " not detected");
+			}
+			catch (IllegalArgumentException e)
+			{
+				// expected
+			}
+		}
+
+		try
+		{
+			PListQuery.compile("Tracks/*[Artist == ?]").select(library());
+			fail("missing argument not detected");
+		}
+		catch (IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+
+
+	/**
+	 * Returns a library with 50 tracks in a dict keyed by track ID and a playlist with all of them.
+	 */
+	private static PList library()
+	{
+		Map<String, Object> tracks = new HashMap<String, Object>();
+		List<Object> items = new ArrayList<Object>();
+		for (int i = 0; i < 50; ++i)
+		{
+			tracks.put(String.valueOf(i), track(i));
+			items.add(track(i));
+		}
+
+		Map<String, Object> playlist = new HashMap<String, Object>();
+		playlist.put("Name", "Music");
+		playlist.put("Items", items);
+		playlist.put("Tags", new ArrayList<Object>(Arrays.asList("pop", "rock")));
+		List<Object> playlists = new ArrayList<Object>();
+		playlists.add(playlist);
+
+		Map<String, Object> odd = new HashMap<String, Object>();
+		odd.put("a/b", "a/b");
+
+		Map<String, Object> library = new HashMap<String, Object>();
+		library.put("Tracks", tracks);
+		library.put("Playlists", playlists);
+		library.put("Odd Keys", odd);
+		return new PList(library);
+	}
+
+
+	private static Map<String, Object> track(int id)
+	{
+		Map<String, Object> track = new HashMap<String, Object>();
+		track.put("Track ID", id);
+		track.put("Name", "Track " + id);
+		track.put("Artist", "Artist " + (id % 10));
+		track.put("Total Time", id % 5 == 4 ? (Object) 140000.0 : (Object) (100000 + id * 5000));
+		track.put("Compilation", id % 2 == 0);
+		return track;
+	}
+
+
+	private static List<Object> names(int... ids)
+	{
+		List<Object> result = new ArrayList<Object>();
+		for (int id : ids)
+		{
+			result.add("Track " + id);
+		}
+		return result;
+	}
+}
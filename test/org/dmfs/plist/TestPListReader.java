@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dmfs.xmlobjects.pull.XmlObjectPullParserException;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+
+public class TestPListReader
+{
+
+	@Test
+	public void testRecycle() throws XmlPullParserException, IOException, XmlObjectPullParserException
+	{
+		PListReader reader = new PListReader();
+		PList first = reader.read(new StringReader("<plist version=\"1.0\"><dict><key>a</key><array><string>x</string></array></dict></plist>"));
+		Map<String, ?> dict = first.getDict();
+		List<?> array = (List<?>) dict.get("a");
+
+		PList second = reader.read(new StringReader("<plist version=\"1.0\"><dict><key>b</key><array><string>y</string></array></dict></plist>"), PListLimits.UNLIMITED,
+			first);
+		assertSame(first, second);
+		assertSame(dict, second.getDict());
+		assertSame(array, second.getDict().get("b"));
+		assertEquals(Arrays.asList("y"), array);
+		assertNull(second.getDict().get("a"));
+
+		reader.recycle(second);
+		PList third = reader.read(new StringReader("<plist version=\"1.0\"><array><dict /></array></plist>"));
+		assertSame(second, third);
+		// the containers are reused regardless of their position in the tree
+		assertSame(array, third.getArray());
+		assertSame(dict, third.getArray().get(0));
+	}
+
+
+	@Test
+	public void testRecycler()
+	{
+		HashMap<String, Object> nested = new HashMap<String, Object>();
+		nested.put("a", "b");
+		ArrayList<Object> array = new ArrayList<Object>();
+		array.add(nested);
+		// not created by the parser, must not be pooled
+		List<Object> foreign = Arrays.asList((Object) "x");
+		array.add(foreign);
+		PList plist = new PList(array);
+
+		PListRecycler recycler = new PListRecycler();
+		recycler.recycle(plist);
+		assertNull(plist.getArray());
+		assertSame(nested, recycler.obtainMap());
+		assertEquals(0, nested.size());
+		assertNull(recycler.obtainMap());
+		assertSame(array, recycler.obtainList());
+		assertEquals(0, array.size());
+		assertNull(recycler.obtainList());
+		assertEquals(Arrays.asList("x"), foreign);
+	}
+
+
+	@Test
+	public void testRecyclerSharedContainers()
+	{
+		HashMap<String, Object> shared = new HashMap<String, Object>();
+		shared.put("a", "b");
+		ArrayList<Object> array = new ArrayList<Object>();
+		array.add(shared);
+		array.add(shared);
+		// a self-referencing container
+		array.add(array);
+		ArrayList<Object> large = new ArrayList<Object>();
+		for (int i = 0; i < 1000; ++i)
+		{
+			large.add(i);
+		}
+		array.add(large);
+
+		PListRecycler recycler = new PListRecycler();
+		recycler.recycle(new PList(array));
+		assertSame(shared, recycler.obtainMap());
+		assertNull(recycler.obtainMap());
+		// the large list is not pooled
+		assertSame(array, recycler.obtainList());
+		assertNull(recycler.obtainList());
+		assertEquals(1000, large.size());
+	}
+}
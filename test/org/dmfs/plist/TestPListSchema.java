@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+
+public class TestPListSchema
+{
+	private final static PListSchema SERVER = PListSchema.dict().required("Host", PListSchema.STRING).optional("Port", PListSchema.INTEGER).build();
+
+	private final static PListSchema CONFIG = PListSchema.dict().required("Name", PListSchema.STRING)
+		.optional("Servers", PListSchema.arrayOf(SERVER)).optional("Extra", PListSchema.ANY).build();
+
+	private final static String XML = "<?xml version='1.0' encoding='UTF-8' ?><plist version=\"1.0\"><dict><key>Ignored</key><dict><key>a</key>"
+		+ "<array><string>x</string><integer>1</integer></array></dict><key>Name</key><string>test</string><key>Servers</key><array><dict>"
+		+ "<key>Host</key><string>a.example.com</string><key>Port</key><integer>443</integer><key>Comment</key><string>skipped</string></dict>"
+		+ "<dict><key>Host</key><string>b.example.com</string></dict></array><key>Extra</key><dict><key>x</key><true /></dict></dict></plist>";
+
+
+	@Test
+	public void testProjection() throws XmlPullParserException, IOException, PListLimitExceededException
+	{
+		PList plist = PList.read(new StringReader(XML), CONFIG, PListLimits.DEFAULT);
+		SchemaDict dict = (SchemaDict) plist.getDict();
+
+		assertEquals(3, dict.size());
+		assertNull(dict.get("Ignored"));
+		assertEquals("test", dict.get(CONFIG.slot("Name")));
+		assertEquals(Arrays.asList("Name", "Servers", "Extra"), new ArrayList<String>(dict.keySet()));
+
+		List<?> servers = (List<?>) dict.get("Servers");
+		assertEquals(2, servers.size());
+		SchemaDict server = (SchemaDict) servers.get(0);
+		assertEquals(2, server.size());
+		assertEquals("a.example.com", server.get(SERVER.slot("Host")));
+		assertEquals(443, server.get("Port"));
+		assertEquals(1, ((Map<?, ?>) servers.get(1)).size());
+
+		Map<String, Object> extra = new HashMap<String, Object>();
+		extra.put("x", true);
+		assertEquals(extra, dict.get("Extra"));
+	}
+
+
+	@Test
+	public void testBinary() throws XmlPullParserException, IOException, PListLimitExceededException
+	{
+		Map<String, Object> server = new HashMap<String, Object>();
+		server.put("Host", "a.example.com");
+		server.put("Comment", "skipped");
+		List<Object> servers = new ArrayList<Object>();
+		servers.add(server);
+		Map<String, Object> dict = new HashMap<String, Object>();
+		dict.put("Name", "test");
+		dict.put("Servers", servers);
+		dict.put("Ignored", new ArrayList<Object>());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new PList(dict).writeBinary(out);
+
+		PList plist = PList.readBinary(new ByteArrayInputStream(out.toByteArray()), CONFIG, PListLimits.DEFAULT);
+		server.remove("Comment");
+		dict.remove("Ignored");
+		assertEquals(dict, plist.getDict());
+	}
+
+
+	@Test
+	public void testTypeMismatch() throws XmlPullParserException, IOException, PListLimitExceededException
+	{
+		try
+		{
+			PList.read(new StringReader("<plist><dict><key>Name</key><string>test</string><key>Servers</key><array><dict><key>Host</key>"
+				+ "<string>a.example.com</string><key>Port</key><string>443</string></dict></array></dict></plist>"), CONFIG, PListLimits.DEFAULT);
+			fail("type mismatch not detected");
+		}
+		catch (PListSchemaException e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().contains("Servers/0/Port"));
+		}
+	}
+
+
+	@Test
+	public void testMissingRequiredKey() throws XmlPullParserException, IOException, PListLimitExceededException
+	{
+		try
+		{
+			PList.read(new StringReader("<plist><dict><key>Name</key><string>test</string><key>Servers</key><array><dict><key>Port</key>"
+				+ "<integer>443</integer></dict></array></dict></plist>"), CONFIG, PListLimits.DEFAULT);
+			fail("missing key not detected");
+		}
+		catch (PListSchemaException e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().contains("Host"));
+			assertTrue(e.getMessage(), e.getMessage().contains("Servers/0"));
+		}
+	}
+
+
+	@Test(expected = PListSchemaException.class)
+	public void testWrongTopLevel() throws XmlPullParserException, IOException, PListLimitExceededException
+	{
+		PList.read(new StringReader("<plist><array /></plist>"), CONFIG, PListLimits.DEFAULT);
+	}
+
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUndeclaredPut()
+	{
+		new SchemaDict(SERVER).put("Comment", "x");
+	}
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2026 The dmfs plist contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package org.dmfs.plist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+
+public class TestPListStreamReader
+{
+
+	@Test
+	public void testXml() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		StringBuilder longString = new StringBuilder();
+		for (int i = 0; i < 5000; ++i)
+		{
+			longString.append("value ");
+		}
+		String input = "<?xml version='1.0' encoding='UTF-8' ?><plist version=\"1.0\"><string>a</string></plist>\n"
+			+ "<?xml version='1.0' encoding='UTF-8' ?>\n<plist version=\"1.0\"><array><integer>1</integer><string>" + longString
+			+ "</string></array></plist ><plist version=\"1.0\"><true /></plist>\n\n";
+		PListStreamReader reader = new PListStreamReader(new ByteArrayInputStream(input.getBytes("UTF-8")), PListFormat.XML, PListLimits.DEFAULT);
+
+		assertEquals("a", reader.readPList().getString());
+		PList second = reader.readPList();
+		assertEquals(2, second.getArray().size());
+		assertEquals(longString.toString(), second.getArray().get(1));
+		assertEquals(Boolean.TRUE, reader.readPList().getBoolean());
+		assertNull(reader.readPList());
+		reader.close();
+	}
+
+
+	@Test
+	public void testBinary() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int i = 0; i < 100; ++i)
+		{
+			writePrefixed(new PList(i), out);
+		}
+		PListStreamReader reader = new PListStreamReader(new ByteArrayInputStream(out.toByteArray()), PListFormat.BINARY, PListLimits.DEFAULT);
+		int count = 0;
+		for (PList plist : reader)
+		{
+			assertEquals(count++, (int) plist.getInteger());
+		}
+		assertEquals(100, count);
+	}
+
+
+	@Test
+	public void testPrefetch() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; ++i)
+		{
+			writePrefixed(new PList(i), out);
+			expected.add(i);
+		}
+		PListStreamReader reader = new PListStreamReader(new ByteArrayInputStream(out.toByteArray()), PListFormat.BINARY, PListLimits.DEFAULT);
+		Stream<PList> stream = reader.stream(16);
+		try
+		{
+			List<Integer> result = new ArrayList<Integer>();
+			for (Iterator<PList> iterator = stream.iterator(); iterator.hasNext();)
+			{
+				result.add(iterator.next().getInteger());
+			}
+			assertEquals(expected, result);
+		}
+		finally
+		{
+			stream.close();
+		}
+	}
+
+
+	@Test
+	public void testStopPrefetch() throws IOException, XmlPullParserException, PListLimitExceededException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int i = 0; i < 100; ++i)
+		{
+			writePrefixed(new PList(i), out);
+		}
+		PListStreamReader reader = new PListStreamReader(new ByteArrayInputStream(out.toByteArray()), PListFormat.BINARY, PListLimits.DEFAULT);
+		for (int start = 0; start < 100; start += 10)
+		{
+			Stream<PList> stream = reader.stream(4);
+			Iterator<PList> iterator = stream.iterator();
+			for (int i = start; i < start + 5; ++i)
+			{
+				assertEquals(i, (int) iterator.next().getInteger());
+			}
+			stream.close();
+
+			// the documents that have been read ahead are handed back
+			for (int i = start + 5; i < start + 10; ++i)
+			{
+				assertEquals(i, (int) reader.readPList().getInteger());
+			}
+		}
+		assertNull(reader.readPList());
+		reader.close();
+	}
+
+
+	@Test
+	public void testStalledInput() throws Exception
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int i = 0; i < 3; ++i)
+		{
+			writePrefixed(new PList(i), out);
+		}
+		byte[] data = out.toByteArray();
+		int second = data.length / 3;
+
+		PipedOutputStream pipe = new PipedOutputStream();
+		final PListStreamReader reader = new PListStreamReader(new PipedInputStream(pipe, data.length), PListFormat.BINARY, PListLimits.DEFAULT);
+		// the first document and a part of the second
+		pipe.write(data, 0, second + 10);
+		pipe.flush();
+
+		final Stream<PList> stream = reader.stream(4);
+		assertEquals(0, (int) stream.iterator().next().getInteger());
+		Thread closer = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				stream.close();
+			}
+		});
+		closer.start();
+		// closing the stream waits for the rest of the second document
+		closer.join(300);
+		assertTrue(closer.isAlive());
+		pipe.write(data, second + 10, second - 10);
+		pipe.flush();
+		closer.join(5000);
+		assertFalse(closer.isAlive());
+		assertEquals(1, (int) reader.readPList().getInteger());
+
+		// closing the reader doesn't wait for the third document
+		reader.stream(4).iterator();
+		closer = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					reader.close();
+				}
+				catch (IOException e)
+				{
+					// ignore
+				}
+			}
+		});
+		closer.start();
+		closer.join(5000);
+		assertFalse(closer.isAlive());
+	}
+
+
+	@Test
+	public void testTruncated() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writePrefixed(new PList("a"), out);
+		writePrefixed(new PList("b"), out);
+		byte[] data = out.toByteArray();
+		byte[] truncated = new byte[data.length - 3];
+		System.arraycopy(data, 0, truncated, 0, truncated.length);
+
+		Iterator<PList> iterator = new PListStreamReader(new ByteArrayInputStream(truncated), PListFormat.BINARY, PListLimits.DEFAULT).iterator(4);
+		assertEquals("a", iterator.next().getString());
+		try
+		{
+			iterator.hasNext();
+			fail("truncated document not detected");
+		}
+		catch (UncheckedIOException e)
+		{
+			assertEquals(PListFormatException.class, e.getCause().getClass());
+		}
+	}
+
+
+	private static void writePrefixed(PList plist, ByteArrayOutputStream out) throws IOException
+	{
+		ByteArrayOutputStream document = new ByteArrayOutputStream();
+		plist.writeBinary(document);
+		int length = document.size();
+		out.write(length >>> 24);
+		out.write(length >>> 16);
+		out.write(length >>> 8);
+		out.write(length);
+		document.writeTo(out);
+	}
+}